@@ -0,0 +1,67 @@
+package com.vocational.researchfund.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT过滤器免认证判断的吞吐量：逐个模式调用AntPathMatcher（原实现）与预编译前缀树（PathWhitelist）对比
+ * 运行方式：mvn -P jmh test -Djmh.args="PathWhitelistBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathWhitelistBenchmark {
+
+    private static final List<String> PATTERNS = JwtAuthenticationFilter.EXCLUDE_URL_PATTERNS;
+
+    /**
+     * 需要认证的业务接口（最常见，原实现需遍历全部模式）、白名单精确路径、白名单前缀路径
+     */
+    @Param({"/api/expenses/1024/attachments", "/api/department/all", "/swagger-ui/index.html"})
+    private String path;
+
+    private String method = "GET";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final PathWhitelist whitelist = new PathWhitelist(PATTERNS);
+
+    @Benchmark
+    public boolean antPathMatcherLoop() {
+        if (HttpMethod.OPTIONS.matches(method)) {
+            return true;
+        }
+        if (HttpMethod.POST.matches(method) && (path.equals("/api/user/login") || path.equals("/api/user/register"))) {
+            return true;
+        }
+        for (String pattern : PATTERNS) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean pathWhitelist() {
+        return HttpMethod.OPTIONS.matches(method)
+                || (HttpMethod.POST.matches(method) && ("/api/user/login".equals(path) || "/api/user/register".equals(path)))
+                || whitelist.matches(path);
+    }
+}
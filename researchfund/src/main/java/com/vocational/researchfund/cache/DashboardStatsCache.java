@@ -0,0 +1,182 @@
+package com.vocational.researchfund.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 仪表盘统计物化缓存
+ * 按统计分区（统计卡片、项目类型、科研成果）和范围（全局/用户）保存已计算的统计结果，
+ * 相关数据表发生写操作时由StatsInvalidationInterceptor使对应分区失效，下次读取时重新计算；
+ * 同时设置有效期，兜底直接修改数据库等无法感知的变更
+ */
+@Component
+public class DashboardStatsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsCache.class);
+
+    /**
+     * 统计卡片（项目数、待审核/待支付经费、预算使用率）
+     */
+    public static final String SECTION_STATS = "stats";
+
+    /**
+     * 项目类型统计
+     */
+    public static final String SECTION_PROJECT_TYPES = "projectTypes";
+
+    /**
+     * 科研成果统计
+     */
+    public static final String SECTION_RESEARCH_RESULTS = "researchResults";
+
+    /**
+     * 全局统计范围
+     */
+    public static final String SCOPE_GLOBAL = "global";
+
+    /**
+     * 统计结果有效期（秒）
+     */
+    @Value("${researchfund.cache.dashboard.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * 单个分区最多缓存的范围数（全局 + 用户数）
+     */
+    @Value("${researchfund.cache.dashboard.max-scopes:5000}")
+    private int maxScopes;
+
+    private final Map<String, Map<String, Snapshot>> sections = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 用户范围的键
+     * @param userId 用户ID
+     * @return 范围键
+     */
+    public static String userScope(Long userId) {
+        return "user:" + userId;
+    }
+
+    /**
+     * 读取统计结果，未命中或已失效时通过loader重新计算
+     * loader抛出异常时不缓存，异常直接抛给调用方
+     * @param section 统计分区
+     * @param scope 统计范围
+     * @param loader 计算函数
+     * @param <T> 结果类型
+     * @return 统计结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String section, String scope, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Map<String, Snapshot> snapshots = sections.computeIfAbsent(section, k -> new ConcurrentHashMap<>());
+        AtomicLong version = versions.computeIfAbsent(section, k -> new AtomicLong());
+
+        Snapshot snapshot = snapshots.get(scope);
+        if (snapshot != null && snapshot.expireAt > now && snapshot.version == version.get()) {
+            hits.incrementAndGet();
+            return (T) snapshot.value;
+        }
+
+        misses.incrementAndGet();
+        long loadVersion = version.get();
+        T value = loader.get();
+
+        // 计算期间分区已失效，则不保存本次结果
+        if (value != null && version.get() == loadVersion) {
+            if (snapshots.size() >= maxScopes) {
+                snapshots.values().removeIf(s -> s.expireAt <= now || s.version != loadVersion);
+            }
+            if (snapshots.size() < maxScopes) {
+                snapshots.put(scope, new Snapshot(value, loadVersion, now + ttlSeconds * 1000));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 使统计分区失效，事务中调用时事务结束后会再次失效
+     * @param section 统计分区
+     */
+    public void invalidate(String section) {
+        doInvalidate(section);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 同一事务内每个分区只注册一次事务结束回调
+            @SuppressWarnings("unchecked")
+            Set<String> pendingSections = (Set<String>) TransactionSynchronizationManager.getResource(this);
+            if (pendingSections == null) {
+                Set<String> set = new HashSet<>();
+                TransactionSynchronizationManager.bindResource(this, set);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(DashboardStatsCache.this);
+                        for (String pendingSection : set) {
+                            doInvalidate(pendingSection);
+                        }
+                    }
+                });
+                pendingSections = set;
+            }
+            pendingSections.add(section);
+        }
+    }
+
+    /**
+     * 获取缓存统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (Map.Entry<String, Map<String, Snapshot>> entry : sections.entrySet()) {
+            sizes.put(entry.getKey(), entry.getValue().size());
+        }
+        stats.put("sections", sizes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    private void doInvalidate(String section) {
+        // 递增版本号即可使分区内所有快照失效，旧快照在下次写入时被覆盖或清理
+        versions.computeIfAbsent(section, k -> new AtomicLong()).incrementAndGet();
+        invalidations.incrementAndGet();
+        logger.debug("仪表盘统计分区失效: {}", section);
+    }
+
+    /**
+     * 统计快照
+     */
+    private static class Snapshot {
+        private final Object value;
+        private final long version;
+        private final long expireAt;
+
+        Snapshot(Object value, long version, long expireAt) {
+            this.value = value;
+            this.version = version;
+            this.expireAt = expireAt;
+        }
+    }
+}
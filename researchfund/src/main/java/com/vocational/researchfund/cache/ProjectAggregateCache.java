@@ -0,0 +1,248 @@
+package com.vocational.researchfund.cache;
+
+import com.vocational.researchfund.dto.ProjectDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 项目聚合缓存
+ * 缓存getProjectById组装的完整项目信息（含团队成员、预算科目、经费来源），
+ * 按LRU限制容量，超过TTL自动失效，项目相关写操作需调用evict显式失效
+ */
+@Component
+public class ProjectAggregateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectAggregateCache.class);
+
+    /**
+     * 最大缓存项目数
+     */
+    @Value("${researchfund.cache.project.max-size:1000}")
+    private int maxSize;
+
+    /**
+     * 缓存有效期（秒）
+     */
+    @Value("${researchfund.cache.project.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * 缓存数据，按访问顺序排列，超出容量时淘汰最久未访问的项目
+     */
+    private final LinkedHashMap<Long, CacheEntry> entries = new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+            if (size() > maxSize) {
+                sizeEvictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sizeEvictions = new AtomicLong();
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong explicitEvictions = new AtomicLong();
+
+    /**
+     * 失效版本号，写操作递增，用于丢弃并发加载得到的旧数据
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 从缓存获取项目，未命中时通过loader加载并放入缓存
+     * @param id 项目ID
+     * @param loader 数据库加载函数
+     * @return 项目DTO副本，调用方可以自由修改
+     */
+    public ProjectDTO get(Long id, Function<Long, ProjectDTO> loader) {
+        // 当前事务中修改过该项目时，直接读库以看到本事务的修改
+        if (isEvictedInCurrentTransaction(id)) {
+            return loader.apply(id);
+        }
+
+        long now = System.currentTimeMillis();
+        long loadVersion;
+        synchronized (entries) {
+            CacheEntry entry = entries.get(id);
+            if (entry != null) {
+                if (entry.expireAt > now) {
+                    hits.incrementAndGet();
+                    return copyOf(entry.project);
+                }
+                entries.remove(id);
+                expiredEvictions.incrementAndGet();
+            }
+            loadVersion = version.get();
+        }
+
+        misses.incrementAndGet();
+        ProjectDTO project = loader.apply(id);
+        if (project == null) {
+            return null;
+        }
+
+        synchronized (entries) {
+            // 加载期间发生过失效操作，则不缓存本次结果
+            if (version.get() == loadVersion) {
+                entries.put(id, new CacheEntry(copyOf(project), now + ttlSeconds * 1000));
+            }
+        }
+        return project;
+    }
+
+    /**
+     * 失效指定项目缓存
+     * 在事务中调用时，事务结束后会再次失效，防止并发读取在提交前把旧数据重新放入缓存
+     * @param id 项目ID
+     */
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        doEvict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            @SuppressWarnings("unchecked")
+            Set<Long> pendingIds = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+            if (pendingIds == null) {
+                Set<Long> ids = new HashSet<>();
+                TransactionSynchronizationManager.bindResource(this, ids);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ProjectAggregateCache.this);
+                        for (Long pendingId : ids) {
+                            doEvict(pendingId);
+                        }
+                    }
+                });
+                pendingIds = ids;
+            }
+            pendingIds.add(id);
+        }
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            version.incrementAndGet();
+            explicitEvictions.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * 获取缓存统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        int size;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            // 顺便清理已过期的缓存项
+            Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expireAt <= now) {
+                    iterator.remove();
+                    expiredEvictions.incrementAndGet();
+                }
+            }
+            size = entries.size();
+        }
+
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("sizeEvictions", sizeEvictions.get());
+        stats.put("expiredEvictions", expiredEvictions.get());
+        stats.put("explicitEvictions", explicitEvictions.get());
+        return stats;
+    }
+
+    private boolean isEvictedInCurrentTransaction(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Object pendingIds = TransactionSynchronizationManager.getResource(this);
+        return pendingIds instanceof Set && ((Set<?>) pendingIds).contains(id);
+    }
+
+    private void doEvict(Long id) {
+        synchronized (entries) {
+            version.incrementAndGet();
+            if (entries.remove(id) != null) {
+                explicitEvictions.incrementAndGet();
+                logger.debug("项目缓存失效: {}", id);
+            }
+        }
+    }
+
+    /**
+     * 复制项目DTO，避免调用方修改缓存中的对象
+     */
+    private ProjectDTO copyOf(ProjectDTO source) {
+        ProjectDTO target = new ProjectDTO();
+        BeanUtils.copyProperties(source, target);
+        if (source.getFundingSources() != null) {
+            target.setFundingSources(new ArrayList<>(source.getFundingSources()));
+        }
+        if (source.getTeam() != null) {
+            List<ProjectDTO.TeamMemberDTO> team = new ArrayList<>(source.getTeam().size());
+            for (ProjectDTO.TeamMemberDTO member : source.getTeam()) {
+                team.add(new ProjectDTO.TeamMemberDTO(member.getId(), member.getName(), member.getRole()));
+            }
+            target.setTeam(team);
+        }
+        if (source.getBudgetItems() != null) {
+            List<ProjectDTO.BudgetItemDTO> budgetItems = new ArrayList<>(source.getBudgetItems().size());
+            for (ProjectDTO.BudgetItemDTO item : source.getBudgetItems()) {
+                budgetItems.add(new ProjectDTO.BudgetItemDTO(item.getId(), item.getCategory(), item.getAmount()));
+            }
+            target.setBudgetItems(budgetItems);
+        }
+        return target;
+    }
+
+    /**
+     * 缓存项
+     */
+    private static class CacheEntry {
+        private final ProjectDTO project;
+        private final long expireAt;
+
+        CacheEntry(ProjectDTO project, long expireAt) {
+            this.project = project;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.vocational.researchfund.cache;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 仪表盘统计失效拦截器
+ * 拦截MyBatis的insert/update/delete，根据Mapper判断影响的统计分区并使其失效，
+ * 所有写路径（包括控制器中直接调用Mapper的地方）都能保证统计结果及时更新
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StatsInvalidationInterceptor implements Interceptor {
+
+    /**
+     * Mapper命名空间 -> 受影响的统计分区
+     */
+    private static final Map<String, List<String>> AFFECTED_SECTIONS = new HashMap<>();
+
+    static {
+        List<String> projectSections = Arrays.asList(
+                DashboardStatsCache.SECTION_STATS, DashboardStatsCache.SECTION_PROJECT_TYPES);
+        AFFECTED_SECTIONS.put("com.vocational.researchfund.mapper.ProjectMapper", projectSections);
+        AFFECTED_SECTIONS.put("com.vocational.researchfund.mapper.ExpenseMapper",
+                Collections.singletonList(DashboardStatsCache.SECTION_STATS));
+        AFFECTED_SECTIONS.put("com.vocational.researchfund.mapper.AchievementMapper",
+                Collections.singletonList(DashboardStatsCache.SECTION_RESEARCH_RESULTS));
+    }
+
+    @Autowired
+    @Lazy
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        String statementId = statement.getId();
+        int index = statementId.lastIndexOf('.');
+        List<String> sections = index > 0 ? AFFECTED_SECTIONS.get(statementId.substring(0, index)) : null;
+        if (sections != null) {
+            for (String section : sections) {
+                dashboardStatsCache.invalidate(section);
+            }
+        }
+        return result;
+    }
+}
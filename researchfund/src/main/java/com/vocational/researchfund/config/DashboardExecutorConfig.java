@@ -0,0 +1,42 @@
+package com.vocational.researchfund.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 仪表盘并行查询线程池配置
+ */
+@Configuration
+public class DashboardExecutorConfig {
+
+    @Value("${researchfund.dashboard.executor.core-size:4}")
+    private int coreSize;
+
+    @Value("${researchfund.dashboard.executor.max-size:8}")
+    private int maxSize;
+
+    @Value("${researchfund.dashboard.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * 仪表盘数据源并行查询线程池
+     * 队列满时由调用线程执行，退化为串行查询而不是直接失败
+     */
+    @Bean("dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,9 +1,11 @@
 package com.vocational.researchfund.config;
 
+import com.vocational.researchfund.schedule.JobLeaseManager;
 import com.vocational.researchfund.service.ExpenseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
@@ -15,9 +17,28 @@ public class ScheduleConfig {
     
     private static final Logger logger = LoggerFactory.getLogger(ScheduleConfig.class);
     
+    /**
+     * 借款状态检查任务的租约名称
+     */
+    private static final String ADVANCE_STATUS_JOB = "checkAdvanceExpensesStatus";
+    
+    /**
+     * 报销凭证检查任务的租约名称
+     */
+    private static final String RECEIPT_PENDING_JOB = "checkReceiptPendingExpenses";
+    
     @Autowired
     private ExpenseService expenseService;
     
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+    
+    /**
+     * 是否开启每分钟一次的测试轮询，默认关闭，只依赖夜间定时任务
+     */
+    @Value("${researchfund.schedule.dev-polling-enabled:false}")
+    private boolean devPollingEnabled;
+    
     /**
      * 每天凌晨2点检查借款申请状态
      * 将已支付的借款更新为待提交报销凭证状态
@@ -26,8 +47,9 @@ public class ScheduleConfig {
     public void checkAdvanceExpensesStatus() {
         logger.info("开始执行借款状态检查定时任务...");
         try {
-            expenseService.checkAdvanceExpensesStatus();
-            logger.info("借款状态检查定时任务执行完成");
+            if (jobLeaseManager.runExclusive(ADVANCE_STATUS_JOB, expenseService::checkAdvanceExpensesStatus)) {
+                logger.info("借款状态检查定时任务执行完成");
+            }
         } catch (Exception e) {
             logger.error("借款状态检查定时任务执行失败: {}", e.getMessage(), e);
         }
@@ -36,30 +58,35 @@ public class ScheduleConfig {
     /**
      * 每天凌晨3点检查待提交报销凭证的申请
      * 对已超过项目结束时间的转为负责人自行还款状态
+     * 到期时由DeadlineScheduler即时处理，此任务作为兜底
      */
     @Scheduled(cron = "0 0 3 * * ?")
     public void checkReceiptPendingExpenses() {
         logger.info("开始执行报销凭证检查定时任务...");
         try {
-            expenseService.checkReceiptPendingExpenses();
-            logger.info("报销凭证检查定时任务执行完成");
+            if (jobLeaseManager.runExclusive(RECEIPT_PENDING_JOB, expenseService::checkReceiptPendingExpenses)) {
+                logger.info("报销凭证检查定时任务执行完成");
+            }
         } catch (Exception e) {
             logger.error("报销凭证检查定时任务执行失败: {}", e.getMessage(), e);
         }
     }
     
     /**
-     * 每10秒执行一次检查，用于测试
-     * 仅在开发环境使用
+     * 每分钟执行一次检查，用于测试
+     * 仅在开发环境开启researchfund.schedule.dev-polling-enabled时执行
      */
     @Scheduled(fixedRate = 60 * 1000)
     public void testCheckExpenseStatus() {
+        if (!devPollingEnabled) {
+            return;
+        }
         logger.info("开始测试执行经费状态检查定时任务...");
         try {
             // 检查借款状态
-            expenseService.checkAdvanceExpensesStatus();
+            jobLeaseManager.runExclusive(ADVANCE_STATUS_JOB, expenseService::checkAdvanceExpensesStatus);
             // 检查报销凭证状态
-            expenseService.checkReceiptPendingExpenses();
+            jobLeaseManager.runExclusive(RECEIPT_PENDING_JOB, expenseService::checkReceiptPendingExpenses);
             logger.info("测试经费状态检查任务执行完成");
         } catch (Exception e) {
             logger.error("测试经费状态检查任务执行失败: {}", e.getMessage(), e);
@@ -1,9 +1,14 @@
 package com.vocational.researchfund.config;
 
+import com.vocational.researchfund.schedule.JobLeaseManager;
+import com.vocational.researchfund.service.ChunkedUploadService;
 import com.vocational.researchfund.service.ProjectService;
+import com.vocational.researchfund.service.UploadService;
+import com.vocational.researchfund.storage.BlobStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -17,19 +22,50 @@ public class ScheduledTasks {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTasks.class);
 
+    /**
+     * 过期项目检查任务的租约名称
+     */
+    private static final String EXPIRE_PROJECTS_JOB = "checkExpiredProjects";
+
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+
+    /**
+     * 任务运行记录保留天数
+     */
+    @Value("${researchfund.schedule.lease.history-retention-days:30}")
+    private int historyRetentionDays;
+
+    /**
+     * 是否开启每分钟一次的测试轮询，默认关闭，只依赖夜间定时任务
+     */
+    @Value("${researchfund.schedule.dev-polling-enabled:false}")
+    private boolean devPollingEnabled;
+
     /**
      * 每天凌晨1点检查已过期项目并更新状态
      * 将已超过结束日期但状态仍为active的项目更新为待结题状态
+     * 到期时由DeadlineScheduler即时处理，此任务作为兜底
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void checkExpiredProjects() {
         logger.info("开始执行检查过期项目定时任务");
         try {
-            projectService.checkAndUpdateExpiredProjects();
-            logger.info("过期项目检查完成");
+            if (jobLeaseManager.runExclusive(EXPIRE_PROJECTS_JOB, projectService::checkAndUpdateExpiredProjects)) {
+                logger.info("过期项目检查完成");
+            }
         } catch (Exception e) {
             logger.error("过期项目检查失败", e);
         }
@@ -37,16 +73,84 @@ public class ScheduledTasks {
 
 
     /**
-     * 测试 10s
+     * 测试用，每分钟检查一次
+     * 仅在开发环境开启researchfund.schedule.dev-polling-enabled时执行
      */
     @Scheduled(fixedRate = 60 * 1000)
     public void checkExpiredProjects10() {
+        if (!devPollingEnabled) {
+            return;
+        }
         logger.info("开始执行检查过期项目定时任务");
         try {
-            projectService.checkAndUpdateExpiredProjects();
-            logger.info("过期项目检查完成");
+            if (jobLeaseManager.runExclusive(EXPIRE_PROJECTS_JOB, projectService::checkAndUpdateExpiredProjects)) {
+                logger.info("过期项目检查完成");
+            }
         } catch (Exception e) {
             logger.error("过期项目检查失败", e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 每天凌晨4点30分清理过期的定时任务运行记录
+     */
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void purgeJobRunHistory() {
+        try {
+            jobLeaseManager.runExclusive("purgeJobRunHistory", () -> {
+                int rows = jobLeaseManager.purgeRuns(historyRetentionDays);
+                jobLeaseManager.addAffectedRows(rows);
+                logger.info("清理定时任务运行记录 {} 条", rows);
+            });
+        } catch (Exception e) {
+            logger.error("清理定时任务运行记录失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨5点校对上传文件哈希索引，只处理新增、变化和已删除的文件
+     */
+    @Scheduled(cron = "0 0 5 * * ?")
+    public void reconcileUploadFileIndex() {
+        try {
+            jobLeaseManager.runExclusive("reconcileUploadFileIndex", () -> {
+                int rows = uploadService.reconcileFileIndex();
+                jobLeaseManager.addAffectedRows(Math.max(rows, 0));
+            });
+        } catch (Exception e) {
+            logger.error("上传文件索引校对失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨5点30分根据业务表重新统计文件引用数，并清理超过保留时间仍无引用的文件
+     */
+    @Scheduled(cron = "0 30 5 * * ?")
+    public void collectUnreferencedBlobs() {
+        try {
+            jobLeaseManager.runExclusive("collectUnreferencedBlobs", () -> {
+                blobStore.recountReferences();
+                long purged = blobStore.purgeUnreferenced();
+                logger.info("清理无引用文件 {} 个", purged);
+            });
+        } catch (Exception e) {
+            logger.error("清理无引用文件失败", e);
+        }
+    }
+
+    /**
+     * 每天凌晨5点45分清理过期的分片上传会话
+     */
+    @Scheduled(cron = "0 45 5 * * ?")
+    public void purgeExpiredUploadSessions() {
+        try {
+            jobLeaseManager.runExclusive("purgeExpiredUploadSessions", () -> {
+                int purged = chunkedUploadService.purgeExpired();
+                jobLeaseManager.addAffectedRows(purged);
+                logger.info("清理过期分片上传会话 {} 个", purged);
+            });
+        } catch (Exception e) {
+            logger.error("清理过期分片上传会话失败", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.vocational.researchfund.config;
+
+import com.vocational.researchfund.schedule.InstrumentedTaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 定时任务调度线程池配置
+ * 替换Spring默认的单线程调度器，耗时的任务不再推迟其他任务的执行
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Value("${researchfund.schedule.pool-size:4}")
+    private int poolSize;
+
+    @Value("${researchfund.schedule.default-job-concurrency:1}")
+    private int defaultJobConcurrency;
+
+    /**
+     * 定时任务调度线程池，@Scheduled任务按名称"taskScheduler"使用该线程池
+     * @param environment 环境配置，读取researchfund.schedule.job-concurrency下按任务配置的并发数
+     */
+    @Bean("taskScheduler")
+    public InstrumentedTaskScheduler taskScheduler(Environment environment) {
+        Map<String, Integer> jobConcurrency = Binder.get(environment)
+                .bind("researchfund.schedule.job-concurrency", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Collections.emptyMap());
+        InstrumentedTaskScheduler scheduler = new InstrumentedTaskScheduler(defaultJobConcurrency, jobConcurrency);
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+}
@@ -31,6 +31,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.DeleteMapping;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import java.util.ArrayList;
@@ -174,7 +175,7 @@ public class AuthController {
      * 登出
      */
     @PostMapping("/logout")
-    public Result<Void> logout() {
+    public Result<Void> logout(HttpServletRequest request) {
         // 获取当前认证用户
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = "unknown";
@@ -191,6 +192,12 @@ public class AuthController {
             logger.warn("用户尝试登出，但未认证");
         }
         
+        // 注销当前Token，使其在过期前也无法继续使用
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwtTokenUtil.revokeToken(authHeader.substring(7));
+        }
+        
         // 清除Security上下文
         SecurityContextHolder.clearContext();
         
@@ -0,0 +1,123 @@
+package com.vocational.researchfund.controller;
+
+import com.vocational.researchfund.common.Result;
+import com.vocational.researchfund.dto.ChunkedUploadInitDTO;
+import com.vocational.researchfund.dto.ChunkedUploadStatusDTO;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.service.ChunkedUploadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
+
+/**
+ * 分片上传控制器
+ * 上传流程：POST /init 创建会话 -> PUT /{uploadId}/chunks/{index} 逐个上传分片（请求体为分片原始字节）
+ * -> POST /{uploadId}/complete 合并；中断后通过 GET /{uploadId} 查询已接收的分片继续上传
+ */
+@RestController
+@RequestMapping("/api/upload/chunked")
+public class ChunkedUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadController.class);
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    /**
+     * 创建分片上传会话
+     * @param request 文件信息
+     * @return 上传状态
+     */
+    @PostMapping("/init")
+    public ResponseEntity<Result<ChunkedUploadStatusDTO>> init(@RequestBody ChunkedUploadInitDTO request) {
+        try {
+            return ResponseEntity.ok(Result.success(chunkedUploadService.init(request)));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("创建分片上传会话失败", e);
+            return ResponseEntity.badRequest().body(Result.fail("创建上传会话失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询上传状态
+     * @param uploadId 上传ID
+     * @return 上传状态（含已接收的分片序号）
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Result<ChunkedUploadStatusDTO>> getStatus(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(Result.success(chunkedUploadService.getStatus(uploadId)));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("查询上传状态失败: {}", uploadId, e);
+            return ResponseEntity.badRequest().body(Result.fail("查询上传状态失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 上传分片
+     * @param uploadId 上传ID
+     * @param index 分片序号（从0开始）
+     * @param chunkMd5 分片MD5（可选）
+     * @param request 请求，请求体为分片原始字节
+     * @return 上传结果
+     */
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<Result<Void>> uploadChunk(@PathVariable String uploadId,
+                                                    @PathVariable int index,
+                                                    @RequestHeader(value = "X-Chunk-Md5", required = false) String chunkMd5,
+                                                    HttpServletRequest request) {
+        try (InputStream in = request.getInputStream()) {
+            chunkedUploadService.uploadChunk(uploadId, index, in, chunkMd5);
+            return ResponseEntity.ok(Result.success());
+        } catch (BusinessException e) {
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("分片上传失败: {}, 分片: {}", uploadId, index, e);
+            return ResponseEntity.badRequest().body(Result.fail("分片上传失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 合并分片
+     * @param uploadId 上传ID
+     * @return 上传状态（含文件路径）
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Result<ChunkedUploadStatusDTO>> complete(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(Result.success(chunkedUploadService.complete(uploadId)));
+        } catch (BusinessException e) {
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("合并分片失败: {}", uploadId, e);
+            return ResponseEntity.badRequest().body(Result.fail("合并分片失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 取消上传
+     * @param uploadId 上传ID
+     * @return 取消结果
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Result<Void>> abort(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.ok(Result.success());
+        } catch (BusinessException e) {
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("取消上传失败: {}", uploadId, e);
+            return ResponseEntity.badRequest().body(Result.fail("取消上传失败: " + e.getMessage()));
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.vocational.researchfund.controller;
 
+import com.vocational.researchfund.cache.DashboardStatsCache;
 import com.vocational.researchfund.common.Result;
+import com.vocational.researchfund.exception.BusinessException;
 import com.vocational.researchfund.service.DashboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 仪表盘控制器
@@ -23,6 +28,9 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
+
     /**
      * 获取仪表盘待办事项
      * @param isAdmin 是否为管理员
@@ -107,4 +115,53 @@ public class DashboardController {
             return ResponseEntity.status(500).body(Result.fail("获取研究成果统计失败: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 一次获取仪表盘页面所需的多个数据块
+     * @param isAdmin 是否为管理员
+     * @param sections 逗号分隔的数据块名称（tasks,projects,stats,projectTypes,researchResults），不传表示全部
+     * @return 各数据块数据
+     */
+    @GetMapping("/bundle")
+    public ResponseEntity<Result<Map<String, Object>>> getDashboardBundle(
+            @RequestParam(required = false, defaultValue = "false") Boolean isAdmin,
+            @RequestParam(required = false) String sections) {
+        Set<String> sectionSet = new LinkedHashSet<>();
+        if (sections != null) {
+            for (String section : sections.split(",")) {
+                if (!section.trim().isEmpty()) {
+                    sectionSet.add(section.trim());
+                }
+            }
+        }
+        try {
+            Map<String, Object> bundle = dashboardService.getDashboardBundle(isAdmin, sectionSet);
+            return ResponseEntity.ok(Result.success(bundle));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("获取仪表盘数据失败", e);
+            return ResponseEntity.status(500).body(Result.fail("获取仪表盘数据失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取仪表盘统计缓存的命中、未命中和失效次数
+     * @return 缓存统计信息
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(Result.success(dashboardStatsCache.getStats()));
+    }
+
+    /**
+     * 获取待办事项并行查询统计（线程池状态、各数据源耗时/超时/失败次数）
+     * @return 统计信息
+     */
+    @GetMapping("/executor-stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getExecutorStats() {
+        return ResponseEntity.ok(Result.success(dashboardService.getTaskExecutorStats()));
+    }
+}
@@ -2,25 +2,24 @@ package com.vocational.researchfund.controller;
 
 import com.vocational.researchfund.common.Result;
 import com.vocational.researchfund.dto.AttachmentDTO;
+import com.vocational.researchfund.dto.BatchResultDTO;
+import com.vocational.researchfund.dto.ExpenseBatchRequestDTO;
 import com.vocational.researchfund.dto.ExpenseDTO;
 import com.vocational.researchfund.dto.PageDTO;
-import com.vocational.researchfund.entity.User;
-import com.vocational.researchfund.mapper.AttachmentMapper;
-import com.vocational.researchfund.mapper.ExpenseMapper;
-import com.vocational.researchfund.mapper.ProjectMapper;
+import com.vocational.researchfund.exception.BudgetReservationException;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.export.ExportResponses;
 import com.vocational.researchfund.service.ExpenseService;
-import com.vocational.researchfund.service.UserService;
+import com.vocational.researchfund.service.UploadService;
 import com.vocational.researchfund.utils.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -34,16 +33,7 @@ public class ExpenseController {
     private ExpenseService expenseService;
 
     @Autowired
-    private UserService userService;
-
-    @Autowired
-    private AttachmentMapper attachmentMapper;
-
-    @Autowired
-    private ExpenseMapper expenseMapper;
-
-    @Autowired
-    private ProjectMapper projectMapper;
+    private UploadService uploadService;
 
     /**
      * 获取经费申请列表（分页）
@@ -53,6 +43,9 @@ public class ExpenseController {
      * @param type      申请类型
      * @param status    状态
      * @param category  类别
+     * @param startDate 申请日期起（yyyy-MM-dd）
+     * @param endDate   申请日期止（yyyy-MM-dd）
+     * @param cursor    游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum   页码，默认1
      * @param pageSize  每页大小，默认10
      * @return 分页后的经费申请列表
@@ -64,6 +57,9 @@ public class ExpenseController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String category,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
 
@@ -78,6 +74,20 @@ public class ExpenseController {
             params.put("status", status);
         if (category != null)
             params.put("category", category);
+        if (startDate != null)
+            params.put("startDate", startDate);
+        if (endDate != null)
+            params.put("endDate", endDate);
+
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<ExpenseDTO> cursorPage = expenseService.getAllExpensesByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
 
         PageDTO<ExpenseDTO> pagedExpenses = expenseService.getAllExpenses(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedExpenses));
@@ -91,6 +101,9 @@ public class ExpenseController {
      * @param type      申请类型
      * @param status    状态
      * @param category  类别
+     * @param startDate 申请日期起（yyyy-MM-dd）
+     * @param endDate   申请日期止（yyyy-MM-dd）
+     * @param cursor    游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum   页码，默认1
      * @param pageSize  每页大小，默认10
      * @return 分页后的经费申请列表
@@ -102,6 +115,9 @@ public class ExpenseController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String category,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
 
@@ -116,11 +132,105 @@ public class ExpenseController {
             params.put("status", status);
         if (category != null)
             params.put("category", category);
+        if (startDate != null)
+            params.put("startDate", startDate);
+        if (endDate != null)
+            params.put("endDate", endDate);
+
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<ExpenseDTO> cursorPage = expenseService.getCurrentUserExpensesByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
 
         PageDTO<ExpenseDTO> pagedExpenses = expenseService.getCurrentUserExpenses(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedExpenses));
     }
 
+    /**
+     * 导出经费申请（CSV/XLSX），筛选条件与列表查询一致
+     * 
+     * @param title     申请标题
+     * @param projectId 所属项目ID
+     * @param type      申请类型
+     * @param status    状态
+     * @param category  类别
+     * @param startDate 申请日期起（yyyy-MM-dd）
+     * @param endDate   申请日期止（yyyy-MM-dd）
+     * @param format    导出格式（csv/xlsx），默认csv
+     * @param response  响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Result<Void>> exportExpenses(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = buildExportParams(title, projectId, type, status, category, startDate, endDate);
+        return ExportResponses.export(response, format, "经费申请",
+                writer -> expenseService.exportExpenses(params, false, writer));
+    }
+
+    /**
+     * 导出当前用户的经费申请（CSV/XLSX），筛选条件与列表查询一致
+     * 
+     * @param title     申请标题
+     * @param projectId 所属项目ID
+     * @param type      申请类型
+     * @param status    状态
+     * @param category  类别
+     * @param startDate 申请日期起（yyyy-MM-dd）
+     * @param endDate   申请日期止（yyyy-MM-dd）
+     * @param format    导出格式（csv/xlsx），默认csv
+     * @param response  响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/my/export")
+    public ResponseEntity<Result<Void>> exportMyExpenses(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = buildExportParams(title, projectId, type, status, category, startDate, endDate);
+        return ExportResponses.export(response, format, "我的经费申请",
+                writer -> expenseService.exportExpenses(params, true, writer));
+    }
+
+    private Map<String, Object> buildExportParams(String title, String projectId, String type, String status,
+                                                  String category, String startDate, String endDate) {
+        Map<String, Object> params = new HashMap<>();
+        if (title != null)
+            params.put("title", title);
+        if (projectId != null)
+            params.put("projectId", projectId);
+        if (type != null)
+            params.put("type", type);
+        if (status != null)
+            params.put("status", status);
+        if (category != null)
+            params.put("category", category);
+        if (startDate != null)
+            params.put("startDate", startDate);
+        if (endDate != null)
+            params.put("endDate", endDate);
+        return params;
+    }
+
     /**
      * 获取经费申请详情
      * 
@@ -208,6 +318,27 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * 批量审核经费申请
+     * 
+     * @param request 经费申请ID列表、审核状态（approved-已批准,rejected-已拒绝）和审核意见
+     * @return 每条经费申请的处理结果
+     */
+    @PostMapping("/batch/audit")
+    public ResponseEntity<Result<BatchResultDTO>> batchAuditExpenses(@RequestBody ExpenseBatchRequestDTO request) {
+        try {
+            // 审核状态校验
+            if (!"approved".equals(request.getStatus()) && !"rejected".equals(request.getStatus())) {
+                return ResponseEntity.badRequest().body(Result.error("审核状态参数错误"));
+            }
+
+            BatchResultDTO result = expenseService.batchAuditExpenses(request.getIds(), request.getStatus(), request.getComment());
+            return ResponseEntity.ok(Result.success(result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Result.error(e.getMessage()));
+        }
+    }
+
     /**
      * 删除经费申请
      * 
@@ -242,6 +373,26 @@ public class ExpenseController {
         try {
             ExpenseDTO paidExpense = expenseService.payExpense(id);
             return ResponseEntity.ok(Result.success(paidExpense));
+        } catch (BudgetReservationException e) {
+            // 经费不足返回422，并发冲突返回409，客户端可据此决定是否重试
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Result.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 批量支付经费申请
+     * 同一项目的经费一次性预留，状态批量更新
+     * 
+     * @param request 经费申请ID列表
+     * @return 每条经费申请的处理结果
+     */
+    @PostMapping("/batch/pay")
+    public ResponseEntity<Result<BatchResultDTO>> batchPayExpenses(@RequestBody ExpenseBatchRequestDTO request) {
+        try {
+            BatchResultDTO result = expenseService.batchPayExpenses(request.getIds());
+            return ResponseEntity.ok(Result.success(result));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Result.error(e.getMessage()));
         }
@@ -260,29 +411,13 @@ public class ExpenseController {
         }
 
         try {
-            // 创建上传目录（如果不存在）
-            String uploadDir = "uploads/expenses";
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // 生成唯一文件名
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID().toString() + fileExtension;
-
-            // 保存文件
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath);
+            // 按内容保存，多人上传的相同票据只保存一份
+            String url = uploadService.saveAttachment(file);
 
             // 创建并返回附件信息
             AttachmentDTO attachment = AttachmentDTO.builder()
-                    .name(originalFilename)
-                    .url("/uploads/expenses/" + filename)
+                    .name(file.getOriginalFilename())
+                    .url(url)
                     .fileSize(file.getSize())
                     .fileType(file.getContentType())
                     .build();
@@ -302,36 +437,10 @@ public class ExpenseController {
     @PostMapping("/{id}/repay")
     public Result repayExpense(@PathVariable Long id) {
         try {
-            // 获取当前经费申请
-            ExpenseDTO expense = expenseMapper.selectById(id);
-            if (expense == null) {
-                return Result.error("经费申请不存在");
-            }
-            
-            // 检查是否为待自行还款状态
-            if (!"repayment_pending".equals(expense.getStatus())) {
-                return Result.error("只有待自行还款状态的申请才能执行此操作");
-            }
-            
-            // 检查当前用户是否为申请人
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            if (!expense.getApplyUserId().equals(currentUser.getId())) {
-                return Result.error("只有申请人才能执行还款操作");
-            }
-            
-            // 获取项目ID和经费金额
-            Long projectId = expense.getProjectId();
-            BigDecimal amount = expense.getAmount();
-            
-            // 更新状态为已还款
-            expenseMapper.updateStatus(id, "repaid", null, null, "项目负责人已完成还款");
-            
-            // 减少项目已使用预算
-            // 因为updateUsedBudget方法是增加预算，所以这里传入负值来减少
-            projectMapper.updateUsedBudget(projectId, amount.negate());
-            
+            expenseService.repayExpense(id);
             return Result.success("还款操作已完成，项目预算已更新");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
         } catch (Exception e) {
             return Result.error("还款失败: " + e.getMessage());
         }
@@ -347,39 +456,10 @@ public class ExpenseController {
     @PostMapping("/{id}/submit-receipt")
     public Result submitReceipt(@PathVariable Long id, @RequestBody List<AttachmentDTO> attachments) {
         try {
-            // 获取当前经费申请
-            ExpenseDTO expense = expenseMapper.selectById(id);
-            if (expense == null) {
-                return Result.error("经费申请不存在");
-            }
-            
-            // 检查是否为待提交报销凭证状态
-            if (!"receipt_pending".equals(expense.getStatus())) {
-                return Result.error("只有待提交报销凭证状态的申请才能执行此操作");
-            }
-            
-            // 检查当前用户是否为申请人
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            if (!expense.getApplyUserId().equals(currentUser.getId())) {
-                return Result.error("只有申请人才能提交报销凭证");
-            }
-            
-            // 检查是否提供了附件
-            if (attachments == null || attachments.isEmpty()) {
-                return Result.error("请提供报销凭证附件");
-            }
-            
-            // 保存附件
-            for (AttachmentDTO attachment : attachments) {
-                attachment.setExpenseId(id);
-            }
-            attachmentMapper.batchInsert(attachments, id);
-            
-            // 更新状态为报销凭证待审核
-            expenseMapper.updateStatus(id, "receipt_audit", null, null, "已提交报销凭证，等待审核");
-            
+            expenseService.submitReceipt(id, attachments);
             return Result.success("报销凭证提交成功，等待审核");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
         } catch (Exception e) {
             return Result.error("提交报销凭证失败: " + e.getMessage());
         }
@@ -398,35 +478,10 @@ public class ExpenseController {
                               @RequestParam String status,
                               @RequestParam(required = false) String comment) {
         try {
-            // 获取当前经费申请
-            ExpenseDTO expense = expenseMapper.selectById(id);
-            if (expense == null) {
-                return Result.error("经费申请不存在");
-            }
-            
-            // 检查是否为报销凭证待审核状态
-            if (!"receipt_audit".equals(expense.getStatus())) {
-                return Result.error("只有报销凭证待审核状态的申请才能执行此操作");
-            }
-            
-            // 获取当前用户信息
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            
-            // 设置新状态
-            String newStatus;
-            if ("approved".equals(status)) {
-                newStatus = "completed";
-            } else if ("rejected".equals(status)) {
-                newStatus = "repayment_pending"; // 拒绝则需要负责人自行还款
-            } else {
-                return Result.error("无效的审核结果");
-            }
-            
-            // 更新状态
-            expenseMapper.updateStatus(id, newStatus, currentUser.getId(), currentUser.getRealName(), comment);
-            
+            expenseService.auditReceipt(id, status, comment);
             return Result.success("审核报销凭证成功");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
         } catch (Exception e) {
             return Result.error("审核报销凭证失败: " + e.getMessage());
         }
@@ -3,12 +3,17 @@ package com.vocational.researchfund.controller;
 import com.vocational.researchfund.common.Result;
 import com.vocational.researchfund.dto.FundTransferDTO;
 import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.exception.BudgetReservationException;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.export.ExportResponses;
 import com.vocational.researchfund.service.FundTransferService;
 import com.vocational.researchfund.utils.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +35,7 @@ public class FundTransferController {
      * @param status    状态
      * @param fromYear  结转年度（从）
      * @param toYear    结转年度（到）
+     * @param cursor    游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum   页码，默认1
      * @param pageSize  每页大小，默认10
      * @return 分页后的经费结转列表
@@ -41,6 +47,7 @@ public class FundTransferController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String fromYear,
             @RequestParam(required = false) String toYear,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
 
@@ -56,6 +63,16 @@ public class FundTransferController {
         if (toYear != null)
             params.put("toYear", toYear);
 
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<FundTransferDTO> cursorPage = fundTransferService.getAllTransfersByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
+
         PageDTO<FundTransferDTO> pagedTransfers = fundTransferService.getAllTransfers(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedTransfers));
     }
@@ -68,6 +85,7 @@ public class FundTransferController {
      * @param status    状态
      * @param fromYear  结转年度（从）
      * @param toYear    结转年度（到）
+     * @param cursor    游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum   页码，默认1
      * @param pageSize  每页大小，默认10
      * @return 分页后的经费结转列表
@@ -79,6 +97,7 @@ public class FundTransferController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String fromYear,
             @RequestParam(required = false) String toYear,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
 
@@ -94,10 +113,88 @@ public class FundTransferController {
         if (toYear != null && !toYear.isEmpty())
             params.put("toYear", toYear);
 
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<FundTransferDTO> cursorPage = fundTransferService.getCurrentUserTransfersByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
+
         PageDTO<FundTransferDTO> pagedTransfers = fundTransferService.getCurrentUserTransfers(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedTransfers));
     }
 
+    /**
+     * 导出经费结转（CSV/XLSX），筛选条件与列表查询一致
+     * 
+     * @param title     结转标题
+     * @param projectId 所属项目ID
+     * @param status    状态
+     * @param fromYear  结转年度（从）
+     * @param toYear    结转年度（到）
+     * @param format    导出格式（csv/xlsx），默认csv
+     * @param response  响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Result<Void>> exportTransfers(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fromYear,
+            @RequestParam(required = false) String toYear,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = buildExportParams(title, projectId, status, fromYear, toYear);
+        return ExportResponses.export(response, format, "经费结转",
+                writer -> fundTransferService.exportTransfers(params, false, writer));
+    }
+
+    /**
+     * 导出当前用户的经费结转（CSV/XLSX），筛选条件与列表查询一致
+     * 
+     * @param title     结转标题
+     * @param projectId 所属项目ID
+     * @param status    状态
+     * @param fromYear  结转年度（从）
+     * @param toYear    结转年度（到）
+     * @param format    导出格式（csv/xlsx），默认csv
+     * @param response  响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/my/export")
+    public ResponseEntity<Result<Void>> exportMyTransfers(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fromYear,
+            @RequestParam(required = false) String toYear,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = buildExportParams(title, projectId, status, fromYear, toYear);
+        return ExportResponses.export(response, format, "我的经费结转",
+                writer -> fundTransferService.exportTransfers(params, true, writer));
+    }
+
+    private Map<String, Object> buildExportParams(String title, String projectId, String status,
+                                                  String fromYear, String toYear) {
+        Map<String, Object> params = new HashMap<>();
+        if (title != null && !title.isEmpty())
+            params.put("title", title);
+        if (projectId != null && !projectId.isEmpty())
+            params.put("projectId", projectId);
+        if (status != null && !status.isEmpty())
+            params.put("status", status);
+        if (fromYear != null && !fromYear.isEmpty())
+            params.put("fromYear", fromYear);
+        if (toYear != null && !toYear.isEmpty())
+            params.put("toYear", toYear);
+        return params;
+    }
+
     /**
      * 获取经费结转详情
      * 
@@ -167,6 +264,9 @@ public class FundTransferController {
 
             FundTransferDTO auditedTransfer = fundTransferService.auditTransfer(id, status, comment);
             return ResponseEntity.ok(Result.success(auditedTransfer));
+        } catch (BudgetReservationException e) {
+            // 经费不足返回422，并发冲突返回409，客户端可据此决定是否重试
+            return ResponseEntity.status(e.getCode()).body(Result.error(e.getCode(), e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Result.error(e.getMessage()));
         }
@@ -1,8 +1,11 @@
 package com.vocational.researchfund.controller;
 
+import com.vocational.researchfund.cache.ProjectAggregateCache;
 import com.vocational.researchfund.common.Result;
 import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.exception.BusinessException;
 import com.vocational.researchfund.dto.ProjectDTO;
+import com.vocational.researchfund.export.ExportResponses;
 import com.vocational.researchfund.service.ProjectService;
 import com.vocational.researchfund.service.UserService;
 import com.vocational.researchfund.mapper.ProjectMapper;
@@ -14,6 +17,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,6 +45,9 @@ public class ProjectController {
     
     @Autowired
     private ExpenseMapper expenseMapper;
+    
+    @Autowired
+    private ProjectAggregateCache projectAggregateCache;
 
     /**
      * 获取项目列表（分页）
@@ -47,6 +55,7 @@ public class ProjectController {
      * @param type 项目类型
      * @param status 项目状态
      * @param auditStatus 审核状态
+     * @param cursor 游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum 页码，默认1
      * @param pageSize 每页大小，默认10
      * @return 分页后的项目列表
@@ -57,6 +66,7 @@ public class ProjectController {
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String auditStatus,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
         
@@ -66,6 +76,16 @@ public class ProjectController {
         if (status != null) params.put("status", status);
         if (auditStatus != null) params.put("auditStatus", auditStatus);
         
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<ProjectDTO> cursorPage = projectService.getProjectListByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
+
         PageDTO<ProjectDTO> pagedProjects = projectService.getProjectList(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedProjects));
     }
@@ -75,6 +95,7 @@ public class ProjectController {
      * @param name 项目名称
      * @param type 项目类型
      * @param status 项目状态
+     * @param cursor 游标分页模式下上一页返回的游标，传空字符串表示第一页
      * @param pageNum 页码，默认1
      * @param pageSize 每页大小，默认10
      * @return 分页后的项目列表
@@ -84,6 +105,7 @@ public class ProjectController {
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "1") int pageNum,
             @RequestParam(required = false, defaultValue = "10") int pageSize) {
         
@@ -92,6 +114,16 @@ public class ProjectController {
         if (type != null) params.put("type", type);
         if (status != null) params.put("status", status);
 
+        // 传入cursor参数时使用游标分页，pageSize作为每页条数
+        if (cursor != null) {
+            try {
+                PageDTO<ProjectDTO> cursorPage = projectService.getCurrentUserProjectsByCursor(params, cursor, pageSize);
+                return ResponseEntity.ok(Result.success(cursorPage));
+            } catch (BusinessException e) {
+                return ResponseEntity.badRequest().body(Result.error(e.getCode(), e.getMessage()));
+            }
+        }
+
         PageDTO<ProjectDTO> pagedProjects = projectService.getCurrentUserProjects(params, pageNum, pageSize);
         return ResponseEntity.ok(Result.success(pagedProjects));
     }
@@ -111,6 +143,59 @@ public class ProjectController {
         }
     }
 
+    /**
+     * 导出项目（CSV/XLSX），筛选条件与列表查询一致
+     * @param name 项目名称
+     * @param type 项目类型
+     * @param status 项目状态
+     * @param auditStatus 审核状态
+     * @param format 导出格式（csv/xlsx），默认csv
+     * @param response 响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Result<Void>> exportProjects(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String auditStatus,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = new HashMap<>();
+        if (name != null) params.put("name", name);
+        if (type != null) params.put("type", type);
+        if (status != null) params.put("status", status);
+        if (auditStatus != null) params.put("auditStatus", auditStatus);
+
+        return ExportResponses.export(response, format, "项目列表",
+                writer -> projectService.exportProjects(params, false, writer));
+    }
+
+    /**
+     * 导出当前用户负责的项目（CSV/XLSX），筛选条件与列表查询一致
+     * @param name 项目名称
+     * @param type 项目类型
+     * @param status 项目状态
+     * @param format 导出格式（csv/xlsx），默认csv
+     * @param response 响应，导出文件直接写出
+     * @return 导出失败时的错误信息
+     */
+    @GetMapping("/my/export")
+    public ResponseEntity<Result<Void>> exportMyProjects(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        Map<String, Object> params = new HashMap<>();
+        if (name != null) params.put("name", name);
+        if (type != null) params.put("type", type);
+        if (status != null) params.put("status", status);
+
+        return ExportResponses.export(response, format, "我的项目",
+                writer -> projectService.exportProjects(params, true, writer));
+    }
+
     /**
      * 获取项目详情
      * @param id 项目ID
@@ -223,6 +308,16 @@ public class ProjectController {
         }
     }
     
+    /**
+     * 获取项目缓存统计信息（命中、未命中、淘汰次数），用于评估缓存容量
+     * @return 缓存统计信息
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getProjectCacheStats() {
+        return ResponseEntity.ok(Result.success(projectAggregateCache.getStats()));
+    }
+    
     /**
      * 手动检查并更新已过期项目状态
      * @return 结果
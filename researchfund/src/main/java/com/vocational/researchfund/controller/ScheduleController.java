@@ -0,0 +1,83 @@
+package com.vocational.researchfund.controller;
+
+import com.vocational.researchfund.common.Result;
+import com.vocational.researchfund.entity.ScheduleJobRun;
+import com.vocational.researchfund.schedule.BatchJobMetrics;
+import com.vocational.researchfund.schedule.DeadlineScheduler;
+import com.vocational.researchfund.schedule.InstrumentedTaskScheduler;
+import com.vocational.researchfund.schedule.JobLeaseManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 定时任务控制器
+ */
+@RestController
+@RequestMapping("/api/schedule")
+public class ScheduleController {
+
+    /**
+     * 运行记录单次查询的最大条数
+     */
+    private static final int MAX_RUN_LIMIT = 200;
+
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+
+    @Autowired
+    private InstrumentedTaskScheduler taskScheduler;
+
+    @Autowired
+    private BatchJobMetrics batchJobMetrics;
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    /**
+     * 获取定时任务运行统计（调度线程池、各任务启动延迟/耗时/跳过次数、批处理任务、到期调度）
+     * @return 统计信息
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getStats() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("scheduler", taskScheduler.getStats());
+        data.put("batchJobs", batchJobMetrics.getStats());
+        data.put("deadlines", deadlineScheduler.getStats());
+        return ResponseEntity.ok(Result.success(data));
+    }
+
+    /**
+     * 获取各定时任务的集群租约（持有节点、防护令牌、到期时间）
+     * @return 租约信息
+     */
+    @GetMapping("/leases")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getLeases() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("nodeId", jobLeaseManager.getNodeId());
+        data.put("leases", jobLeaseManager.getLeases());
+        return ResponseEntity.ok(Result.success(data));
+    }
+
+    /**
+     * 获取最近的定时任务运行记录
+     * @param jobName 任务名称（可选）
+     * @param limit 条数
+     * @return 运行记录列表
+     */
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Result<List<ScheduleJobRun>>> getRecentRuns(
+            @RequestParam(required = false) String jobName,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        int size = Math.max(1, Math.min(limit, MAX_RUN_LIMIT));
+        return ResponseEntity.ok(Result.success(jobLeaseManager.getRecentRuns(jobName, size)));
+    }
+}
@@ -2,20 +2,22 @@ package com.vocational.researchfund.controller;
 
 import com.vocational.researchfund.common.Result;
 import com.vocational.researchfund.service.UploadService;
+import com.vocational.researchfund.storage.RangeFileSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -34,6 +36,9 @@ public class UploadController {
     @Autowired
     private UploadService uploadService;
     
+    @Autowired
+    private RangeFileSender rangeFileSender;
+    
     /**
      * 上传项目申请书PDF文件
      * @param file 上传的文件
@@ -75,13 +80,16 @@ public class UploadController {
     
     /**
      * 下载项目申请书文件
+     * 支持Range断点续传和条件请求，内容未变化时返回304
      * @param filePath 文件相对路径
      * @param fileName 自定义下载文件名（可选）
-     * @return 文件资源
+     * @return 出错时返回错误信息，文件内容直接写入响应
      */
-    @GetMapping("/download")
+    @RequestMapping(value = "/download", method = {RequestMethod.GET, RequestMethod.HEAD})
     public ResponseEntity<?> downloadFile(@RequestParam("filePath") String filePath,
-                                         @RequestParam(value = "fileName", required = false) String fileName) {
+                                         @RequestParam(value = "fileName", required = false) String fileName,
+                                         HttpServletRequest request,
+                                         HttpServletResponse response) {
         try {
             logger.info("收到文件下载请求，文件路径: {}", filePath);
             
@@ -99,22 +107,13 @@ public class UploadController {
             Path path = Paths.get(projectFilesPath + filePath);
             logger.info("文件完整路径: {}", path.toAbsolutePath());
             
-            // 创建文件资源
-            Resource resource;
-            try {
-                resource = new UrlResource(path.toUri());
-            } catch (Exception e) {
-                logger.error("无法创建文件资源: {}", e.getMessage());
-                return ResponseEntity.badRequest().body(Result.fail("文件资源创建失败"));
-            }
-            
             // 检查文件是否存在且可读
-            if (!resource.exists()) {
+            if (!Files.isRegularFile(path)) {
                 logger.error("文件不存在: {}", path);
                 return ResponseEntity.status(404).body(Result.fail("文件不存在"));
             }
             
-            if (!resource.isReadable()) {
+            if (!Files.isReadable(path)) {
                 logger.error("文件无法读取: {}", path);
                 return ResponseEntity.status(403).body(Result.fail("文件无法读取"));
             }
@@ -136,22 +135,28 @@ public class UploadController {
             // URL编码文件名，解决中文文件名问题
             String encodedFileName = URLEncoder.encode(downloadFileName, StandardCharsets.UTF_8.toString())
                 .replaceAll("\\+", "%20");
-                
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + encodedFileName + "\"");
-            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_PDF_VALUE);
-            headers.add(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
-            headers.add(HttpHeaders.PRAGMA, "no-cache");
-            headers.add(HttpHeaders.EXPIRES, "0");
-            
-            logger.info("文件下载成功: {}, 下载文件名: {}", filePath, downloadFileName);
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(resource);
+            
+            // 按文件扩展名确定内容类型，无法识别时按PDF处理
+            String contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_PDF)
+                .toString();
+            
+            // 强ETag取文件内容MD5，内容未知时只依赖Last-Modified
+            String contentHash = uploadService.getContentHash(filePath);
+            String etag = contentHash == null ? null : "\"" + contentHash + "\"";
+            
+            rangeFileSender.send(request, response, path, contentType,
+                "attachment; filename=\"" + encodedFileName + "\"", etag);
+            
+            logger.info("文件下载成功: {}, 下载文件名: {}, 状态: {}", filePath, downloadFileName, response.getStatus());
+            // 响应已直接写出
+            return null;
                 
         } catch (Exception e) {
             logger.error("文件下载失败: ", e);
+            if (response.isCommitted()) {
+                return null;
+            }
             return ResponseEntity.status(500).body(Result.fail("文件下载失败: " + e.getMessage()));
         }
     }
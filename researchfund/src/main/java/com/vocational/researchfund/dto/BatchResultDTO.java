@@ -0,0 +1,81 @@
+package com.vocational.researchfund.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+
+    /**
+     * 成功数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failureCount;
+
+    /**
+     * 每一项的处理结果，顺序与请求中的ID一致
+     */
+    private List<ItemResult> items = new ArrayList<>();
+
+    /**
+     * 记录成功项
+     * @param id 记录ID
+     * @param status 处理后的状态
+     */
+    public void addSuccess(Long id, String status) {
+        items.add(new ItemResult(id, true, status, null));
+        successCount++;
+    }
+
+    /**
+     * 记录失败项
+     * @param id 记录ID
+     * @param message 失败原因
+     */
+    public void addFailure(Long id, String message) {
+        items.add(new ItemResult(id, false, null, message));
+        failureCount++;
+    }
+
+    /**
+     * 单项处理结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+
+        /**
+         * 记录ID
+         */
+        private Long id;
+
+        /**
+         * 是否成功
+         */
+        private boolean success;
+
+        /**
+         * 处理后的状态
+         */
+        private String status;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.vocational.researchfund.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分片上传初始化请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadInitDTO {
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 文件类型
+     */
+    private String contentType;
+
+    /**
+     * 整个文件的MD5（可选），合并时校验
+     */
+    private String fileMd5;
+
+    /**
+     * 分片大小（字节，可选），不传时使用服务端默认值
+     */
+    private Long chunkSize;
+}
@@ -0,0 +1,58 @@
+package com.vocational.researchfund.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分片上传状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadStatusDTO {
+
+    /**
+     * 上传ID
+     */
+    private String uploadId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节）
+     */
+    private Long chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer totalChunks;
+
+    /**
+     * 已接收的分片序号（从0开始），断点续传时只需上传其余分片
+     */
+    private List<Integer> receivedChunks;
+
+    /**
+     * 状态：uploading-上传中，assembling-合并中，completed-已完成
+     */
+    private String status;
+
+    /**
+     * 合并后的文件路径（完成后返回）
+     */
+    private String filePath;
+}
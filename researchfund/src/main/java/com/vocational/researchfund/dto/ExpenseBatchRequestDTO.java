@@ -0,0 +1,33 @@
+package com.vocational.researchfund.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 经费申请批量操作请求
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseBatchRequestDTO {
+
+    /**
+     * 经费申请ID列表
+     */
+    private List<Long> ids;
+
+    /**
+     * 审核状态：approved-已批准,rejected-已拒绝（仅批量审核使用）
+     */
+    private String status;
+
+    /**
+     * 审核意见（仅批量审核使用）
+     */
+    private String comment;
+}
@@ -32,6 +32,16 @@ public class PageDTO<T> {
      */
     private List<T> list;
     
+    /**
+     * 下一页游标（仅游标分页模式返回，为空表示没有更多数据）
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有更多数据（仅游标分页模式返回）
+     */
+    private Boolean hasMore;
+    
     public PageDTO() {
     }
     
@@ -43,6 +53,25 @@ public class PageDTO<T> {
         this.pages = (int) Math.ceil((double) total / pageSize);
     }
     
+    /**
+     * 构建游标分页结果，游标模式不统计总记录数
+     * @param list 数据列表
+     * @param pageSize 每页大小
+     * @param nextCursor 下一页游标
+     * @param <T> 数据类型
+     * @return 分页结果
+     */
+    public static <T> PageDTO<T> ofCursor(List<T> list, int pageSize, String nextCursor) {
+        PageDTO<T> page = new PageDTO<>();
+        page.setList(list);
+        page.setPageSize(pageSize);
+        page.setTotal(-1);
+        page.setPages(-1);
+        page.setNextCursor(nextCursor);
+        page.setHasMore(nextCursor != null);
+        return page;
+    }
+    
     public long getTotal() {
         return total;
     }
@@ -82,4 +111,20 @@ public class PageDTO<T> {
     public void setList(List<T> list) {
         this.list = list;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
 } 
\ No newline at end of file
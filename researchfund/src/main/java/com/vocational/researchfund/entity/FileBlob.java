@@ -0,0 +1,55 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容存储实体类
+ * 所有模块上传的文件按内容MD5只保存一份，引用数由附件、项目文件、到账凭证等引用统计
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileBlob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 文件内容MD5
+     */
+    private String contentHash;
+
+    /**
+     * 相对项目文件目录的存储路径，如 blobs/ab/cd/abcd....pdf
+     */
+    private String storagePath;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 引用数
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间（最近一次上传相同内容的时间）
+     */
+    private LocalDateTime updateTime;
+}
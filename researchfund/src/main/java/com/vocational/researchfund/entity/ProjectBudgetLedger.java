@@ -0,0 +1,46 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 项目预算科目台账实体类
+ * 按项目和经费类型汇总经费申请金额，随经费申请状态变化增量维护
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectBudgetLedger implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 经费类型：equipment、material、test、travel、meeting、labor、consultation、other
+     */
+    private String expenseType;
+
+    /**
+     * 已申请未支付金额（待审核、已批准）
+     */
+    private BigDecimal committedAmount;
+
+    /**
+     * 已支付金额（已支付及其后续的报销、还款状态）
+     */
+    private BigDecimal paidAmount;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
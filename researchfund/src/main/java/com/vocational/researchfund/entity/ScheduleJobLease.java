@@ -0,0 +1,45 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务租约实体类
+ * 多节点部署时每个任务同一时刻只有持有租约的节点执行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleJobLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务名称
+     */
+    private String jobName;
+
+    /**
+     * 当前持有租约的节点
+     */
+    private String owner;
+
+    /**
+     * 防护令牌，每次获取租约时递增，失去租约的节点无法再写入
+     */
+    private Long fencingToken;
+
+    /**
+     * 获取租约的时间
+     */
+    private LocalDateTime acquiredAt;
+
+    /**
+     * 租约到期时间
+     */
+    private LocalDateTime leaseUntil;
+}
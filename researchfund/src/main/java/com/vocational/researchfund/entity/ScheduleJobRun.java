@@ -0,0 +1,64 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务运行记录实体类
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleJobRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 任务名称
+     */
+    private String jobName;
+
+    /**
+     * 执行节点
+     */
+    private String owner;
+
+    /**
+     * 本次运行持有的防护令牌
+     */
+    private Long fencingToken;
+
+    /**
+     * 状态：running-运行中，success-成功，failed-失败，lease_lost-租约丢失
+     */
+    private String status;
+
+    /**
+     * 更新的行数
+     */
+    private Long affectedRows;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+}
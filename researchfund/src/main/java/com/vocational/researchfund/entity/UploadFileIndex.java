@@ -0,0 +1,44 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 上传文件内容哈希索引实体类
+ * 记录上传目录中每个文件的MD5及文件大小、修改时间，用于内容去重和增量校对
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadFileIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 相对上传目录的文件路径
+     */
+    private String relativePath;
+
+    /**
+     * 文件所在目录的相对路径，根目录为空字符串
+     */
+    private String directory;
+
+    /**
+     * 文件内容MD5
+     */
+    private String fileHash;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 文件最后修改时间（毫秒时间戳）
+     */
+    private Long lastModified;
+}
@@ -0,0 +1,80 @@
+package com.vocational.researchfund.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ * 已接收的分片以磁盘上的分片文件为准，会话只记录文件信息和分片规格
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上传ID
+     */
+    private String uploadId;
+
+    /**
+     * 上传用户ID
+     */
+    private Long userId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件类型
+     */
+    private String contentType;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节）
+     */
+    private Long chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer totalChunks;
+
+    /**
+     * 整个文件的MD5（可选）
+     */
+    private String fileMd5;
+
+    /**
+     * 状态：uploading-上传中，assembling-合并中，completed-已完成
+     */
+    private String status;
+
+    /**
+     * 合并后的文件路径
+     */
+    private String filePath;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,66 @@
+package com.vocational.researchfund.exception;
+
+import java.math.BigDecimal;
+
+/**
+ * 项目经费预留失败异常
+ * 区分剩余经费不足（不可重试）和并发更新冲突（可重试）两种情况
+ */
+public class BudgetReservationException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 剩余经费不足
+     */
+    public static final int INSUFFICIENT_FUNDS = 422;
+
+    /**
+     * 并发更新冲突，可稍后重试
+     */
+    public static final int CONFLICT = 409;
+
+    /**
+     * 预留时的剩余经费，并发冲突时为null
+     */
+    private final BigDecimal remainingBudget;
+
+    private BudgetReservationException(Integer code, String message, BigDecimal remainingBudget) {
+        super(code, message);
+        this.remainingBudget = remainingBudget;
+    }
+
+    /**
+     * 剩余经费不足
+     * @param projectId 项目ID
+     * @param remainingBudget 剩余经费
+     * @param amount 预留金额
+     * @return 异常
+     */
+    public static BudgetReservationException insufficient(Long projectId, BigDecimal remainingBudget, BigDecimal amount) {
+        return new BudgetReservationException(INSUFFICIENT_FUNDS,
+                "项目剩余经费不足，项目ID：" + projectId + "，剩余预算：" + remainingBudget + "，申请金额：" + amount,
+                remainingBudget);
+    }
+
+    /**
+     * 并发更新冲突
+     * @param projectId 项目ID
+     * @return 异常
+     */
+    public static BudgetReservationException conflict(Long projectId) {
+        return new BudgetReservationException(CONFLICT, "项目经费正在被其他操作更新，请稍后重试，项目ID：" + projectId, null);
+    }
+
+    /**
+     * 是否可以重试
+     * @return 并发冲突时返回true
+     */
+    public boolean isRetryable() {
+        return getCode() == CONFLICT;
+    }
+
+    public BigDecimal getRemainingBudget() {
+        return remainingBudget;
+    }
+}
@@ -0,0 +1,14 @@
+package com.vocational.researchfund.exception;
+
+/**
+ * 定时任务租约丢失异常
+ * 任务运行期间租约被其他节点获取（防护令牌已变化）时抛出，当前批次回滚并停止运行
+ */
+public class JobLeaseLostException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JobLeaseLostException(String jobName, Long fencingToken) {
+        super("定时任务 " + jobName + " 的租约已失效, 防护令牌: " + fencingToken);
+    }
+}
@@ -0,0 +1,56 @@
+package com.vocational.researchfund.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    CSV("csv", "text/csv;charset=UTF-8"),
+
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extension;
+
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 按扩展名解析导出格式
+     * @param format 格式（csv/xlsx，不区分大小写）
+     * @return 导出格式，无法识别时返回null
+     */
+    public static ExportFormat of(String format) {
+        for (ExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建写入器
+     * @param out 输出流
+     * @param sheetName 工作表名称（仅XLSX使用）
+     * @return 写入器
+     * @throws IOException 写出失败
+     */
+    public TabularWriter newWriter(OutputStream out, String sheetName) throws IOException {
+        return this == XLSX ? new XlsxTabularWriter(out, sheetName) : new CsvTabularWriter(out);
+    }
+}
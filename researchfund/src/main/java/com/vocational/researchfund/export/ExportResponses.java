@@ -0,0 +1,89 @@
+package com.vocational.researchfund.export;
+
+import com.vocational.researchfund.common.Result;
+import com.vocational.researchfund.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 导出响应工具类
+ * 设置下载响应头后由调用方逐行写出到响应流，数据不经过内存缓冲
+ */
+public class ExportResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportResponses.class);
+
+    private static final DateTimeFormatter FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private ExportResponses() {
+    }
+
+    /**
+     * 以附件形式写出导出文件
+     * 写出前失败时返回错误信息；已开始写出后失败时只能中断响应，客户端收到的文件不完整
+     * @param response 响应
+     * @param format 导出格式（csv/xlsx）
+     * @param title 文件名前缀和工作表名称
+     * @param body 写出数据
+     * @return 错误响应，写出成功时返回null（响应已直接写出）
+     */
+    public static ResponseEntity<Result<Void>> export(HttpServletResponse response, String format, String title,
+                                                      ExportBody body) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body(Result.fail("不支持的导出格式: " + format));
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            String fileName = title + "_" + LocalDateTime.now().format(FILE_TIME_FORMATTER) + "." + exportFormat.getExtension();
+            String encodedFileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8.toString()).replaceAll("\\+", "%20");
+
+            response.setContentType(exportFormat.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + encodedFileName + "\"");
+            response.setHeader("Cache-Control", "no-store");
+
+            // 失败时不调用close，避免把不完整的数据写成格式正确的文件
+            TabularWriter writer = exportFormat.newWriter(response.getOutputStream(), title);
+            long rows = body.writeTo(writer);
+            writer.close();
+
+            logger.info("导出{}完成，格式: {}, 行数: {}, 耗时: {}ms", title, exportFormat.getExtension(), rows,
+                    System.currentTimeMillis() - startTime);
+            return null;
+        } catch (Exception e) {
+            logger.error("导出{}失败", title, e);
+            if (response.isCommitted()) {
+                return null;
+            }
+            response.reset();
+            if (e instanceof BusinessException) {
+                return ResponseEntity.badRequest().body(Result.error(((BusinessException) e).getCode(), e.getMessage()));
+            }
+            return ResponseEntity.badRequest().body(Result.fail("导出失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 导出数据写出函数
+     */
+    @FunctionalInterface
+    public interface ExportBody {
+
+        /**
+         * 写出表头和数据行
+         * @param writer 写入器
+         * @return 数据行数
+         * @throws IOException 写出失败
+         */
+        long writeTo(TabularWriter writer) throws IOException;
+    }
+}
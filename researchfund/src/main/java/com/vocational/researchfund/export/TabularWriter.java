@@ -0,0 +1,56 @@
+package com.vocational.researchfund.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 表格导出写入器
+ * 逐行写出到输出流，不在内存中保留已写出的行；close时写出文件结尾，写出失败时不应调用close
+ */
+public interface TabularWriter extends Closeable {
+
+    /**
+     * 日期时间导出格式
+     */
+    DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 写出表头
+     * @param headers 列名
+     * @throws IOException 写出失败
+     */
+    void writeHeader(List<String> headers) throws IOException;
+
+    /**
+     * 写出一行数据，数值按数字写出，其他值按文本写出，null为空单元格
+     * @param values 单元格值
+     * @throws IOException 写出失败
+     */
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * 单元格值转换为文本
+     * @param value 单元格值
+     * @return 文本，null返回空字符串
+     */
+    static String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(DATE_TIME_FORMATTER);
+        }
+        if (value instanceof LocalDate) {
+            return value.toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.vocational.researchfund.export;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX导出写入器
+ * 直接按SpreadsheetML格式边写边压缩，文本使用内联字符串（不维护共享字符串表），内存占用与行数无关；
+ * 单个工作表超过Excel行数上限时自动续写到下一个工作表，并重复表头
+ */
+public class XlsxTabularWriter implements TabularWriter {
+
+    /**
+     * Excel单个工作表的最大行数
+     */
+    private static final int MAX_ROWS_PER_SHEET = 1048576;
+
+    /**
+     * Excel单元格最大字符数
+     */
+    private static final int MAX_CELL_LENGTH = 32767;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ZipOutputStream zip;
+
+    private final Writer writer;
+
+    private final String sheetName;
+
+    private List<String> headers;
+
+    private int sheetCount;
+
+    private int rowsInSheet;
+
+    /**
+     * @param out 输出流，close时一并关闭
+     * @param sheetName 工作表名称（不超过31个字符，不含 []:*?/\）
+     */
+    public XlsxTabularWriter(OutputStream out, String sheetName) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // 写入器只在工作表之间刷新，不能关闭底层的压缩流
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                zip.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.sheetName = sheetName;
+    }
+
+    @Override
+    public void writeHeader(List<String> headers) throws IOException {
+        this.headers = headers;
+        writeRow(headers);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        if (sheetCount == 0 || rowsInSheet == MAX_ROWS_PER_SHEET) {
+            if (sheetCount > 0) {
+                endSheet();
+            }
+            startSheet();
+            if (sheetCount > 1 && headers != null) {
+                appendRow(headers);
+            }
+        }
+        appendRow(values);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sheetCount == 0) {
+            startSheet();
+        }
+        endSheet();
+
+        writeEntry("[Content_Types].xml", contentTypes());
+        writeEntry("_rels/.rels", XML_DECLARATION
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        writeEntry("xl/workbook.xml", workbook());
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRels());
+        zip.close();
+    }
+
+    private void startSheet() throws IOException {
+        sheetCount++;
+        rowsInSheet = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+    }
+
+    private void endSheet() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private void appendRow(List<?> values) throws IOException {
+        writer.write("<row>");
+        for (Object value : values) {
+            if (value == null) {
+                writer.write("<c/>");
+            } else if (value instanceof Number) {
+                writer.write("<c><v>");
+                writer.write(TabularWriter.toText(value));
+                writer.write("</v></c>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writeEscaped(TabularWriter.toText(value));
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+        rowsInSheet++;
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        int length = Math.min(text.length(), MAX_CELL_LENGTH);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '\t':
+                case '\n':
+                case '\r':
+                    writer.write(c);
+                    break;
+                default:
+                    // XML 1.0不允许的控制字符直接丢弃
+                    if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF) {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private String contentTypes() {
+        StringBuilder xml = new StringBuilder(XML_DECLARATION)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ")
+                .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            xml.append("<Override PartName=\"/xl/worksheets/sheet").append(i).append(".xml\" ")
+                    .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return xml.append("</Types>").toString();
+    }
+
+    private String workbook() {
+        StringBuilder xml = new StringBuilder(XML_DECLARATION)
+                .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS).append("\"><sheets>");
+        for (int i = 1; i <= sheetCount; i++) {
+            String name = i == 1 ? sheetName : sheetName + "(" + i + ")";
+            xml.append("<sheet name=\"").append(name.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;"))
+                    .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return xml.append("</sheets></workbook>").toString();
+    }
+
+    private String workbookRels() {
+        StringBuilder xml = new StringBuilder(XML_DECLARATION)
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            xml.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(REL_NS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        return xml.append("</Relationships>").toString();
+    }
+}
@@ -44,6 +44,13 @@ public interface AttachmentMapper {
             "FROM expense_attachment WHERE expense_id=#{expenseId} AND deleted=0")
     List<AttachmentDTO> selectByExpenseId(@Param("expenseId") Long expenseId);
     
+    /**
+     * 根据多个经费申请ID批量查询附件列表
+     * @param expenseIds 经费申请ID列表
+     * @return 附件DTO列表（按经费申请ID、附件ID排序）
+     */
+    List<AttachmentDTO> selectByExpenseIds(@Param("expenseIds") List<Long> expenseIds);
+    
     /**
      * 根据ID查询附件
      * @param id 附件ID
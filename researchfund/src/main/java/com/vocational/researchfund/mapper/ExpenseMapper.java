@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 import java.util.Map;
@@ -69,6 +70,37 @@ public interface ExpenseMapper {
                      @Param("auditUserName") String auditUserName, 
                      @Param("auditComment") String auditComment);
     
+    /**
+     * 按原状态更新经费申请状态，状态已被其他操作修改时不更新
+     * @param id 经费申请ID
+     * @param fromStatus 原状态
+     * @param status 新状态
+     * @param auditUserId 审核人ID（可为null）
+     * @param auditUserName 审核人姓名（可为null）
+     * @param auditComment 审核意见（可为null）
+     * @return 影响行数，0表示记录不存在或状态已变化
+     */
+    @Update({
+        "<script>",
+        "UPDATE expense_apply SET status=#{status} ",
+        "<if test='auditUserId != null'>",
+        ", audit_user_id=#{auditUserId} ",
+        "</if>",
+        "<if test='auditUserName != null'>",
+        ", audit_user_name=#{auditUserName} ",
+        "</if>",
+        "<if test='auditComment != null'>",
+        ", audit_time=NOW(), audit_comment=#{auditComment} ",
+        "</if>",
+        "WHERE id=#{id} AND status=#{fromStatus} AND deleted=0",
+        "</script>"
+    })
+    int transitionStatus(@Param("id") Long id, @Param("fromStatus") String fromStatus,
+                         @Param("status") String status,
+                         @Param("auditUserId") Long auditUserId,
+                         @Param("auditUserName") String auditUserName,
+                         @Param("auditComment") String auditComment);
+    
     /**
      * 根据ID查询经费申请
      * @param id 经费申请ID
@@ -80,6 +112,64 @@ public interface ExpenseMapper {
             "FROM expense_apply WHERE id=#{id} AND deleted=0")
     ExpenseDTO selectById(@Param("id") Long id);
     
+    /**
+     * 批量查询经费申请并加行锁（XML实现）
+     * @param ids 经费申请ID列表
+     * @return 经费申请列表
+     */
+    List<ExpenseDTO> selectByIdsForUpdate(@Param("ids") List<Long> ids);
+    
+    /**
+     * 按ID升序分批查询已支付的借款类型经费申请
+     * @param afterId 检查点，只查询ID大于该值的记录
+     * @param limit 批大小
+     * @return 经费申请列表（只包含ID、项目、类型、金额和状态）
+     */
+    @Select("SELECT id, project_id, type, amount, status FROM expense_apply " +
+            "WHERE status = 'paid' AND category = 'advance' AND deleted = 0 " +
+            "AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<ExpenseDTO> selectPaidAdvanceExpenseChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 按ID升序分批查询项目已结束但仍待提交报销凭证的借款类型经费申请
+     * @param afterId 检查点，只查询ID大于该值的记录
+     * @param limit 批大小
+     * @return 经费申请列表（只包含ID、项目、类型、金额和状态）
+     */
+    @Select("SELECT e.id, e.project_id, e.type, e.amount, e.status FROM expense_apply e " +
+            "JOIN project p ON e.project_id = p.id " +
+            "WHERE e.status = 'receipt_pending' AND e.category = 'advance' AND e.deleted = 0 " +
+            "AND p.end_date < CURRENT_DATE() AND e.id > #{afterId} ORDER BY e.id LIMIT #{limit}")
+    List<ExpenseDTO> selectOverdueReceiptPendingChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 查询指定项目已结束但仍待提交报销凭证的借款类型经费申请
+     * @param projectId 项目ID
+     * @return 经费申请列表（只包含ID、项目、类型、金额和状态）
+     */
+    @Select("SELECT e.id, e.project_id, e.type, e.amount, e.status FROM expense_apply e " +
+            "JOIN project p ON e.project_id = p.id " +
+            "WHERE e.project_id = #{projectId} AND e.status = 'receipt_pending' AND e.category = 'advance' " +
+            "AND e.deleted = 0 AND p.end_date < CURRENT_DATE()")
+    List<ExpenseDTO> selectOverdueReceiptPendingByProject(@Param("projectId") Long projectId);
+    
+    /**
+     * 批量更新经费申请状态（XML实现），只更新当前状态为fromStatus的记录
+     * @param ids 经费申请ID列表
+     * @param fromStatus 原状态
+     * @param status 新状态
+     * @param auditUserId 审核人ID（可为null）
+     * @param auditUserName 审核人姓名（可为null）
+     * @param auditComment 审核意见（可为null）
+     * @return 影响行数
+     */
+    int batchUpdateStatus(@Param("ids") List<Long> ids,
+                          @Param("fromStatus") String fromStatus,
+                          @Param("status") String status,
+                          @Param("auditUserId") Long auditUserId,
+                          @Param("auditUserName") String auditUserName,
+                          @Param("auditComment") String auditComment);
+    
     /**
      * 根据用户ID查询经费申请列表
      * @param applyUserId 申请人ID
@@ -101,6 +191,34 @@ public interface ExpenseMapper {
             "FROM expense_apply WHERE deleted=0 ORDER BY create_time DESC")
     List<ExpenseDTO> selectAll();
     
+    /**
+     * 根据条件分页查询经费申请列表（ID倒序，与游标模式一致）
+     * @param params 查询参数（title、projectId、type、status、category、startDate、endDate、applyUserId、offset、limit）
+     * @return 经费申请列表
+     */
+    List<ExpenseDTO> selectByParams(@Param("params") Map<String, Object> params);
+    
+    /**
+     * 根据条件查询经费申请数量
+     * @param params 查询参数
+     * @return 经费申请数量
+     */
+    long countByParams(@Param("params") Map<String, Object> params);
+    
+    /**
+     * 按游标（ID倒序）查询经费申请列表
+     * @param params 查询参数（筛选条件、afterId、limit）
+     * @return 经费申请列表
+     */
+    List<ExpenseDTO> selectByCursor(@Param("params") Map<String, Object> params);
+    
+    /**
+     * 流式查询经费申请（ID倒序），用于导出，需在事务中遍历并关闭
+     * @param params 查询参数（筛选条件）
+     * @return 游标
+     */
+    Cursor<ExpenseDTO> selectForExport(@Param("params") Map<String, Object> params);
+    
     /**
      * 逻辑删除经费申请
      * @param id 经费申请ID
@@ -148,7 +266,7 @@ public interface ExpenseMapper {
      * @return 待审核的经费申请列表
      */
     @Select("SELECT id, title, project_id, project_name, amount, apply_date, status " +
-            "FROM expense WHERE status = 'pending' AND deleted = 0")
+            "FROM expense_apply WHERE status = 'pending' AND deleted = 0")
     List<Map<String, Object>> getPendingAuditExpenses();
     
     /**
@@ -157,7 +275,7 @@ public interface ExpenseMapper {
      * @return 用户的待审核经费申请列表
      */
     @Select("SELECT id, title, project_id, project_name, amount, apply_date, status " +
-            "FROM expense WHERE apply_user_id = #{userId} AND status = 'pending' AND deleted = 0")
+            "FROM expense_apply WHERE apply_user_id = #{userId} AND status = 'pending' AND deleted = 0")
     List<Map<String, Object>> getUserPendingExpenses(@Param("userId") Long userId);
     
     /**
@@ -166,21 +284,21 @@ public interface ExpenseMapper {
      * @return 用户的待提交报销凭证的经费申请列表
      */
     @Select("SELECT id, title, project_id, project_name, amount, apply_date, status " +
-            "FROM expense WHERE apply_user_id = #{userId} AND status = 'receipt_pending' AND deleted = 0")
+            "FROM expense_apply WHERE apply_user_id = #{userId} AND status = 'receipt_pending' AND deleted = 0")
     List<Map<String, Object>> getUserReceiptPendingExpenses(@Param("userId") Long userId);
     
     /**
      * 获取全局待审核经费申请数量
      * @return 待审核经费申请数量
      */
-    @Select("SELECT COUNT(*) FROM expense WHERE status = 'pending' AND deleted = 0")
+    @Select("SELECT COUNT(*) FROM expense_apply WHERE status = 'pending' AND deleted = 0")
     int getPendingExpenseCount();
     
     /**
      * 获取全局待支付经费申请数量
      * @return 待支付经费申请数量
      */
-    @Select("SELECT COUNT(*) FROM expense WHERE status = 'approved' AND deleted = 0")
+    @Select("SELECT COUNT(*) FROM expense_apply WHERE status = 'approved' AND deleted = 0")
     int getPendingPaymentCount();
     
     /**
@@ -188,7 +306,7 @@ public interface ExpenseMapper {
      * @param userId 用户ID
      * @return 用户的待审核经费申请数量
      */
-    @Select("SELECT COUNT(*) FROM expense WHERE apply_user_id = #{userId} AND status = 'pending' AND deleted = 0")
+    @Select("SELECT COUNT(*) FROM expense_apply WHERE apply_user_id = #{userId} AND status = 'pending' AND deleted = 0")
     int getUserPendingExpenseCount(@Param("userId") Long userId);
     
     /**
@@ -196,6 +314,6 @@ public interface ExpenseMapper {
      * @param userId 用户ID
      * @return 用户的待支付经费申请数量
      */
-    @Select("SELECT COUNT(*) FROM expense WHERE apply_user_id = #{userId} AND status = 'approved' AND deleted = 0")
+    @Select("SELECT COUNT(*) FROM expense_apply WHERE apply_user_id = #{userId} AND status = 'approved' AND deleted = 0")
     int getUserPendingPaymentCount(@Param("userId") Long userId);
 } 
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.FileBlob;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 文件内容存储Mapper接口
+ */
+@Mapper
+public interface FileBlobMapper {
+
+    /**
+     * 登记文件内容，已存在时只刷新更新时间；在事务中调用时锁定该内容的记录直到事务结束
+     * @param contentHash 文件内容MD5
+     * @param storagePath 存储路径（仅新增时使用）
+     * @param fileSize 文件大小
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO file_blob (content_hash, storage_path, file_size, ref_count) " +
+            "VALUES (#{contentHash}, #{storagePath}, #{fileSize}, 0) " +
+            "ON DUPLICATE KEY UPDATE update_time = CURRENT_TIMESTAMP")
+    int upsert(@Param("contentHash") String contentHash,
+               @Param("storagePath") String storagePath,
+               @Param("fileSize") Long fileSize);
+
+    /**
+     * 根据内容MD5查询
+     * @param contentHash 文件内容MD5
+     * @return 文件内容记录
+     */
+    @Select("SELECT id, content_hash, storage_path, file_size, ref_count, create_time, update_time " +
+            "FROM file_blob WHERE content_hash = #{contentHash}")
+    FileBlob selectByHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 按ID升序分批查询文件内容ID
+     * @param afterId 检查点，只查询ID大于该值的记录
+     * @param limit 批大小
+     * @return ID列表
+     */
+    @Select("SELECT id FROM file_blob WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectIdChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 根据各业务表中的引用重新统计引用数（XML实现）
+     * @param ids 文件内容ID列表
+     * @return 影响行数
+     */
+    int recountReferences(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID升序分批查询并锁定超过保留时间仍无引用的文件内容
+     * @param afterId 检查点，只查询ID大于该值的记录
+     * @param limit 批大小
+     * @param graceHours 保留时间（小时），上传后尚未提交表单的文件在此期间不清理
+     * @return 文件内容列表
+     */
+    @Select("SELECT id, content_hash, storage_path, file_size, ref_count, create_time, update_time " +
+            "FROM file_blob WHERE ref_count = 0 " +
+            "AND update_time < TIMESTAMPADD(HOUR, -#{graceHours}, CURRENT_TIMESTAMP) " +
+            "AND id > #{afterId} ORDER BY id LIMIT #{limit} FOR UPDATE")
+    List<FileBlob> selectUnreferencedForUpdate(@Param("afterId") Long afterId,
+                                               @Param("limit") int limit,
+                                               @Param("graceHours") int graceHours);
+
+    /**
+     * 删除文件内容记录
+     * @param id 记录ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM file_blob WHERE id = #{id} AND ref_count = 0")
+    int deleteUnreferenced(@Param("id") Long id);
+}
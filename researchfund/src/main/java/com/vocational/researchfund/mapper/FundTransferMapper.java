@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 import java.util.Map;
@@ -70,6 +71,37 @@ public interface FundTransferMapper {
                      @Param("auditUserName") String auditUserName, 
                      @Param("auditComment") String auditComment);
     
+    /**
+     * 按原状态更新经费结转状态，状态已被其他操作修改时不更新
+     * @param id 经费结转ID
+     * @param fromStatus 原状态
+     * @param status 新状态
+     * @param auditUserId 审核人ID（可为null）
+     * @param auditUserName 审核人姓名（可为null）
+     * @param auditComment 审核意见（可为null）
+     * @return 影响行数，0表示记录不存在或状态已变化
+     */
+    @Update({
+        "<script>",
+        "UPDATE fund_transfer SET status=#{status} ",
+        "<if test='auditUserId != null'>",
+        ", audit_user_id=#{auditUserId} ",
+        "</if>",
+        "<if test='auditUserName != null'>",
+        ", audit_user_name=#{auditUserName} ",
+        "</if>",
+        "<if test='auditComment != null'>",
+        ", audit_time=NOW(), audit_comment=#{auditComment} ",
+        "</if>",
+        "WHERE id=#{id} AND status=#{fromStatus} AND deleted=0",
+        "</script>"
+    })
+    int transitionStatus(@Param("id") Long id, @Param("fromStatus") String fromStatus,
+                         @Param("status") String status,
+                         @Param("auditUserId") Long auditUserId,
+                         @Param("auditUserName") String auditUserName,
+                         @Param("auditComment") String auditComment);
+    
     /**
      * 根据ID查询经费结转
      * @param id 经费结转ID
@@ -89,7 +121,7 @@ public interface FundTransferMapper {
     @Select("SELECT id, title, project_id, project_name, amount, apply_date, reason, description, " +
             "from_year, to_year, apply_user_id, apply_user_name, status, audit_user_id, " +
             "audit_user_name, audit_time, audit_comment, create_time " +
-            "FROM fund_transfer WHERE apply_user_id=#{applyUserId} AND deleted=0 ORDER BY create_time DESC")
+            "FROM fund_transfer WHERE apply_user_id=#{applyUserId} AND deleted=0 ORDER BY id DESC")
     List<FundTransferDTO> selectByUserId(@Param("applyUserId") Long applyUserId);
     
     /**
@@ -99,9 +131,23 @@ public interface FundTransferMapper {
     @Select("SELECT id, title, project_id, project_name, amount, apply_date, reason, description, " +
             "from_year, to_year, apply_user_id, apply_user_name, status, audit_user_id, " +
             "audit_user_name, audit_time, audit_comment, create_time " +
-            "FROM fund_transfer WHERE deleted=0 ORDER BY create_time DESC")
+            "FROM fund_transfer WHERE deleted=0 ORDER BY id DESC")
     List<FundTransferDTO> selectAll();
     
+    /**
+     * 按游标（ID倒序）查询经费结转列表
+     * @param params 查询参数（title、projectId、status、fromYear、toYear、applyUserId、afterId、limit）
+     * @return 经费结转列表
+     */
+    List<FundTransferDTO> selectByCursor(@Param("params") Map<String, Object> params);
+    
+    /**
+     * 流式查询经费结转（ID倒序），用于导出，需在事务中遍历并关闭
+     * @param params 查询参数（title、projectId、status、fromYear、toYear、applyUserId）
+     * @return 游标
+     */
+    Cursor<FundTransferDTO> selectForExport(@Param("params") Map<String, Object> params);
+    
     /**
      * 逻辑删除经费结转
      * @param id 经费结转ID
@@ -0,0 +1,54 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.ProjectBudgetLedger;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 项目预算科目台账Mapper接口
+ */
+@Mapper
+public interface ProjectBudgetLedgerMapper {
+
+    /**
+     * 查询项目指定经费类型的台账
+     * @param projectId 项目ID
+     * @param expenseType 经费类型
+     * @return 台账，不存在时返回null
+     */
+    @Select("SELECT project_id, expense_type, committed_amount, paid_amount, update_time " +
+            "FROM project_budget_ledger WHERE project_id = #{projectId} AND expense_type = #{expenseType}")
+    ProjectBudgetLedger selectByProjectAndType(@Param("projectId") Long projectId,
+                                               @Param("expenseType") String expenseType);
+
+    /**
+     * 查询项目的全部台账
+     * @param projectId 项目ID
+     * @return 台账列表
+     */
+    @Select("SELECT project_id, expense_type, committed_amount, paid_amount, update_time " +
+            "FROM project_budget_ledger WHERE project_id = #{projectId}")
+    List<ProjectBudgetLedger> selectByProjectId(@Param("projectId") Long projectId);
+
+    /**
+     * 增量更新台账金额，台账不存在时创建
+     * @param projectId 项目ID
+     * @param expenseType 经费类型
+     * @param committedDelta 已申请未支付金额变化量
+     * @param paidDelta 已支付金额变化量
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO project_budget_ledger (project_id, expense_type, committed_amount, paid_amount) " +
+            "VALUES (#{projectId}, #{expenseType}, #{committedDelta}, #{paidDelta}) " +
+            "ON DUPLICATE KEY UPDATE committed_amount = committed_amount + #{committedDelta}, " +
+            "paid_amount = paid_amount + #{paidDelta}")
+    int applyDelta(@Param("projectId") Long projectId,
+                   @Param("expenseType") String expenseType,
+                   @Param("committedDelta") BigDecimal committedDelta,
+                   @Param("paidDelta") BigDecimal paidDelta);
+}
@@ -8,7 +8,9 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +55,13 @@ public interface ProjectMapper {
             "FROM project WHERE id=#{id} AND deleted=0")
     ProjectDTO selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID查询项目详情（一次查询同时返回团队成员、预算科目和经费来源）
+     * @param id 项目ID
+     * @return 项目DTO
+     */
+    ProjectDTO selectDetailById(@Param("id") Long id);
+    
     /**
      * 查询项目列表
      * @return 项目列表
@@ -69,9 +78,23 @@ public interface ProjectMapper {
      */
     @Select("SELECT id, name, type, leader_id, leader_name, start_date, end_date, " +
             "budget, used_budget, status, audit_status, description, research_content, expected_results, file_path " +
-            "FROM project WHERE leader_id=#{leaderId} AND deleted=0")
+            "FROM project WHERE leader_id=#{leaderId} AND deleted=0 ORDER BY id DESC")
     List<ProjectDTO> selectByLeaderId(@Param("leaderId") Long leaderId);
     
+    /**
+     * 按游标（ID倒序）查询项目列表
+     * @param params 查询参数（name、type、status、auditStatus、leaderId、afterId、limit）
+     * @return 项目列表
+     */
+    List<ProjectDTO> selectByCursor(@Param("params") Map<String, Object> params);
+    
+    /**
+     * 流式查询项目（ID倒序），用于导出，需在事务中遍历并关闭
+     * @param params 查询参数（name、type、status、auditStatus、leaderId）
+     * @return 游标
+     */
+    Cursor<ProjectDTO> selectForExport(@Param("params") Map<String, Object> params);
+    
     /**
      * 根据审核状态查询项目
      * @param auditStatus 审核状态
@@ -118,6 +141,31 @@ public interface ProjectMapper {
     @Update("UPDATE project SET used_budget = used_budget + #{amount} WHERE id=#{id}")
     int updateUsedBudget(@Param("id") Long id, @Param("amount") java.math.BigDecimal amount);
     
+    /**
+     * 原子预留项目经费，仅在剩余经费足够时增加已用经费
+     * @param id 项目ID
+     * @param amount 预留金额
+     * @return 影响行数，0表示项目不存在或剩余经费不足
+     */
+    @Update("UPDATE project SET used_budget = used_budget + #{amount} " +
+            "WHERE id = #{id} AND deleted = 0 AND budget - used_budget >= #{amount}")
+    int reserveBudget(@Param("id") Long id, @Param("amount") java.math.BigDecimal amount);
+    
+    /**
+     * 读取项目最新的预算和已用经费（加锁读，不受事务快照影响）
+     * @param id 项目ID
+     * @return 预算信息，项目不存在时返回null
+     */
+    @Select("SELECT id, budget, used_budget FROM project WHERE id = #{id} AND deleted = 0 FOR UPDATE")
+    Map<String, Object> selectBudgetForUpdate(@Param("id") Long id);
+    
+    /**
+     * 批量查询项目预算和已用经费（XML实现）
+     * @param ids 项目ID列表
+     * @return 项目列表，只包含ID、名称、预算和已用经费
+     */
+    List<ProjectDTO> selectBudgetsByIds(@Param("ids") List<Long> ids);
+    
     /**
      * 查询已过期且状态为active的项目（已超过结束日期但未进入结题流程）
      * @return 项目列表
@@ -135,6 +183,48 @@ public interface ProjectMapper {
     @Update("UPDATE project SET status = 'pending_completion' WHERE id = #{id}")
     int updateToPendingCompletion(@Param("id") Long id);
     
+    /**
+     * 按ID升序分批查询已过期且状态为active的项目ID
+     * @param afterId 检查点，只查询ID大于该值的项目
+     * @param limit 批大小
+     * @return 项目ID列表
+     */
+    @Select("SELECT id FROM project WHERE status = 'active' AND end_date < CURRENT_DATE() AND deleted = 0 " +
+            "AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Long> selectExpiredActiveProjectIds(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 单个项目到期时更新为待结题状态，只更新已过结束日期且状态仍为active的项目
+     * @param id 项目ID
+     * @return 影响行数
+     */
+    @Update("UPDATE project SET status = 'pending_completion' " +
+            "WHERE id = #{id} AND status = 'active' AND end_date < CURRENT_DATE() AND deleted = 0")
+    int expireIfDue(@Param("id") Long id);
+    
+    /**
+     * 查询结束日期在指定范围内的项目（只包含ID和结束日期），用于加载到期调度
+     * @param from 起始日期（包含）
+     * @param to 截止日期（包含）
+     * @return 项目列表
+     */
+    @Select("SELECT id, end_date FROM project WHERE end_date BETWEEN #{from} AND #{to} AND deleted = 0")
+    List<ProjectDTO> selectEndDatesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * 批量查询项目结束日期（XML实现）
+     * @param ids 项目ID列表
+     * @return 项目列表，只包含ID和结束日期
+     */
+    List<ProjectDTO> selectEndDatesByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 批量更新项目为待结题状态（XML实现），只更新仍为active的项目
+     * @param ids 项目ID列表
+     * @return 影响行数
+     */
+    int batchUpdateToPendingCompletion(@Param("ids") List<Long> ids);
+    
     /**
      * 更新项目结题报告信息
      * @param id 项目ID
@@ -182,25 +272,30 @@ public interface ProjectMapper {
     List<Map<String, Object>> getUserPendingCompletionProjects(@Param("userId") Long userId);
     
     /**
-     * 获取所有活跃项目
-     * @return 活跃项目列表
+     * 获取预算使用率最高的活跃项目
+     * 排序与截断在数据库中完成，只返回前limit条
+     * @param limit 返回条数
+     * @return 活跃项目列表，按预算使用率、已用预算降序
      */
     @Select("SELECT id, name, status, budget, used_budget " +
             "FROM project WHERE status IN ('active', 'planning') AND deleted = 0 " +
-            "ORDER BY used_budget DESC")
-    List<Map<String, Object>> getActiveProjects();
+            "ORDER BY CASE WHEN budget = 0 THEN 0 ELSE ROUND(used_budget * 100 / budget) END DESC, used_budget DESC " +
+            "LIMIT #{limit}")
+    List<Map<String, Object>> getTopBudgetUsageProjects(@Param("limit") int limit);
     
     /**
-     * 获取用户参与的活跃项目
+     * 获取用户负责的预算使用率最高的活跃项目
      * @param userId 用户ID
-     * @return 用户参与的活跃项目列表
+     * @param limit 返回条数
+     * @return 活跃项目列表，按预算使用率、已用预算降序
      */
     @Select("SELECT id, name, status, budget, used_budget " +
             "FROM project " +
             "WHERE leader_id = #{userId} " +
             "AND status IN ('active', 'planning') AND deleted = 0 " +
-            "ORDER BY used_budget DESC")
-    List<Map<String, Object>> getUserActiveProjects(@Param("userId") Long userId);
+            "ORDER BY CASE WHEN budget = 0 THEN 0 ELSE ROUND(used_budget * 100 / budget) END DESC, used_budget DESC " +
+            "LIMIT #{limit}")
+    List<Map<String, Object>> getUserTopBudgetUsageProjects(@Param("userId") Long userId, @Param("limit") int limit);
     
     /**
      * 获取项目总数
@@ -0,0 +1,89 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.ScheduleJobLease;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 定时任务租约Mapper接口
+ * 时间均取数据库时间，避免各节点时钟不一致
+ */
+@Mapper
+public interface ScheduleJobLeaseMapper {
+
+    /**
+     * 创建任务的租约记录（已存在时忽略）
+     * @param jobName 任务名称
+     * @return 影响行数
+     */
+    @Insert("INSERT IGNORE INTO schedule_job_lease (job_name, fencing_token, lease_until) " +
+            "VALUES (#{jobName}, 0, CURRENT_TIMESTAMP)")
+    int insertIfAbsent(@Param("jobName") String jobName);
+
+    /**
+     * 租约已到期时获取租约并递增防护令牌
+     * @param jobName 任务名称
+     * @param owner 节点标识
+     * @param ttlSeconds 租约时长（秒）
+     * @return 影响行数，0表示租约被其他节点持有
+     */
+    @Update("UPDATE schedule_job_lease SET owner = #{owner}, fencing_token = fencing_token + 1, " +
+            "acquired_at = CURRENT_TIMESTAMP, lease_until = TIMESTAMPADD(SECOND, #{ttlSeconds}, CURRENT_TIMESTAMP) " +
+            "WHERE job_name = #{jobName} AND lease_until <= CURRENT_TIMESTAMP")
+    int tryAcquire(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("ttlSeconds") int ttlSeconds);
+
+    /**
+     * 查询任务的租约
+     * @param jobName 任务名称
+     * @return 租约
+     */
+    @Select("SELECT job_name, owner, fencing_token, acquired_at, lease_until " +
+            "FROM schedule_job_lease WHERE job_name = #{jobName}")
+    ScheduleJobLease selectByJobName(@Param("jobName") String jobName);
+
+    /**
+     * 查询全部任务的租约
+     * @return 租约列表
+     */
+    @Select("SELECT job_name, owner, fencing_token, acquired_at, lease_until " +
+            "FROM schedule_job_lease ORDER BY job_name")
+    List<ScheduleJobLease> selectAll();
+
+    /**
+     * 校验防护令牌并续约，在写入数据的事务中调用时锁定租约行直到事务结束
+     * @param jobName 任务名称
+     * @param owner 节点标识
+     * @param fencingToken 防护令牌
+     * @param ttlSeconds 租约时长（秒）
+     * @return 影响行数，0表示租约已被其他节点获取
+     */
+    @Update("UPDATE schedule_job_lease SET lease_until = TIMESTAMPADD(SECOND, #{ttlSeconds}, CURRENT_TIMESTAMP) " +
+            "WHERE job_name = #{jobName} AND owner = #{owner} AND fencing_token = #{fencingToken}")
+    int renew(@Param("jobName") String jobName,
+              @Param("owner") String owner,
+              @Param("fencingToken") Long fencingToken,
+              @Param("ttlSeconds") int ttlSeconds);
+
+    /**
+     * 释放租约，租约至少保持到获取后minHoldSeconds秒，防止时钟稍慢的节点在同一周期内重复执行
+     * @param jobName 任务名称
+     * @param owner 节点标识
+     * @param fencingToken 防护令牌
+     * @param minHoldSeconds 最短持有时间（秒）
+     * @return 影响行数
+     */
+    @Update("UPDATE schedule_job_lease SET lease_until = " +
+            "GREATEST(TIMESTAMPADD(SECOND, #{minHoldSeconds}, acquired_at), CURRENT_TIMESTAMP) " +
+            "WHERE job_name = #{jobName} AND owner = #{owner} AND fencing_token = #{fencingToken}")
+    int release(@Param("jobName") String jobName,
+                @Param("owner") String owner,
+                @Param("fencingToken") Long fencingToken,
+                @Param("minHoldSeconds") int minHoldSeconds);
+}
@@ -0,0 +1,66 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.ScheduleJobRun;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 定时任务运行记录Mapper接口
+ */
+@Mapper
+public interface ScheduleJobRunMapper {
+
+    /**
+     * 记录任务开始运行
+     * @param run 运行记录
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO schedule_job_run (job_name, owner, fencing_token, status, start_time) " +
+            "VALUES (#{jobName}, #{owner}, #{fencingToken}, 'running', CURRENT_TIMESTAMP)")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(ScheduleJobRun run);
+
+    /**
+     * 记录任务运行结束
+     * @param id 记录ID
+     * @param status 结束状态
+     * @param affectedRows 更新的行数
+     * @param errorMessage 错误信息
+     * @return 影响行数
+     */
+    @Update("UPDATE schedule_job_run SET status = #{status}, affected_rows = #{affectedRows}, " +
+            "error_message = #{errorMessage}, end_time = CURRENT_TIMESTAMP WHERE id = #{id}")
+    int finish(@Param("id") Long id,
+               @Param("status") String status,
+               @Param("affectedRows") Long affectedRows,
+               @Param("errorMessage") String errorMessage);
+
+    /**
+     * 查询最近的运行记录
+     * @param jobName 任务名称（为空表示全部任务）
+     * @param limit 条数
+     * @return 运行记录列表，按开始时间倒序
+     */
+    @Select("<script>" +
+            "SELECT id, job_name, owner, fencing_token, status, affected_rows, error_message, start_time, end_time " +
+            "FROM schedule_job_run " +
+            "<if test='jobName != null'>WHERE job_name = #{jobName} </if>" +
+            "ORDER BY id DESC LIMIT #{limit}" +
+            "</script>")
+    List<ScheduleJobRun> selectRecent(@Param("jobName") String jobName, @Param("limit") int limit);
+
+    /**
+     * 删除指定天数之前的运行记录
+     * @param retentionDays 保留天数
+     * @return 删除的行数
+     */
+    @Delete("DELETE FROM schedule_job_run WHERE start_time < TIMESTAMPADD(DAY, -#{retentionDays}, CURRENT_TIMESTAMP)")
+    int deleteOlderThan(@Param("retentionDays") int retentionDays);
+}
@@ -0,0 +1,69 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.UploadFileIndex;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 上传文件内容哈希索引Mapper接口
+ */
+@Mapper
+public interface UploadFileIndexMapper {
+
+    /**
+     * 根据内容哈希查询文件路径
+     * @param fileHash 文件MD5
+     * @return 文件相对路径列表
+     */
+    @Select("SELECT relative_path FROM upload_file_index WHERE file_hash = #{fileHash}")
+    List<String> selectPathsByHash(@Param("fileHash") String fileHash);
+
+    /**
+     * 根据文件路径查询索引
+     * @param relativePath 文件相对路径
+     * @return 文件索引，不存在时返回null
+     */
+    @Select("SELECT relative_path, directory, file_hash, file_size, last_modified " +
+            "FROM upload_file_index WHERE relative_path = #{relativePath}")
+    UploadFileIndex selectByPath(@Param("relativePath") String relativePath);
+
+    /**
+     * 查询指定目录下的文件索引
+     * @param directory 目录相对路径，根目录为空字符串
+     * @return 索引列表
+     */
+    @Select("SELECT relative_path, directory, file_hash, file_size, last_modified " +
+            "FROM upload_file_index WHERE directory = #{directory}")
+    List<UploadFileIndex> selectByDirectory(@Param("directory") String directory);
+
+    /**
+     * 查询所有已建立索引的目录
+     * @return 目录相对路径列表，根目录为空字符串
+     */
+    @Select("SELECT DISTINCT directory FROM upload_file_index")
+    List<String> selectDirectories();
+
+    /**
+     * 新增或更新文件索引
+     * @param index 文件索引
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO upload_file_index (relative_path, directory, file_hash, file_size, last_modified) " +
+            "VALUES (#{relativePath}, #{directory}, #{fileHash}, #{fileSize}, #{lastModified}) " +
+            "ON DUPLICATE KEY UPDATE file_hash = VALUES(file_hash), file_size = VALUES(file_size), " +
+            "last_modified = VALUES(last_modified)")
+    int upsert(UploadFileIndex index);
+
+    /**
+     * 删除文件索引
+     * @param relativePath 文件相对路径
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM upload_file_index WHERE relative_path = #{relativePath}")
+    int deleteByPath(@Param("relativePath") String relativePath);
+}
@@ -0,0 +1,85 @@
+package com.vocational.researchfund.mapper;
+
+import com.vocational.researchfund.entity.UploadSession;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 分片上传会话Mapper接口
+ */
+@Mapper
+public interface UploadSessionMapper {
+
+    /**
+     * 创建上传会话
+     * @param session 上传会话
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO upload_session (upload_id, user_id, file_name, content_type, file_size, chunk_size, " +
+            "total_chunks, file_md5, status) VALUES (#{uploadId}, #{userId}, #{fileName}, #{contentType}, " +
+            "#{fileSize}, #{chunkSize}, #{totalChunks}, #{fileMd5}, 'uploading')")
+    int insert(UploadSession session);
+
+    /**
+     * 查询上传会话
+     * @param uploadId 上传ID
+     * @return 上传会话
+     */
+    @Select("SELECT upload_id, user_id, file_name, content_type, file_size, chunk_size, total_chunks, file_md5, " +
+            "status, file_path, create_time, update_time FROM upload_session WHERE upload_id = #{uploadId}")
+    UploadSession selectById(@Param("uploadId") String uploadId);
+
+    /**
+     * 按当前状态更新会话状态，用于防止同一会话并发合并
+     * @param uploadId 上传ID
+     * @param fromStatus 当前状态
+     * @param toStatus 新状态
+     * @return 影响行数，0表示状态已被其他请求修改
+     */
+    @Update("UPDATE upload_session SET status = #{toStatus} WHERE upload_id = #{uploadId} AND status = #{fromStatus}")
+    int updateStatus(@Param("uploadId") String uploadId,
+                     @Param("fromStatus") String fromStatus,
+                     @Param("toStatus") String toStatus);
+
+    /**
+     * 刷新会话的更新时间（接收到分片时调用，避免被当作过期会话清理）
+     * @param uploadId 上传ID
+     * @return 影响行数
+     */
+    @Update("UPDATE upload_session SET update_time = CURRENT_TIMESTAMP WHERE upload_id = #{uploadId}")
+    int touch(@Param("uploadId") String uploadId);
+
+    /**
+     * 标记会话已完成
+     * @param uploadId 上传ID
+     * @param filePath 合并后的文件路径
+     * @return 影响行数
+     */
+    @Update("UPDATE upload_session SET status = 'completed', file_path = #{filePath} " +
+            "WHERE upload_id = #{uploadId} AND status = 'assembling'")
+    int markCompleted(@Param("uploadId") String uploadId, @Param("filePath") String filePath);
+
+    /**
+     * 查询超过指定时间未更新的会话ID
+     * @param expireHours 过期时间（小时）
+     * @param limit 最大条数
+     * @return 上传ID列表
+     */
+    @Select("SELECT upload_id FROM upload_session " +
+            "WHERE update_time < TIMESTAMPADD(HOUR, -#{expireHours}, CURRENT_TIMESTAMP) LIMIT #{limit}")
+    List<String> selectExpiredIds(@Param("expireHours") int expireHours, @Param("limit") int limit);
+
+    /**
+     * 删除上传会话
+     * @param uploadId 上传ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM upload_session WHERE upload_id = #{uploadId}")
+    int deleteById(@Param("uploadId") String uploadId);
+}
@@ -0,0 +1,105 @@
+package com.vocational.researchfund.schedule;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批处理任务运行统计
+ * 记录每个任务的运行次数、处理行数、分批次数和耗时
+ */
+@Component
+public class BatchJobMetrics {
+
+    private final Map<String, JobStats> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次成功的运行
+     * @param jobName 任务名称
+     * @param rows 本次更新的行数
+     * @param chunks 本次处理的批次数
+     * @param durationMillis 本次耗时（毫秒）
+     */
+    public void recordSuccess(String jobName, long rows, int chunks, long durationMillis) {
+        JobStats stats = statsOf(jobName);
+        stats.runs.incrementAndGet();
+        stats.totalRows.addAndGet(rows);
+        stats.totalMillis.addAndGet(durationMillis);
+        stats.maxMillis.accumulateAndGet(durationMillis, Math::max);
+        stats.lastRows = rows;
+        stats.lastChunks = chunks;
+        stats.lastMillis = durationMillis;
+        stats.lastRunAt = System.currentTimeMillis();
+        stats.lastError = null;
+    }
+
+    /**
+     * 记录一次失败的运行
+     * @param jobName 任务名称
+     * @param rows 失败前已提交的行数
+     * @param durationMillis 本次耗时（毫秒）
+     * @param error 错误信息
+     */
+    public void recordFailure(String jobName, long rows, long durationMillis, String error) {
+        JobStats stats = statsOf(jobName);
+        stats.runs.incrementAndGet();
+        stats.failures.incrementAndGet();
+        stats.totalRows.addAndGet(rows);
+        stats.totalMillis.addAndGet(durationMillis);
+        stats.lastRows = rows;
+        stats.lastMillis = durationMillis;
+        stats.lastRunAt = System.currentTimeMillis();
+        stats.lastError = error;
+    }
+
+    /**
+     * 获取所有任务的运行统计
+     * @return 任务名称到统计信息的映射
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, JobStats> entry : jobs.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return result;
+    }
+
+    private JobStats statsOf(String jobName) {
+        return jobs.computeIfAbsent(jobName, k -> new JobStats());
+    }
+
+    /**
+     * 单个任务的统计
+     */
+    private static class JobStats {
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalRows = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile long lastRows;
+        private volatile int lastChunks;
+        private volatile long lastMillis;
+        private volatile long lastRunAt;
+        private volatile String lastError;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("runs", runs.get());
+            map.put("failures", failures.get());
+            map.put("totalRows", totalRows.get());
+            map.put("totalMillis", totalMillis.get());
+            map.put("maxMillis", maxMillis.get());
+            map.put("lastRows", lastRows);
+            map.put("lastChunks", lastChunks);
+            map.put("lastMillis", lastMillis);
+            map.put("lastRunAt", lastRunAt);
+            map.put("lastError", lastError);
+            return map;
+        }
+    }
+}
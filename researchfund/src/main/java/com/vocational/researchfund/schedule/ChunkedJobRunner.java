@@ -0,0 +1,108 @@
+package com.vocational.researchfund.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 分批执行批量状态更新任务
+ * 按ID升序每次读取一批待处理记录并在独立事务中批量更新，以最后一条记录的ID作为检查点继续读取下一批，
+ * 内存占用与批大小相关而与表大小无关；中途失败时已提交的批次保留，下次运行时从剩余记录继续。
+ * 在JobLeaseManager租约内运行时，每批在同一事务中校验防护令牌，租约被其他节点接管后停止写入
+ */
+@Component
+public class ChunkedJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedJobRunner.class);
+
+    /**
+     * 每批处理的记录数
+     */
+    @Value("${researchfund.schedule.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BatchJobMetrics batchJobMetrics;
+
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+
+    /**
+     * 分批执行任务
+     * @param jobName 任务名称
+     * @param loader 读取一批记录，参数为检查点ID（只读取ID大于该值的记录）和批大小，结果需按ID升序
+     * @param idOf 获取记录ID
+     * @param processor 批量处理一批记录，返回更新的行数
+     * @param <T> 记录类型
+     * @return 更新的总行数
+     */
+    public <T> long run(String jobName, BiFunction<Long, Integer, List<T>> loader,
+                        Function<T, Long> idOf, Function<List<T>, Integer> processor) {
+        long start = System.currentTimeMillis();
+        long totalRows = 0;
+        int chunks = 0;
+        long checkpoint = 0L;
+        try {
+            while (true) {
+                final long afterId = checkpoint;
+                ChunkResult result = transactionTemplate.execute(status -> {
+                    jobLeaseManager.checkFence();
+                    List<T> chunk = loader.apply(afterId, chunkSize);
+                    if (chunk.isEmpty()) {
+                        return null;
+                    }
+                    int rows = processor.apply(chunk);
+                    return new ChunkResult(idOf.apply(chunk.get(chunk.size() - 1)), chunk.size(), rows);
+                });
+                if (result == null) {
+                    break;
+                }
+                chunks++;
+                totalRows += result.rows;
+                jobLeaseManager.addAffectedRows(result.rows);
+                checkpoint = result.lastId;
+                logger.debug("任务 {} 第 {} 批处理完成: 读取 {} 条, 更新 {} 行, 检查点ID {}",
+                        jobName, chunks, result.size, result.rows, checkpoint);
+                if (result.size < chunkSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            long duration = System.currentTimeMillis() - start;
+            batchJobMetrics.recordFailure(jobName, totalRows, duration, e.getMessage());
+            logger.error("任务 {} 在检查点ID {} 之后失败, 已提交 {} 批 {} 行, 耗时 {}ms",
+                    jobName, checkpoint, chunks, totalRows, duration);
+            throw e;
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        batchJobMetrics.recordSuccess(jobName, totalRows, chunks, duration);
+        logger.info("任务 {} 执行完成: {} 批, 更新 {} 行, 耗时 {}ms", jobName, chunks, totalRows, duration);
+        return totalRows;
+    }
+
+    /**
+     * 单批处理结果
+     */
+    private static class ChunkResult {
+        private final long lastId;
+        private final int size;
+        private final int rows;
+
+        ChunkResult(long lastId, int size, int rows) {
+            this.lastId = lastId;
+            this.size = size;
+            this.rows = rows;
+        }
+    }
+}
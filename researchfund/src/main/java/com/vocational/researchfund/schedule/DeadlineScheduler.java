@@ -0,0 +1,262 @@
+package com.vocational.researchfund.schedule;
+
+import com.vocational.researchfund.dto.ProjectDTO;
+import com.vocational.researchfund.mapper.ProjectMapper;
+import com.vocational.researchfund.service.ExpenseService;
+import com.vocational.researchfund.service.ProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 项目结束日期到期调度器
+ * 启动时将未来一段时间内到期的项目结束日期加载到延迟队列，项目创建、修改、删除以及借款进入待提交报销凭证状态时同步更新，
+ * 到期时立即执行：项目转为待结题、该项目下待提交报销凭证的借款转为负责人自行还款。
+ * 数据库查询次数与到期事件数相关，与表大小和轮询频率无关；夜间定时任务保留为兜底。
+ * 多节点部署时加载在集群租约下只由一个节点执行；写入路径登记的事件可能同时存在于多个节点，
+ * 到期时各节点先获取该项目的租约（deadline:项目ID），只有获得租约的节点执行，其他节点跳过
+ */
+@Component
+public class DeadlineScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineScheduler.class);
+
+    /**
+     * 到期事件加载任务的租约名称
+     */
+    private static final String RELOAD_JOB = "reloadProjectDeadlines";
+
+    /**
+     * 项目到期事件租约名称前缀，后接项目ID
+     */
+    private static final String DEADLINE_JOB_PREFIX = "deadline:";
+
+    /**
+     * 预加载的时间范围（天），超出范围的由每日补充加载
+     */
+    @Value("${researchfund.schedule.deadline.horizon-days:35}")
+    private int horizonDays;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    @Lazy
+    private ProjectService projectService;
+
+    @Autowired
+    @Lazy
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+
+    private final DelayQueue<ProjectDeadline> queue = new DelayQueue<>();
+
+    /**
+     * 每个项目当前有效的到期事件，被替换或取消的事件出队时直接丢弃
+     */
+    private final Map<Long, ProjectDeadline> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile Thread worker;
+
+    /**
+     * 应用启动完成后加载到期事件并启动调度线程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        worker = new Thread(this::runLoop, "deadline-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("项目到期调度器已启动，已加载 {} 个到期事件", pending.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * 每天凌晨补充加载进入预加载范围的项目，租约被其他节点持有时跳过
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void reload() {
+        try {
+            jobLeaseManager.runExclusive(RELOAD_JOB, this::loadDeadlines);
+        } catch (Exception e) {
+            logger.error("加载项目到期事件失败，将由夜间定时任务兜底处理", e);
+        }
+    }
+
+    private void loadDeadlines() {
+        LocalDate today = LocalDate.now();
+        // 包含昨天结束的项目，它们在今天零点到期，启动时立即执行
+        List<ProjectDTO> projects = projectMapper.selectEndDatesBetween(today.minusDays(1), today.plusDays(horizonDays));
+        for (ProjectDTO project : projects) {
+            doSchedule(project.getId(), project.getEndDate());
+        }
+        logger.debug("项目到期事件加载完成: {} 个项目", projects.size());
+    }
+
+    /**
+     * 登记或更新项目的结束日期，事务中调用时在提交后生效
+     * @param projectId 项目ID
+     * @param endDate 结束日期，为空表示取消
+     */
+    public void schedule(Long projectId, LocalDate endDate) {
+        if (projectId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doSchedule(projectId, endDate);
+                }
+            });
+        } else {
+            doSchedule(projectId, endDate);
+        }
+    }
+
+    /**
+     * 取消项目的到期事件
+     * @param projectId 项目ID
+     */
+    public void cancel(Long projectId) {
+        schedule(projectId, null);
+    }
+
+    /**
+     * 获取调度统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("queueSize", queue.size());
+        stats.put("scheduled", scheduled.get());
+        stats.put("fired", fired.get());
+        stats.put("skipped", skipped.get());
+        stats.put("failures", failures.get());
+        stats.put("horizonDays", horizonDays);
+        ProjectDeadline next = queue.peek();
+        stats.put("nextDueAt", next == null ? null : next.dueAt);
+        return stats;
+    }
+
+    private void doSchedule(Long projectId, LocalDate endDate) {
+        if (endDate == null) {
+            pending.remove(projectId);
+            return;
+        }
+        // 超出预加载范围的项目由每日补充加载处理，避免队列无限增长
+        if (endDate.isAfter(LocalDate.now().plusDays(horizonDays))) {
+            pending.remove(projectId);
+            return;
+        }
+        // 项目在结束日期的次日零点到期（与end_date < CURRENT_DATE()的判断一致）
+        long dueAt = endDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        ProjectDeadline current = pending.get(projectId);
+        if (current != null && current.dueAt == dueAt) {
+            return;
+        }
+        ProjectDeadline deadline = new ProjectDeadline(projectId, dueAt);
+        pending.put(projectId, deadline);
+        queue.put(deadline);
+        scheduled.incrementAndGet();
+    }
+
+    private void runLoop() {
+        while (worker != null) {
+            ProjectDeadline deadline;
+            try {
+                deadline = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // 只处理项目当前有效的事件，并在处理前移除，处理期间重新登记的事件不受影响
+            if (!pending.remove(deadline.projectId, deadline)) {
+                continue;
+            }
+            fire(deadline.projectId);
+        }
+    }
+
+    /**
+     * 处理项目到期事件，该项目的租约被其他节点持有时跳过
+     * 租约释放后至少保持最短持有时间，各节点时钟偏差小于该时间时同一到期事件只执行一次
+     * @param projectId 项目ID
+     */
+    void fire(Long projectId) {
+        try {
+            boolean claimed = jobLeaseManager.runExclusive(DEADLINE_JOB_PREFIX + projectId, () -> {
+                boolean expired = projectService.expireProjectIfDue(projectId);
+                int repayments = expenseService.expireReceiptPendingByProject(projectId);
+                logger.info("项目 {} 已到结束日期: 转为待结题 {}, 转为自行还款的借款 {} 条", projectId, expired, repayments);
+            });
+            if (claimed) {
+                fired.incrementAndGet();
+            } else {
+                skipped.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.error("处理项目 {} 到期事件失败，将由夜间定时任务兜底处理", projectId, e);
+        }
+    }
+
+    /**
+     * 项目到期事件
+     */
+    private static class ProjectDeadline implements Delayed {
+        private final Long projectId;
+        private final long dueAt;
+
+        ProjectDeadline(Long projectId, long dueAt) {
+            this.projectId = projectId;
+            this.dueAt = dueAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((ProjectDeadline) other).dueAt);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.vocational.researchfund.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带运行统计的定时任务调度线程池
+ * 包装每个@Scheduled任务，记录计划触发时间到实际开始的延迟、运行耗时，
+ * 并按任务限制同时运行的实例数，上一次运行未结束时跳过本次触发并计数
+ */
+public class InstrumentedTaskScheduler extends ThreadPoolTaskScheduler {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedTaskScheduler.class);
+
+    /**
+     * 默认每个任务最多同时运行的实例数
+     */
+    private final int defaultConcurrency;
+
+    /**
+     * 按任务名称单独配置的并发数
+     */
+    private final Map<String, Integer> jobConcurrency;
+
+    private final Map<String, JobStats> jobs = new ConcurrentHashMap<>();
+
+    public InstrumentedTaskScheduler(int defaultConcurrency, Map<String, Integer> jobConcurrency) {
+        this.defaultConcurrency = Math.max(1, defaultConcurrency);
+        this.jobConcurrency = jobConcurrency;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        JobStats stats = statsOf(task);
+        // 记录触发器计算出的下次执行时间，作为本次运行的计划开始时间
+        Trigger recordingTrigger = triggerContext -> {
+            Date next = trigger.nextExecutionTime(triggerContext);
+            if (next != null) {
+                stats.expectedStart = next.getTime();
+            }
+            return next;
+        };
+        return super.schedule(new InstrumentedTask(task, stats, 0L), recordingTrigger);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+        JobStats stats = statsOf(task);
+        stats.expectedStart = startTime.getTime();
+        return super.schedule(new InstrumentedTask(task, stats, 0L), startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+        JobStats stats = statsOf(task);
+        stats.expectedStart = startTime.getTime();
+        return super.scheduleAtFixedRate(new InstrumentedTask(task, stats, period), startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        JobStats stats = statsOf(task);
+        stats.expectedStart = System.currentTimeMillis();
+        return super.scheduleAtFixedRate(new InstrumentedTask(task, stats, period), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+        JobStats stats = statsOf(task);
+        stats.expectedStart = startTime.getTime();
+        return super.scheduleWithFixedDelay(new InstrumentedTask(task, stats, -delay), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+        JobStats stats = statsOf(task);
+        stats.expectedStart = System.currentTimeMillis();
+        return super.scheduleWithFixedDelay(new InstrumentedTask(task, stats, -delay), delay);
+    }
+
+    /**
+     * 获取调度线程池和各任务的运行统计
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", getPoolSize());
+        stats.put("activeCount", getActiveCount());
+        stats.put("queueSize", getScheduledThreadPoolExecutor().getQueue().size());
+        Map<String, Object> jobStats = new TreeMap<>();
+        for (Map.Entry<String, JobStats> entry : jobs.entrySet()) {
+            jobStats.put(entry.getKey(), entry.getValue().toMap());
+        }
+        stats.put("jobs", jobStats);
+        return stats;
+    }
+
+    private JobStats statsOf(Runnable task) {
+        String jobName = jobNameOf(task);
+        int concurrency = jobConcurrency.getOrDefault(jobName, defaultConcurrency);
+        return jobs.computeIfAbsent(jobName, k -> new JobStats(jobName, Math.max(1, concurrency)));
+    }
+
+    /**
+     * 任务名称：@Scheduled方法为"类名.方法名"，其他任务为类名
+     */
+    private String jobNameOf(Runnable task) {
+        if (task instanceof ScheduledMethodRunnable) {
+            Method method = ((ScheduledMethodRunnable) task).getMethod();
+            return ClassUtils.getUserClass(method.getDeclaringClass()).getSimpleName() + "." + method.getName();
+        }
+        return ClassUtils.getUserClass(task.getClass()).getName();
+    }
+
+    /**
+     * 包装后的任务
+     */
+    private static class InstrumentedTask implements Runnable {
+        private final Runnable delegate;
+        private final JobStats stats;
+
+        /**
+         * 正数为固定频率周期，负数为固定延迟，0为由触发器计算下次时间
+         */
+        private final long interval;
+
+        InstrumentedTask(Runnable delegate, JobStats stats, long interval) {
+            this.delegate = delegate;
+            this.stats = stats;
+            this.interval = interval;
+        }
+
+        @Override
+        public void run() {
+            long start = System.currentTimeMillis();
+            long expected = stats.expectedStart;
+            if (interval > 0) {
+                stats.expectedStart = expected + interval;
+            }
+            stats.recordLag(Math.max(0L, start - expected));
+
+            if (!stats.permits.tryAcquire()) {
+                stats.overlapSkips.incrementAndGet();
+                logger.warn("定时任务 {} 已有 {} 个实例在运行，跳过本次触发", stats.jobName, stats.concurrency);
+                return;
+            }
+            try {
+                delegate.run();
+            } catch (RuntimeException | Error e) {
+                stats.failures.incrementAndGet();
+                throw e;
+            } finally {
+                stats.permits.release();
+                long end = System.currentTimeMillis();
+                stats.recordDuration(end - start);
+                if (interval < 0) {
+                    stats.expectedStart = end - interval;
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个任务的统计
+     */
+    private static class JobStats {
+        private final String jobName;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong overlapSkips = new AtomicLong();
+        private final AtomicLong totalLagMillis = new AtomicLong();
+        private final AtomicLong maxLagMillis = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile long expectedStart;
+        private volatile long lastLagMillis;
+        private volatile long lastMillis;
+        private volatile long lastStartAt;
+
+        JobStats(String jobName, int concurrency) {
+            this.jobName = jobName;
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency);
+        }
+
+        void recordLag(long lagMillis) {
+            lastStartAt = System.currentTimeMillis();
+            lastLagMillis = lagMillis;
+            totalLagMillis.addAndGet(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        }
+
+        void recordDuration(long millis) {
+            runs.incrementAndGet();
+            lastMillis = millis;
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long runCount = runs.get();
+            long triggers = runCount + overlapSkips.get();
+            Map<String, Object> map = new HashMap<>();
+            map.put("concurrency", concurrency);
+            map.put("running", concurrency - permits.availablePermits());
+            map.put("runs", runCount);
+            map.put("failures", failures.get());
+            map.put("overlapSkips", overlapSkips.get());
+            map.put("lastLagMillis", lastLagMillis);
+            map.put("avgLagMillis", triggers == 0 ? 0 : totalLagMillis.get() / triggers);
+            map.put("maxLagMillis", maxLagMillis.get());
+            map.put("lastMillis", lastMillis);
+            map.put("avgMillis", runCount == 0 ? 0 : totalMillis.get() / runCount);
+            map.put("maxMillis", maxMillis.get());
+            map.put("lastStartAt", lastStartAt);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.vocational.researchfund.schedule;
+
+import com.vocational.researchfund.entity.ScheduleJobLease;
+import com.vocational.researchfund.entity.ScheduleJobRun;
+import com.vocational.researchfund.exception.JobLeaseLostException;
+import com.vocational.researchfund.mapper.ScheduleJobLeaseMapper;
+import com.vocational.researchfund.mapper.ScheduleJobRunMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 定时任务集群租约
+ * 多节点部署时各节点的定时任务同时触发，通过数据库租约表保证每个任务每个周期只在一个节点执行：
+ * 租约到期后第一个更新成功的节点获得租约，同时递增防护令牌；分批任务每批提交前在同一事务中校验令牌并续约，
+ * 租约被其他节点接管后旧节点的写入会回滚，不会与新节点交错；每次运行记录到运行历史表
+ */
+@Component
+public class JobLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseManager.class);
+
+    private static final String STATUS_SUCCESS = "success";
+    private static final String STATUS_FAILED = "failed";
+    private static final String STATUS_LEASE_LOST = "lease_lost";
+
+    /**
+     * 错误信息最大长度
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * 节点标识，为空时使用"进程号@主机名"加随机后缀
+     */
+    @Value("${researchfund.schedule.lease.node-id:}")
+    private String nodeId;
+
+    /**
+     * 租约时长（秒），分批任务每批续约，超过该时间无续约视为节点失效
+     */
+    @Value("${researchfund.schedule.lease.ttl-seconds:300}")
+    private int ttlSeconds;
+
+    /**
+     * 租约最短持有时间（秒），应大于各节点时钟偏差、小于任务最短周期
+     */
+    @Value("${researchfund.schedule.lease.min-hold-seconds:30}")
+    private int minHoldSeconds;
+
+    @Autowired
+    private ScheduleJobLeaseMapper leaseMapper;
+
+    @Autowired
+    private ScheduleJobRunMapper runMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 当前线程正在运行的任务租约
+     */
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+
+    /**
+     * 本节点已创建过租约记录的任务
+     */
+    private final Set<String> knownJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.trim().isEmpty()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        logger.info("定时任务租约节点标识: {}", nodeId);
+    }
+
+    /**
+     * 获取租约后执行任务，租约被其他节点持有时跳过
+     * @param jobName 任务名称
+     * @param task 任务
+     * @return 是否在本节点执行
+     */
+    public boolean runExclusive(String jobName, Runnable task) {
+        Lease lease = acquire(jobName);
+        if (lease == null) {
+            logger.debug("定时任务 {} 的租约由其他节点持有，本节点跳过", jobName);
+            return false;
+        }
+
+        ScheduleJobRun run = new ScheduleJobRun();
+        run.setJobName(jobName);
+        run.setOwner(nodeId);
+        run.setFencingToken(lease.fencingToken);
+        runMapper.insert(run);
+
+        currentLease.set(lease);
+        String status = STATUS_SUCCESS;
+        String error = null;
+        try {
+            task.run();
+            return true;
+        } catch (JobLeaseLostException e) {
+            status = STATUS_LEASE_LOST;
+            error = e.getMessage();
+            throw e;
+        } catch (RuntimeException e) {
+            status = STATUS_FAILED;
+            error = e.getMessage();
+            throw e;
+        } finally {
+            currentLease.remove();
+            finish(run.getId(), status, lease.affectedRows, error);
+            if (!STATUS_LEASE_LOST.equals(status)) {
+                leaseMapper.release(jobName, nodeId, lease.fencingToken, minHoldSeconds);
+            }
+        }
+    }
+
+    /**
+     * 校验当前线程的租约仍然有效并续约，需在写入数据的事务中调用；当前线程没有租约时不做处理
+     * 续约语句锁定租约行，其他节点在本事务提交前无法接管租约
+     * @throws JobLeaseLostException 租约已被其他节点获取
+     */
+    public void checkFence() {
+        Lease lease = currentLease.get();
+        if (lease == null) {
+            return;
+        }
+        if (leaseMapper.renew(lease.jobName, nodeId, lease.fencingToken, ttlSeconds) == 0) {
+            throw new JobLeaseLostException(lease.jobName, lease.fencingToken);
+        }
+    }
+
+    /**
+     * 累计当前线程任务更新的行数，记录到运行历史
+     * @param rows 行数
+     */
+    public void addAffectedRows(long rows) {
+        Lease lease = currentLease.get();
+        if (lease != null) {
+            lease.affectedRows += rows;
+        }
+    }
+
+    /**
+     * 获取全部任务的租约
+     * @return 租约列表
+     */
+    public List<ScheduleJobLease> getLeases() {
+        return leaseMapper.selectAll();
+    }
+
+    /**
+     * 获取最近的运行记录
+     * @param jobName 任务名称（为空表示全部任务）
+     * @param limit 条数
+     * @return 运行记录列表
+     */
+    public List<ScheduleJobRun> getRecentRuns(String jobName, int limit) {
+        return runMapper.selectRecent(jobName, limit);
+    }
+
+    /**
+     * 清理过期的运行记录
+     * @param retentionDays 保留天数
+     * @return 删除的行数
+     */
+    public int purgeRuns(int retentionDays) {
+        return runMapper.deleteOlderThan(retentionDays);
+    }
+
+    /**
+     * 获取本节点标识
+     * @return 节点标识
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Lease acquire(String jobName) {
+        if (!knownJobs.contains(jobName)) {
+            leaseMapper.insertIfAbsent(jobName);
+            knownJobs.add(jobName);
+        }
+        // 获取和读取令牌在同一事务中，获取成功后行锁保证读到的是本节点的令牌
+        return transactionTemplate.execute(status -> {
+            if (leaseMapper.tryAcquire(jobName, nodeId, ttlSeconds) == 0) {
+                return null;
+            }
+            ScheduleJobLease row = leaseMapper.selectByJobName(jobName);
+            return new Lease(jobName, row.getFencingToken());
+        });
+    }
+
+    private void finish(Long runId, String status, long affectedRows, String error) {
+        if (error != null && error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        try {
+            runMapper.finish(runId, status, affectedRows, error);
+        } catch (RuntimeException e) {
+            logger.warn("记录定时任务运行结果失败: runId={}", runId, e);
+        }
+    }
+
+    /**
+     * 任务租约
+     */
+    private static class Lease {
+        private final String jobName;
+        private final Long fencingToken;
+        private long affectedRows;
+
+        Lease(String jobName, Long fencingToken) {
+            this.jobName = jobName;
+            this.fencingToken = fencingToken;
+        }
+    }
+}
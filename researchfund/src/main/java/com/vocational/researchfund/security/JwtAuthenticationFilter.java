@@ -12,8 +12,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.UrlPathHelper;
 
@@ -36,7 +34,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
     
     // 定义不需要验证的URL模式
-    private static final List<String> EXCLUDE_URL_PATTERNS = Arrays.asList(
+    static final List<String> EXCLUDE_URL_PATTERNS = Arrays.asList(
             "/api/user/login",
             "/api/user/register",
             "/api/public/**",
@@ -56,13 +54,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             "/favicon.ico"
     );
     
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    /**
+     * 启动时编译的白名单匹配器
+     */
+    private static final PathWhitelist WHITELIST = new PathWhitelist(EXCLUDE_URL_PATTERNS);
+    
+    private static final String LOGIN_URL = "/api/user/login";
+    
+    private static final String REGISTER_URL = "/api/user/register";
+    
+    private static final String BEARER_PREFIX = "Bearer ";
     
     @Autowired
     private UserDetailsService userDetailsService;
     
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
+    
+    @Autowired
+    private PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -70,7 +80,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         // 获取请求信息
         String contextPath = request.getContextPath();
-        String fullRequestURI = request.getRequestURI();
         String requestURI = URL_PATH_HELPER.getPathWithinApplication(request);
         String method = request.getMethod();
         
@@ -79,58 +88,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             requestURI = requestURI.substring(contextPath.length());
         }
         
-        logger.debug("处理请求: {} {} [完整路径: {}, 上下文路径: {}]", 
-                method, requestURI, fullRequestURI, contextPath);
-        
-        // 判断是否需要跳过验证
-        boolean skipAuth = false;
-        
-        // 1. 检查是否是OPTIONS请求
-        if (HttpMethod.OPTIONS.matches(method)) {
-            logger.debug("跳过OPTIONS预检请求: {}", requestURI);
-            skipAuth = true;
+        boolean debugEnabled = logger.isDebugEnabled();
+        if (debugEnabled) {
+            logger.debug("处理请求: {} {} [完整路径: {}, 上下文路径: {}]", 
+                    method, requestURI, request.getRequestURI(), contextPath);
         }
         
-        // 2. 检查是否是登录/注册请求
-        else if (HttpMethod.POST.matches(method) && 
-                (requestURI.equals("/api/user/login") || requestURI.equals("/api/user/register"))) {
-            logger.debug("跳过登录/注册请求: {}", requestURI);
-            skipAuth = true;
-        }
-        
-        // 3. 检查是否是其他免认证的URL
-        else {
-            for (String pattern : EXCLUDE_URL_PATTERNS) {
-                if (pathMatcher.match(pattern, requestURI)) {
-                    logger.debug("匹配到白名单路径: {} -> {}", pattern, requestURI);
-                    skipAuth = true;
-                    break;
-                }
-            }
-        }
+        // 判断是否需要跳过验证：OPTIONS预检请求、登录/注册请求、其他免认证的URL
+        boolean skipAuth = HttpMethod.OPTIONS.matches(method)
+                || (HttpMethod.POST.matches(method) && (LOGIN_URL.equals(requestURI) || REGISTER_URL.equals(requestURI)))
+                || WHITELIST.matches(requestURI);
         
         // 如果需要跳过验证，直接放行
         if (skipAuth) {
-            logger.debug("跳过JWT认证: {}", requestURI);
+            if (debugEnabled) {
+                logger.debug("跳过JWT认证: {} {}", method, requestURI);
+            }
             filterChain.doFilter(request, response);
             return;
         }
-        
-        // 记录调试信息
-        if (requestURI.contains("login") || requestURI.contains("register")) {
-            logger.warn("登录/注册路径未被排除，请检查配置: {}", requestURI);
-            logger.warn("当前白名单路径:");
-            for (String pattern : EXCLUDE_URL_PATTERNS) {
-                logger.warn("  - {}", pattern);
-            }
-        }
 
         try {
             // 从请求头中获取Authorization字段
             String authHeader = request.getHeader("Authorization");
             
             // 检查token是否存在且格式正确
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
                 logger.warn("缺少或格式不正确的Authorization头: [{}], 请求路径: {}", 
                         authHeader != null ? authHeader : "null", requestURI);
                 response.setContentType("application/json;charset=UTF-8");
@@ -140,15 +123,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             // 提取token
-            String token = authHeader.substring(7);
-            logger.debug("提取的Token: {}...", token.length() > 20 ? token.substring(0, 20) : token);
+            String token = authHeader.substring(BEARER_PREFIX.length());
 
             // 验证token并获取用户名
             String username = jwtTokenUtil.validateToken(token);
             if (username != null) {
-                // 从数据库中获取用户对象
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                logger.debug("从Token加载用户: {}", username);
+                // 优先从缓存获取用户对象，未命中时查询数据库
+                UserDetails userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
 
                 // 创建认证对象
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -157,7 +138,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // 将认证信息放入Security上下文
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("用户 {} 认证成功", username);
+                if (debugEnabled) {
+                    logger.debug("用户 {} 认证成功", username);
+                }
 
                 // 继续过滤器链
                 filterChain.doFilter(request, response);
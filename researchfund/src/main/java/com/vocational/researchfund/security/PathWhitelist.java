@@ -0,0 +1,146 @@
+package com.vocational.researchfund.security;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 免认证路径匹配器
+ * 启动时将白名单编译为前缀树，精确路径和"前缀/**"形式的模式按字符逐个匹配，匹配过程不创建对象；
+ * 其他Ant风格模式回退到AntPathMatcher，并按路径缓存匹配结果
+ */
+public class PathWhitelist {
+
+    /**
+     * 前缀树只处理ASCII字符，白名单路径均为ASCII
+     */
+    private static final int ASCII_SIZE = 128;
+
+    /**
+     * 回退匹配结果缓存的最大条数
+     */
+    private static final int MAX_CACHED_PATHS = 4096;
+
+    private static final String PREFIX_WILDCARD = "/**";
+
+    private final Node root = new Node();
+
+    private final List<String> fallbackPatterns = new ArrayList<>();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Map<String, Boolean> fallbackCache = new ConcurrentHashMap<>();
+
+    public PathWhitelist(List<String> patterns) {
+        for (String pattern : patterns) {
+            compile(pattern);
+        }
+    }
+
+    /**
+     * 判断路径是否在白名单中
+     * @param path 请求路径（不含上下文路径）
+     * @return 是否免认证
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (matchTrie(path)) {
+            return true;
+        }
+        if (fallbackPatterns.isEmpty()) {
+            return false;
+        }
+
+        Boolean cached = fallbackCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        boolean matched = false;
+        for (String pattern : fallbackPatterns) {
+            if (pathMatcher.match(pattern, path)) {
+                matched = true;
+                break;
+            }
+        }
+        if (fallbackCache.size() < MAX_CACHED_PATHS) {
+            fallbackCache.put(path, matched);
+        }
+        return matched;
+    }
+
+    private boolean matchTrie(String path) {
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            char c = path.charAt(i);
+            // "前缀/**" 匹配前缀本身及其所有子路径
+            if (node.prefixWildcard && c == '/') {
+                return true;
+            }
+            if (c >= ASCII_SIZE || node.children == null) {
+                return false;
+            }
+            node = node.children[c];
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.exact || node.prefixWildcard;
+    }
+
+    private void compile(String pattern) {
+        String literal = pattern;
+        boolean prefixWildcard = false;
+        if (pattern.endsWith(PREFIX_WILDCARD)) {
+            literal = pattern.substring(0, pattern.length() - PREFIX_WILDCARD.length());
+            prefixWildcard = true;
+        }
+
+        // 含有其他通配符或非ASCII字符的模式无法用前缀树表示
+        if (!isTrieLiteral(literal)) {
+            fallbackPatterns.add(pattern);
+            return;
+        }
+
+        Node node = root;
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (node.children == null) {
+                node.children = new Node[ASCII_SIZE];
+            }
+            if (node.children[c] == null) {
+                node.children[c] = new Node();
+            }
+            node = node.children[c];
+        }
+        if (prefixWildcard) {
+            node.prefixWildcard = true;
+        } else {
+            node.exact = true;
+        }
+    }
+
+    private boolean isTrieLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c >= ASCII_SIZE || c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static class Node {
+        private Node[] children;
+        private boolean exact;
+        private boolean prefixWildcard;
+    }
+}
@@ -0,0 +1,120 @@
+package com.vocational.researchfund.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 认证用户缓存
+ * 按用户名缓存JwtAuthenticationFilter加载的用户信息，避免每个请求都查询数据库；
+ * 用户信息、角色、密码变更或用户删除时需调用evictUser/clear失效
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    /**
+     * 缓存有效期（秒）
+     */
+    @Value("${researchfund.cache.principal.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    /**
+     * 最大缓存用户数
+     */
+    @Value("${researchfund.cache.principal.max-size:5000}")
+    private int maxSize;
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取认证用户，未命中或过期时通过loader加载
+     * @param username 用户名
+     * @param loader 加载函数
+     * @return 认证用户
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = entries.get(username);
+        if (entry != null && entry.expireAt > now) {
+            return entry.userDetails;
+        }
+
+        UserDetails userDetails = loader.apply(username);
+        if (userDetails != null) {
+            if (entries.size() >= maxSize) {
+                purgeExpired(now);
+            }
+            if (entries.size() < maxSize) {
+                entries.put(username, new CacheEntry(userDetails, now + ttlSeconds * 1000));
+            }
+        }
+        return userDetails;
+    }
+
+    /**
+     * 失效指定用户的缓存，事务中调用时事务结束后会再次失效
+     * @param userId 用户ID
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        doEvictUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvictUser(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 清空所有缓存（角色变更等影响多个用户的操作）
+     */
+    public void clear() {
+        entries.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.clear();
+                }
+            });
+        }
+        logger.debug("认证用户缓存已清空");
+    }
+
+    private void doEvictUser(Long userId) {
+        entries.values().removeIf(entry -> entry.userDetails instanceof SecurityUser
+                && userId.equals(((SecurityUser) entry.userDetails).getId()));
+    }
+
+    private void purgeExpired(long now) {
+        entries.values().removeIf(entry -> entry.expireAt <= now);
+    }
+
+    /**
+     * 缓存项
+     */
+    private static class CacheEntry {
+        private final UserDetails userDetails;
+        private final long expireAt;
+
+        CacheEntry(UserDetails userDetails, long expireAt) {
+            this.userDetails = userDetails;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.vocational.researchfund.service;
+
+import com.vocational.researchfund.dto.ExpenseDTO;
+import com.vocational.researchfund.entity.ProjectBudgetLedger;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 项目预算科目台账服务接口
+ */
+public interface BudgetLedgerService {
+
+    /**
+     * 记录经费申请状态变化对台账的影响
+     * 新建时fromStatus为null，删除时toStatus为null
+     * @param projectId 项目ID
+     * @param expenseType 经费类型
+     * @param amount 申请金额
+     * @param fromStatus 原状态
+     * @param toStatus 新状态
+     */
+    void recordTransition(Long projectId, String expenseType, BigDecimal amount, String fromStatus, String toStatus);
+
+    /**
+     * 批量记录经费申请状态变化，按项目和经费类型合并后更新台账
+     * @param expenses 状态变化前的经费申请
+     * @param toStatus 新状态
+     */
+    void recordTransitions(List<ExpenseDTO> expenses, String toStatus);
+
+    /**
+     * 获取项目指定经费类型的已支付金额
+     * @param projectId 项目ID
+     * @param expenseType 经费类型
+     * @return 已支付金额，无记录时为0
+     */
+    BigDecimal getPaidAmount(Long projectId, String expenseType);
+
+    /**
+     * 获取项目的全部台账
+     * @param projectId 项目ID
+     * @return 台账列表
+     */
+    List<ProjectBudgetLedger> getProjectLedger(Long projectId);
+}
@@ -0,0 +1,58 @@
+package com.vocational.researchfund.service;
+
+import com.vocational.researchfund.dto.ChunkedUploadInitDTO;
+import com.vocational.researchfund.dto.ChunkedUploadStatusDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 分片上传服务接口
+ * 大文件按固定大小分片上传，中断后查询已接收的分片继续上传，全部分片到齐后合并保存
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * 创建上传会话
+     * @param request 文件信息
+     * @return 上传状态（含上传ID、分片大小和分片总数）
+     */
+    ChunkedUploadStatusDTO init(ChunkedUploadInitDTO request);
+
+    /**
+     * 查询上传状态，用于断点续传
+     * @param uploadId 上传ID
+     * @return 上传状态
+     */
+    ChunkedUploadStatusDTO getStatus(String uploadId);
+
+    /**
+     * 接收一个分片，重复上传同一分片时覆盖
+     * @param uploadId 上传ID
+     * @param index 分片序号（从0开始）
+     * @param in 分片内容（由调用方关闭）
+     * @param chunkMd5 分片MD5（可选），不一致时拒绝该分片
+     * @throws IOException 写入失败
+     */
+    void uploadChunk(String uploadId, int index, InputStream in, String chunkMd5) throws IOException;
+
+    /**
+     * 合并分片并保存文件，已完成的会话直接返回结果
+     * @param uploadId 上传ID
+     * @return 上传状态（含文件路径）
+     * @throws IOException 合并失败
+     */
+    ChunkedUploadStatusDTO complete(String uploadId) throws IOException;
+
+    /**
+     * 取消上传并删除已接收的分片
+     * @param uploadId 上传ID
+     */
+    void abort(String uploadId);
+
+    /**
+     * 清理过期的上传会话和分片
+     * @return 清理的会话数
+     */
+    int purgeExpired();
+}
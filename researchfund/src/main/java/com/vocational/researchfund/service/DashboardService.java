@@ -2,6 +2,7 @@ package com.vocational.researchfund.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 仪表盘服务接口
@@ -42,4 +43,19 @@ public interface DashboardService {
      * @return 研究成果统计
      */
     List<Map<String, Object>> getResearchResults(Boolean isAdmin);
-} 
\ No newline at end of file
+
+    /**
+     * 一次获取仪表盘多个数据块，各数据块并行构建
+     * @param isAdmin 是否为管理员
+     * @param sections 需要的数据块（tasks、projects、stats、projectTypes、researchResults），为空表示全部
+     * @return 数据块名称到数据的映射，构建超时或失败的数据块列在failedSections中，
+     *         待办事项中超时或失败的数据源分别列在timedOutTaskSources和failedTaskSources中
+     */
+    Map<String, Object> getDashboardBundle(Boolean isAdmin, Set<String> sections);
+
+    /**
+     * 获取待办事项并行查询线程池及各数据源的统计信息
+     * @return 统计信息
+     */
+    Map<String, Object> getTaskExecutorStats();
+}
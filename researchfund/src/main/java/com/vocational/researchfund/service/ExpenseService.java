@@ -1,8 +1,12 @@
 package com.vocational.researchfund.service;
 
+import com.vocational.researchfund.dto.AttachmentDTO;
+import com.vocational.researchfund.dto.BatchResultDTO;
 import com.vocational.researchfund.dto.ExpenseDTO;
 import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.export.TabularWriter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -60,6 +64,34 @@ public interface ExpenseService {
      */
     PageDTO<ExpenseDTO> getAllExpenses(Map<String, Object> params, int pageNum, int pageSize);
     
+    /**
+     * 游标分页获取经费申请列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<ExpenseDTO> getAllExpensesByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 游标分页获取当前用户的经费申请列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<ExpenseDTO> getCurrentUserExpensesByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 导出经费申请，筛选条件与列表查询一致，逐行写出不在内存中保留数据
+     * @param params 查询参数
+     * @param currentUserOnly 是否只导出当前用户的申请
+     * @param writer 写入器
+     * @return 导出行数
+     * @throws IOException 写出失败
+     */
+    long exportExpenses(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException;
+    
     /**
      * 删除经费申请
      * @param id 经费申请ID
@@ -72,6 +104,43 @@ public interface ExpenseService {
      * @return 支付后的经费申请
      */
     ExpenseDTO payExpense(Long id);
+    
+    /**
+     * 负责人自行还款，释放已占用的项目经费
+     * @param id 经费申请ID
+     */
+    void repayExpense(Long id);
+    
+    /**
+     * 提交报销凭证
+     * @param id 经费申请ID
+     * @param attachments 报销凭证附件
+     */
+    void submitReceipt(Long id, List<AttachmentDTO> attachments);
+    
+    /**
+     * 审核报销凭证
+     * @param id 经费申请ID
+     * @param status 审核结果（approved-通过,rejected-拒绝）
+     * @param comment 审核意见
+     */
+    void auditReceipt(Long id, String status, String comment);
+    
+    /**
+     * 批量审核经费申请
+     * @param ids 经费申请ID列表
+     * @param status 审核状态
+     * @param comment 审核意见
+     * @return 每条经费申请的处理结果
+     */
+    BatchResultDTO batchAuditExpenses(List<Long> ids, String status, String comment);
+    
+    /**
+     * 批量支付经费申请
+     * @param ids 经费申请ID列表
+     * @return 每条经费申请的处理结果
+     */
+    BatchResultDTO batchPayExpenses(List<Long> ids);
 
     /**
      * 更新借款类型经费申请的状态为待提交报销凭证
@@ -99,6 +168,13 @@ public interface ExpenseService {
      */
     void checkReceiptPendingExpenses();
 
+    /**
+     * 项目到达结束日期时调用，将该项目下待提交报销凭证的借款转为负责人自行还款
+     * @param projectId 项目ID
+     * @return 更新的经费申请数
+     */
+    int expireReceiptPendingByProject(Long projectId);
+
     /**
      * 获取项目的经费支出列表
      * @param projectId 项目ID
@@ -2,7 +2,9 @@ package com.vocational.researchfund.service;
 
 import com.vocational.researchfund.dto.FundTransferDTO;
 import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.export.TabularWriter;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -59,6 +61,34 @@ public interface FundTransferService {
      */
     PageDTO<FundTransferDTO> getAllTransfers(Map<String, Object> params, int pageNum, int pageSize);
     
+    /**
+     * 游标分页获取经费结转列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<FundTransferDTO> getAllTransfersByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 游标分页获取当前用户的经费结转列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<FundTransferDTO> getCurrentUserTransfersByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 导出经费结转，筛选条件与列表查询一致，逐行写出不在内存中保留数据
+     * @param params 查询参数
+     * @param currentUserOnly 是否只导出当前用户的结转申请
+     * @param writer 写入器
+     * @return 导出行数
+     * @throws IOException 写出失败
+     */
+    long exportTransfers(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException;
+    
     /**
      * 删除经费结转
      * @param id 经费结转ID
@@ -2,7 +2,9 @@ package com.vocational.researchfund.service;
 
 import com.vocational.researchfund.dto.ProjectDTO;
 import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.export.TabularWriter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +68,34 @@ public interface ProjectService {
      */
     PageDTO<ProjectDTO> getCurrentUserProjects(Map<String, Object> params, int pageNum, int pageSize);
     
+    /**
+     * 游标分页获取项目列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<ProjectDTO> getProjectListByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 游标分页获取当前用户的项目列表
+     * @param params 查询参数
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    PageDTO<ProjectDTO> getCurrentUserProjectsByCursor(Map<String, Object> params, String cursor, int limit);
+    
+    /**
+     * 导出项目，筛选条件与列表查询一致，逐行写出不在内存中保留数据
+     * @param params 查询参数
+     * @param currentUserOnly 是否只导出当前用户的负责项目
+     * @param writer 写入器
+     * @return 导出行数
+     * @throws IOException 写出失败
+     */
+    long exportProjects(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException;
+    
     /**
      * 确认立项 - 将项目状态更新为待审核
      * @param id 项目ID
@@ -89,6 +119,13 @@ public interface ProjectService {
      */
     void checkAndUpdateExpiredProjects();
     
+    /**
+     * 单个项目到达结束日期时调用，已过结束日期且状态为active时更新为待结题状态
+     * @param id 项目ID
+     * @return 是否更新
+     */
+    boolean expireProjectIfDue(Long id);
+    
     /**
      * 提交项目结题报告
      * @param id 项目ID
@@ -114,6 +151,15 @@ public interface ProjectService {
      */
     ProjectDTO updateUsedBudget(Long id, BigDecimal amount);
     
+    /**
+     * 原子预留项目经费，剩余经费不足时不做任何修改
+     * @param id 项目ID
+     * @param amount 预留金额
+     * @return 更新后的项目
+     * @throws com.vocational.researchfund.exception.BudgetReservationException 剩余经费不足或并发冲突时抛出
+     */
+    ProjectDTO reserveBudget(Long id, BigDecimal amount);
+    
     /**
      * 根据状态获取项目列表
      * @param status 项目状态
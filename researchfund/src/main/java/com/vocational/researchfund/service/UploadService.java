@@ -2,6 +2,8 @@ package com.vocational.researchfund.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 /**
  * 文件上传服务接口
  */
@@ -14,4 +16,25 @@ public interface UploadService {
      * @throws Exception 上传异常
      */
     String saveProjectFile(MultipartFile file) throws Exception;
+    
+    /**
+     * 将上传文件的哈希索引与上传目录校对，只对新增或变化的文件重新计算MD5
+     * @return 重新计算MD5和删除的索引数，已有校对在运行时返回-1
+     */
+    int reconcileFileIndex();
+    
+    /**
+     * 保存附件（经费附件、到账凭证等），相同内容只保存一份
+     * @param file 上传的文件
+     * @return 附件URL
+     * @throws IOException 保存失败
+     */
+    String saveAttachment(MultipartFile file) throws IOException;
+    
+    /**
+     * 获取已保存文件的内容MD5，用于生成下载的ETag
+     * @param filePath 下载路径（以/uploads/project-files/开头）
+     * @return 内容MD5，未知时返回null
+     */
+    String getContentHash(String filePath);
 } 
\ No newline at end of file
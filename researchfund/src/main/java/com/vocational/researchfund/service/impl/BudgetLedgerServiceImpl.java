@@ -0,0 +1,117 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.dto.ExpenseDTO;
+import com.vocational.researchfund.entity.ProjectBudgetLedger;
+import com.vocational.researchfund.mapper.ProjectBudgetLedgerMapper;
+import com.vocational.researchfund.service.BudgetLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 项目预算科目台账服务实现类
+ * 台账金额与原按状态汇总经费申请的统计口径一致：
+ * 待审核、已批准计入已申请未支付金额；已支付及其后续状态计入已支付金额；已拒绝不计入
+ */
+@Service
+public class BudgetLedgerServiceImpl implements BudgetLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetLedgerServiceImpl.class);
+
+    /**
+     * 计入已申请未支付金额的状态
+     */
+    private static final Set<String> COMMITTED_STATUSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "pending", "approved")));
+
+    /**
+     * 计入已支付金额的状态
+     */
+    private static final Set<String> PAID_STATUSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "paid", "receipt_pending", "receipt_audit", "completed", "repayment_pending", "repaid")));
+
+    @Autowired
+    private ProjectBudgetLedgerMapper projectBudgetLedgerMapper;
+
+    @Override
+    public void recordTransition(Long projectId, String expenseType, BigDecimal amount, String fromStatus, String toStatus) {
+        if (projectId == null || expenseType == null || amount == null) {
+            return;
+        }
+
+        BigDecimal[] delta = new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO};
+        accumulate(delta, amount, fromStatus, toStatus);
+        applyDelta(projectId, expenseType, delta);
+        logger.debug("预算台账更新: projectId={}, type={}, {} -> {}", projectId, expenseType, fromStatus, toStatus);
+    }
+
+    @Override
+    public void recordTransitions(List<ExpenseDTO> expenses, String toStatus) {
+        // 按项目和经费类型合并变化量，每个台账行只更新一次
+        Map<String, BigDecimal[]> deltas = new LinkedHashMap<>();
+        Map<String, ExpenseDTO> keys = new HashMap<>();
+        for (ExpenseDTO expense : expenses) {
+            if (expense.getProjectId() == null || expense.getType() == null || expense.getAmount() == null) {
+                continue;
+            }
+            String key = expense.getProjectId() + ":" + expense.getType();
+            BigDecimal[] delta = deltas.computeIfAbsent(key, k -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+            keys.putIfAbsent(key, expense);
+            accumulate(delta, expense.getAmount(), expense.getStatus(), toStatus);
+        }
+        for (Map.Entry<String, BigDecimal[]> entry : deltas.entrySet()) {
+            ExpenseDTO expense = keys.get(entry.getKey());
+            applyDelta(expense.getProjectId(), expense.getType(), entry.getValue());
+        }
+        logger.debug("预算台账批量更新: {} 条经费申请, {} 个台账", expenses.size(), deltas.size());
+    }
+
+    /**
+     * 计算状态变化对台账的影响，delta[0]为已申请未支付金额变化量，delta[1]为已支付金额变化量
+     */
+    private void accumulate(BigDecimal[] delta, BigDecimal amount, String fromStatus, String toStatus) {
+        if (COMMITTED_STATUSES.contains(fromStatus)) {
+            delta[0] = delta[0].subtract(amount);
+        } else if (PAID_STATUSES.contains(fromStatus)) {
+            delta[1] = delta[1].subtract(amount);
+        }
+        if (COMMITTED_STATUSES.contains(toStatus)) {
+            delta[0] = delta[0].add(amount);
+        } else if (PAID_STATUSES.contains(toStatus)) {
+            delta[1] = delta[1].add(amount);
+        }
+    }
+
+    private void applyDelta(Long projectId, String expenseType, BigDecimal[] delta) {
+        // 同一分类内的状态变化不影响台账
+        if (delta[0].signum() == 0 && delta[1].signum() == 0) {
+            return;
+        }
+        projectBudgetLedgerMapper.applyDelta(projectId, expenseType, delta[0], delta[1]);
+    }
+
+    @Override
+    public BigDecimal getPaidAmount(Long projectId, String expenseType) {
+        ProjectBudgetLedger ledger = projectBudgetLedgerMapper.selectByProjectAndType(projectId, expenseType);
+        if (ledger == null || ledger.getPaidAmount() == null) {
+            return BigDecimal.ZERO;
+        }
+        return ledger.getPaidAmount();
+    }
+
+    @Override
+    public List<ProjectBudgetLedger> getProjectLedger(Long projectId) {
+        return projectBudgetLedgerMapper.selectByProjectId(projectId);
+    }
+}
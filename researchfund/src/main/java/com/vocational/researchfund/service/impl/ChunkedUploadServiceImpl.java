@@ -0,0 +1,341 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.dto.ChunkedUploadInitDTO;
+import com.vocational.researchfund.dto.ChunkedUploadStatusDTO;
+import com.vocational.researchfund.entity.UploadSession;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.mapper.UploadSessionMapper;
+import com.vocational.researchfund.service.ChunkedUploadService;
+import com.vocational.researchfund.storage.BlobStore;
+import com.vocational.researchfund.utils.FileDigestUtils;
+import com.vocational.researchfund.utils.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * 分片上传服务实现类
+ * 分片文件保存在内容存储目录下的 .chunks/&lt;上传ID&gt;/&lt;序号&gt;.part，先写临时文件再原子重命名，
+ * 磁盘上存在的分片即为已接收的分片；合并时按序号顺序流式读取分片写入BlobStore，内存占用与文件大小无关
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    private static final String STATUS_UPLOADING = "uploading";
+    private static final String STATUS_ASSEMBLING = "assembling";
+    private static final String STATUS_COMPLETED = "completed";
+
+    private static final String CHUNK_DIR = ".chunks";
+    private static final String CHUNK_SUFFIX = ".part";
+
+    /**
+     * 单次清理的最大会话数
+     */
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    /**
+     * 默认分片大小（字节）
+     */
+    @Value("${researchfund.upload.chunked.default-chunk-size:5242880}")
+    private long defaultChunkSize;
+
+    /**
+     * 最大分片大小（字节）
+     */
+    @Value("${researchfund.upload.chunked.max-chunk-size:16777216}")
+    private long maxChunkSize;
+
+    /**
+     * 最大文件大小（字节）
+     */
+    @Value("${researchfund.upload.chunked.max-file-size:524288000}")
+    private long maxFileSize;
+
+    /**
+     * 会话过期时间（小时），超过该时间未收到分片的会话被清理
+     */
+    @Value("${researchfund.upload.chunked.expire-hours:24}")
+    private int expireHours;
+
+    @Autowired
+    private UploadSessionMapper uploadSessionMapper;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private Path chunkRoot;
+
+    @PostConstruct
+    public void init() throws IOException {
+        // 与内容存储在同一文件系统，合并后的临时文件可以原子移动
+        chunkRoot = Paths.get(System.getProperty("user.dir"), BlobStore.PROJECT_FILES_DIR, BlobStore.BLOB_DIR, CHUNK_DIR);
+        Files.createDirectories(chunkRoot);
+    }
+
+    @Override
+    public ChunkedUploadStatusDTO init(ChunkedUploadInitDTO request) {
+        if (request.getFileName() == null || request.getFileName().trim().isEmpty()) {
+            throw new BusinessException(400, "文件名不能为空");
+        }
+        if (!"application/pdf".equals(request.getContentType())) {
+            throw new BusinessException(400, "只能上传PDF文件");
+        }
+        long fileSize = request.getFileSize() == null ? 0 : request.getFileSize();
+        if (fileSize <= 0 || fileSize > maxFileSize) {
+            throw new BusinessException(400, "文件大小必须在1字节到" + (maxFileSize / 1024 / 1024) + "MB之间");
+        }
+        long chunkSize = request.getChunkSize() == null ? defaultChunkSize : request.getChunkSize();
+        if (chunkSize <= 0 || chunkSize > maxChunkSize) {
+            throw new BusinessException(400, "分片大小不能超过" + (maxChunkSize / 1024 / 1024) + "MB");
+        }
+        String fileMd5 = request.getFileMd5();
+        if (fileMd5 != null && !fileMd5.matches("[0-9a-fA-F]{32}")) {
+            throw new BusinessException(400, "文件MD5格式不正确");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setUploadId(UUID.randomUUID().toString().replace("-", ""));
+        session.setUserId(SecurityUtils.getCurrentUserId());
+        session.setFileName(StringUtils.cleanPath(request.getFileName()));
+        session.setContentType(request.getContentType());
+        session.setFileSize(fileSize);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((fileSize + chunkSize - 1) / chunkSize));
+        session.setFileMd5(fileMd5 == null ? null : fileMd5.toLowerCase());
+        session.setStatus(STATUS_UPLOADING);
+        uploadSessionMapper.insert(session);
+
+        logger.info("创建分片上传会话: {}, 文件: {}, 大小: {}, 分片数: {}",
+                session.getUploadId(), session.getFileName(), fileSize, session.getTotalChunks());
+        return toStatus(session, Collections.emptyList());
+    }
+
+    @Override
+    public ChunkedUploadStatusDTO getStatus(String uploadId) {
+        UploadSession session = requireSession(uploadId);
+        return toStatus(session, listReceivedChunks(uploadId));
+    }
+
+    @Override
+    public void uploadChunk(String uploadId, int index, InputStream in, String chunkMd5) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        if (!STATUS_UPLOADING.equals(session.getStatus())) {
+            throw new BusinessException(409, "上传已完成或正在合并，不能继续上传分片");
+        }
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new BusinessException(400, "分片序号超出范围: " + index);
+        }
+        long expectedSize = index == session.getTotalChunks() - 1
+                ? session.getFileSize() - session.getChunkSize() * (session.getTotalChunks() - 1)
+                : session.getChunkSize();
+
+        Path sessionDir = chunkRoot.resolve(uploadId);
+        Files.createDirectories(sessionDir);
+        Path tempFile = sessionDir.resolve(index + CHUNK_SUFFIX + "." + UUID.randomUUID().toString());
+        try {
+            String actualMd5;
+            try {
+                actualMd5 = FileDigestUtils.copyAndDigest(in, tempFile, "MD5", expectedSize);
+            } catch (IOException e) {
+                if (Files.exists(tempFile) && Files.size(tempFile) >= expectedSize) {
+                    throw new BusinessException(400, "分片大小不正确，应为" + expectedSize + "字节");
+                }
+                throw e;
+            }
+            if (Files.size(tempFile) != expectedSize) {
+                throw new BusinessException(400, "分片大小不正确，应为" + expectedSize + "字节");
+            }
+            if (chunkMd5 != null && !chunkMd5.equalsIgnoreCase(actualMd5)) {
+                throw new BusinessException(400, "分片校验失败，请重新上传该分片");
+            }
+            // 分片完整写入后才出现在正式文件名下，中断的上传不会被当作已接收
+            FileDigestUtils.moveAtomically(tempFile, chunkFile(uploadId, index));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        uploadSessionMapper.touch(uploadId);
+    }
+
+    @Override
+    public ChunkedUploadStatusDTO complete(String uploadId) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        if (STATUS_COMPLETED.equals(session.getStatus())) {
+            return toStatus(session, Collections.emptyList());
+        }
+
+        List<Integer> received = listReceivedChunks(uploadId);
+        if (received.size() < session.getTotalChunks()) {
+            throw new BusinessException(409, "分片未全部上传，已接收 " + received.size() + "/" + session.getTotalChunks());
+        }
+        if (uploadSessionMapper.updateStatus(uploadId, STATUS_UPLOADING, STATUS_ASSEMBLING) == 0) {
+            throw new BusinessException(409, "文件正在合并，请稍后查询上传状态");
+        }
+
+        boolean completed = false;
+        try {
+            BlobStore.StagedFile staged;
+            try (InputStream in = new SequenceInputStream(new ChunkEnumeration(uploadId, session.getTotalChunks()))) {
+                staged = blobStore.stage(in);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (staged.getSize() != session.getFileSize()
+                    || (session.getFileMd5() != null && !session.getFileMd5().equals(staged.getContentHash()))) {
+                blobStore.discard(staged);
+                throw new BusinessException(400, "文件校验失败，请重新上传");
+            }
+
+            BlobStore.StoredBlob blob = blobStore.commit(staged, session.getFileName());
+            uploadSessionMapper.markCompleted(uploadId, blob.getStoragePath());
+            completed = true;
+            deleteChunks(uploadId);
+
+            logger.info("分片上传完成: {}, 文件路径: {}, 复用已有文件: {}",
+                    uploadId, blob.getStoragePath(), blob.isDeduplicated());
+            session.setStatus(STATUS_COMPLETED);
+            session.setFilePath(blob.getStoragePath());
+            return toStatus(session, Collections.emptyList());
+        } finally {
+            if (!completed) {
+                // 合并失败时恢复为上传中，客户端可以重传分片后再次合并
+                uploadSessionMapper.updateStatus(uploadId, STATUS_ASSEMBLING, STATUS_UPLOADING);
+            }
+        }
+    }
+
+    @Override
+    public void abort(String uploadId) {
+        requireSession(uploadId);
+        deleteChunks(uploadId);
+        uploadSessionMapper.deleteById(uploadId);
+        logger.info("取消分片上传: {}", uploadId);
+    }
+
+    @Override
+    public int purgeExpired() {
+        int purged = 0;
+        List<String> expiredIds;
+        do {
+            expiredIds = uploadSessionMapper.selectExpiredIds(expireHours, PURGE_BATCH_SIZE);
+            for (String uploadId : expiredIds) {
+                deleteChunks(uploadId);
+                uploadSessionMapper.deleteById(uploadId);
+                purged++;
+            }
+        } while (expiredIds.size() == PURGE_BATCH_SIZE);
+        return purged;
+    }
+
+    /**
+     * 查询上传会话并校验是否属于当前用户
+     */
+    private UploadSession requireSession(String uploadId) {
+        if (uploadId == null || !uploadId.matches("[0-9a-f]{32}")) {
+            throw new BusinessException(400, "上传ID格式不正确");
+        }
+        UploadSession session = uploadSessionMapper.selectById(uploadId);
+        if (session == null) {
+            throw new BusinessException(404, "上传会话不存在或已过期");
+        }
+        if (!session.getUserId().equals(SecurityUtils.getCurrentUserId())) {
+            throw new BusinessException(403, "无权访问该上传会话");
+        }
+        return session;
+    }
+
+    private List<Integer> listReceivedChunks(String uploadId) {
+        List<Integer> received = new ArrayList<>();
+        String[] names = chunkRoot.resolve(uploadId).toFile().list();
+        if (names == null) {
+            return received;
+        }
+        for (String name : names) {
+            if (name.endsWith(CHUNK_SUFFIX)) {
+                String index = name.substring(0, name.length() - CHUNK_SUFFIX.length());
+                if (index.matches("\\d+")) {
+                    received.add(Integer.parseInt(index));
+                }
+            }
+        }
+        Collections.sort(received);
+        return received;
+    }
+
+    private Path chunkFile(String uploadId, int index) {
+        return chunkRoot.resolve(uploadId).resolve(index + CHUNK_SUFFIX);
+    }
+
+    private void deleteChunks(String uploadId) {
+        try {
+            FileSystemUtils.deleteRecursively(chunkRoot.resolve(uploadId));
+        } catch (IOException e) {
+            logger.warn("删除分片目录失败: {}", uploadId, e);
+        }
+    }
+
+    private ChunkedUploadStatusDTO toStatus(UploadSession session, List<Integer> receivedChunks) {
+        return ChunkedUploadStatusDTO.builder()
+                .uploadId(session.getUploadId())
+                .fileName(session.getFileName())
+                .fileSize(session.getFileSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedChunks(receivedChunks)
+                .status(session.getStatus())
+                .filePath(session.getFilePath())
+                .build();
+    }
+
+    /**
+     * 按序号依次打开分片文件，同一时刻只打开一个分片
+     */
+    private class ChunkEnumeration implements Enumeration<InputStream> {
+        private final String uploadId;
+        private final int totalChunks;
+        private int next;
+
+        ChunkEnumeration(String uploadId, int totalChunks) {
+            this.uploadId = uploadId;
+            this.totalChunks = totalChunks;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return next < totalChunks;
+        }
+
+        @Override
+        public InputStream nextElement() {
+            if (next >= totalChunks) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return new BufferedInputStream(Files.newInputStream(chunkFile(uploadId, next++)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.vocational.researchfund.service.impl;
 
-import com.vocational.researchfund.entity.User;
+import com.vocational.researchfund.cache.DashboardStatsCache;
+import com.vocational.researchfund.exception.BusinessException;
 import com.vocational.researchfund.mapper.ExpenseMapper;
 import com.vocational.researchfund.mapper.ProjectMapper;
 import com.vocational.researchfund.mapper.FundTransferMapper;
 import com.vocational.researchfund.mapper.AchievementMapper;
 import com.vocational.researchfund.service.DashboardService;
-import com.vocational.researchfund.service.UserService;
 import com.vocational.researchfund.utils.SecurityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -18,6 +22,14 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * 仪表盘服务实现类
@@ -27,6 +39,28 @@ public class DashboardServiceImpl implements DashboardService {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardServiceImpl.class);
 
+    /**
+     * 项目概览最多显示的项目数
+     */
+    private static final int DASHBOARD_PROJECT_LIMIT = 5;
+
+    private static final String SECTION_TASKS = "tasks";
+    private static final String SECTION_PROJECTS = "projects";
+    private static final String SECTION_STATS = "stats";
+    private static final String SECTION_PROJECT_TYPES = "projectTypes";
+    private static final String SECTION_RESEARCH_RESULTS = "researchResults";
+
+    /**
+     * 单个待办数据源超时时间的配置前缀，后接数据源名称，未配置时使用task-timeout-ms
+     */
+    private static final String SOURCE_TIMEOUT_PREFIX = "researchfund.dashboard.source-timeout-ms.";
+
+    /**
+     * 聚合接口支持的数据块，按返回顺序排列
+     */
+    private static final Set<String> BUNDLE_SECTIONS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+            SECTION_TASKS, SECTION_PROJECTS, SECTION_STATS, SECTION_PROJECT_TYPES, SECTION_RESEARCH_RESULTS)));
+
     @Autowired
     private ProjectMapper projectMapper;
 
@@ -40,102 +74,68 @@ public class DashboardServiceImpl implements DashboardService {
     private AchievementMapper achievementMapper;
 
     @Autowired
-    private UserService userService;
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ThreadPoolTaskExecutor dashboardExecutor;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * 待办事项各数据源查询的默认超时时间（毫秒）
+     */
+    @Value("${researchfund.dashboard.task-timeout-ms:3000}")
+    private long taskTimeoutMillis;
+
+    /**
+     * 聚合接口等待各数据块的超时时间（毫秒）
+     */
+    @Value("${researchfund.dashboard.bundle-timeout-ms:5000}")
+    private long bundleTimeoutMillis;
+
+    /**
+     * 各待办数据源的查询统计
+     */
+    private final Map<String, SourceStats> sourceStats = new ConcurrentHashMap<>();
 
     @Override
     public List<Map<String, Object>> getDashboardTasks(Boolean isAdmin) {
-        List<Map<String, Object>> tasks = new ArrayList<>();
+        return buildDashboardTasks(isAdmin, null).tasks;
+    }
+    
+    /**
+     * 构建待办事项
+     * @param currentUserId 当前用户ID，为空时从安全上下文解析
+     */
+    private TaskCollection buildDashboardTasks(Boolean isAdmin, Long currentUserId) {
+        TaskCollection collection = new TaskCollection();
         try {
-            // 获取当前用户
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            
+            List<TaskSource> sources = new ArrayList<>();
             if (isAdmin) {
-                // 管理员可以看到所有待审核的申请
-                // 获取待审核的经费申请
-                List<Map<String, Object>> pendingExpenses = expenseMapper.getPendingAuditExpenses();
-                for (Map<String, Object> expense : pendingExpenses) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", expense.get("id"));
-                    task.put("title", "审核经费申请: " + expense.get("title"));
-                    task.put("status", "processing");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(3)));
-                    task.put("projectName", expense.get("project_name"));
-                    task.put("type", "expense");
-                    tasks.add(task);
-                }
-                
-                // 获取待审核的项目
-                List<Map<String, Object>> pendingProjects = projectMapper.getPendingAuditProjects();
-                for (Map<String, Object> project : pendingProjects) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", project.get("id"));
-                    task.put("title", "审核项目申请: " + project.get("name"));
-                    task.put("status", "urgent");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(5)));
-                    task.put("projectName", project.get("name"));
-                    task.put("type", "project");
-                    tasks.add(task);
-                }
-                
-                // 获取待审核的经费结转
-                List<Map<String, Object>> pendingTransfers = fundTransferMapper.getPendingAuditTransfers();
-                for (Map<String, Object> transfer : pendingTransfers) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", transfer.get("id"));
-                    task.put("title", "审核经费结转: " + transfer.get("title"));
-                    task.put("status", "normal");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(7)));
-                    task.put("projectName", transfer.get("project_name"));
-                    task.put("type", "transfer");
-                    tasks.add(task);
-                }
+                // 管理员可以看到所有待审核的申请：经费申请、项目、经费结转
+                sources.add(new TaskSource("pendingAuditExpenses", expenseMapper::getPendingAuditExpenses,
+                        "审核经费申请: ", "title", "project_name", "processing", 3, "expense"));
+                sources.add(new TaskSource("pendingAuditProjects", projectMapper::getPendingAuditProjects,
+                        "审核项目申请: ", "name", "name", "urgent", 5, "project"));
+                sources.add(new TaskSource("pendingAuditTransfers", fundTransferMapper::getPendingAuditTransfers,
+                        "审核经费结转: ", "title", "project_name", "normal", 7, "transfer"));
             } else {
-                // 普通用户只能看到与自己相关的待办事项
-                Long userId = currentUser.getId();
-                
-                // 获取用户的待审核经费申请
-                List<Map<String, Object>> myPendingExpenses = expenseMapper.getUserPendingExpenses(userId);
-                for (Map<String, Object> expense : myPendingExpenses) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", expense.get("id"));
-                    task.put("title", "等待审核的经费申请: " + expense.get("title"));
-                    task.put("status", "processing");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(3)));
-                    task.put("projectName", expense.get("project_name"));
-                    task.put("type", "expense");
-                    tasks.add(task);
-                }
-                
-                // 获取用户的待提交报销凭证的经费申请
-                List<Map<String, Object>> receiptPendingExpenses = expenseMapper.getUserReceiptPendingExpenses(userId);
-                for (Map<String, Object> expense : receiptPendingExpenses) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", expense.get("id"));
-                    task.put("title", "需要提交报销凭证: " + expense.get("title"));
-                    task.put("status", "urgent");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(2)));
-                    task.put("projectName", expense.get("project_name"));
-                    task.put("type", "receipt");
-                    tasks.add(task);
-                }
-                
-                // 获取用户负责的待结题项目
-                List<Map<String, Object>> pendingCompletionProjects = projectMapper.getUserPendingCompletionProjects(userId);
-                for (Map<String, Object> project : pendingCompletionProjects) {
-                    Map<String, Object> task = new HashMap<>();
-                    task.put("id", project.get("id"));
-                    task.put("title", "需要提交结题报告: " + project.get("name"));
-                    task.put("status", "normal");
-                    task.put("deadline", formatDate(LocalDate.now().plusDays(14)));
-                    task.put("projectName", project.get("name"));
-                    task.put("type", "completion");
-                    tasks.add(task);
-                }
+                // 普通用户只能看到与自己相关的待办事项，用户ID需在请求线程中解析
+                Long userId = resolveUserId(currentUserId);
+                sources.add(new TaskSource("userPendingExpenses", () -> expenseMapper.getUserPendingExpenses(userId),
+                        "等待审核的经费申请: ", "title", "project_name", "processing", 3, "expense"));
+                sources.add(new TaskSource("userReceiptPendingExpenses", () -> expenseMapper.getUserReceiptPendingExpenses(userId),
+                        "需要提交报销凭证: ", "title", "project_name", "urgent", 2, "receipt"));
+                sources.add(new TaskSource("userPendingCompletionProjects", () -> projectMapper.getUserPendingCompletionProjects(userId),
+                        "需要提交结题报告: ", "name", "name", "normal", 14, "completion"));
             }
+
+            collection = collectTasks(sources);
             
             // 按紧急程度和截止日期排序
-            tasks.sort((a, b) -> {
+            collection.tasks.sort((a, b) -> {
                 String statusA = (String) a.get("status");
                 String statusB = (String) b.get("status");
                 
@@ -155,7 +155,175 @@ public class DashboardServiceImpl implements DashboardService {
             logger.error("获取仪表盘待办事项失败", e);
         }
         
-        return tasks;
+        return collection;
+    }
+    
+    /**
+     * 并行查询各待办数据源并合并结果
+     * 每个数据源从提交时起按自己的超时时间等待，超时或失败的数据源被跳过并记录名称，其余数据源的结果照常返回
+     */
+    private TaskCollection collectTasks(List<TaskSource> sources) {
+        List<Future<List<Map<String, Object>>>> futures = new ArrayList<>(sources.size());
+        long[] deadlines = new long[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            TaskSource source = sources.get(i);
+            deadlines[i] = System.currentTimeMillis() + sourceTimeoutMillis(source.name);
+            futures.add(dashboardExecutor.submit(() -> runSource(source)));
+        }
+
+        TaskCollection collection = new TaskCollection();
+        for (int i = 0; i < sources.size(); i++) {
+            TaskSource source = sources.get(i);
+            Future<List<Map<String, Object>>> future = futures.get(i);
+            try {
+                long remaining = Math.max(0, deadlines[i] - System.currentTimeMillis());
+                collection.tasks.addAll(future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                collection.timedOutSources.add(source.name);
+                sourceStatsOf(source.name).timeouts.incrementAndGet();
+                logger.warn("仪表盘待办数据源查询超时，已跳过: {}, 超时时间: {}ms", source.name, sourceTimeoutMillis(source.name));
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                collection.failedSources.add(source.name);
+                Thread.currentThread().interrupt();
+                logger.warn("等待仪表盘待办数据源时被中断: {}", source.name);
+            } catch (ExecutionException e) {
+                collection.failedSources.add(source.name);
+                logger.warn("仪表盘待办数据源查询失败，已跳过: {}", source.name, e.getCause());
+            }
+        }
+        return collection;
+    }
+    
+    /**
+     * 数据源的超时时间，优先使用按名称单独配置的值
+     */
+    private long sourceTimeoutMillis(String sourceName) {
+        return environment.getProperty(SOURCE_TIMEOUT_PREFIX + sourceName, Long.class, taskTimeoutMillis);
+    }
+    
+    /**
+     * 在线程池中执行单个数据源查询，并记录耗时和失败次数
+     */
+    private List<Map<String, Object>> runSource(TaskSource source) {
+        SourceStats stats = sourceStatsOf(source.name);
+        long start = System.currentTimeMillis();
+        try {
+            List<Map<String, Object>> rows = source.query.get();
+            List<Map<String, Object>> tasks = new ArrayList<>(rows.size());
+            String deadline = formatDate(LocalDate.now().plusDays(source.deadlineDays));
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> task = new HashMap<>();
+                task.put("id", row.get("id"));
+                task.put("title", source.titlePrefix + row.get(source.titleColumn));
+                task.put("status", source.status);
+                task.put("deadline", deadline);
+                task.put("projectName", row.get(source.projectNameColumn));
+                task.put("type", source.type);
+                tasks.add(task);
+            }
+            return tasks;
+        } catch (RuntimeException e) {
+            stats.failures.incrementAndGet();
+            throw e;
+        } finally {
+            stats.record(System.currentTimeMillis() - start);
+        }
+    }
+    
+    private SourceStats sourceStatsOf(String name) {
+        return sourceStats.computeIfAbsent(name, k -> new SourceStats());
+    }
+    
+    @Override
+    public Map<String, Object> getDashboardBundle(Boolean isAdmin, Set<String> sections) {
+        Set<String> requested = sections == null || sections.isEmpty() ? BUNDLE_SECTIONS : sections;
+        for (String section : requested) {
+            if (!BUNDLE_SECTIONS.contains(section)) {
+                throw new BusinessException(400, "不支持的仪表盘数据块: " + section);
+            }
+        }
+
+        // 安全上下文只在请求线程中可用，普通用户的ID在这里解析一次后传给各数据块
+        Long userId = isAdmin ? null : SecurityUtils.getCurrentUserId();
+
+        long deadline = System.currentTimeMillis() + bundleTimeoutMillis;
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        for (String section : requested) {
+            // 待办事项内部已并行查询，放在请求线程中执行，避免占用线程池后等待自己提交的子任务
+            if (!SECTION_TASKS.equals(section)) {
+                futures.put(section, dashboardExecutor.submit(() -> buildSection(section, isAdmin, userId)));
+            }
+        }
+
+        Map<String, Object> bundle = new LinkedHashMap<>();
+        if (requested.contains(SECTION_TASKS)) {
+            TaskCollection collection = buildDashboardTasks(isAdmin, userId);
+            bundle.put(SECTION_TASKS, collection.tasks);
+            bundle.put("timedOutTaskSources", collection.timedOutSources);
+            bundle.put("failedTaskSources", collection.failedSources);
+        }
+
+        List<String> failedSections = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+            Future<?> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                bundle.put(entry.getKey(), future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failedSections.add(entry.getKey());
+                logger.warn("仪表盘数据块构建超时，已跳过: {}, 超时时间: {}ms", entry.getKey(), bundleTimeoutMillis);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                failedSections.add(entry.getKey());
+                Thread.currentThread().interrupt();
+                logger.warn("等待仪表盘数据块时被中断: {}", entry.getKey());
+            } catch (ExecutionException e) {
+                failedSections.add(entry.getKey());
+                logger.warn("仪表盘数据块构建失败，已跳过: {}", entry.getKey(), e.getCause());
+            }
+        }
+        bundle.put("failedSections", failedSections);
+        return bundle;
+    }
+    
+    private Object buildSection(String section, Boolean isAdmin, Long userId) {
+        switch (section) {
+            case SECTION_TASKS: return buildDashboardTasks(isAdmin, userId).tasks;
+            case SECTION_PROJECTS: return buildDashboardProjects(isAdmin, userId);
+            case SECTION_STATS: return buildDashboardStats(isAdmin, userId);
+            case SECTION_PROJECT_TYPES: return buildProjectTypeStats(isAdmin, userId);
+            case SECTION_RESEARCH_RESULTS: return buildResearchResults(isAdmin, userId);
+            default: throw new BusinessException(400, "不支持的仪表盘数据块: " + section);
+        }
+    }
+    
+    private Long resolveUserId(Long currentUserId) {
+        return currentUserId != null ? currentUserId : SecurityUtils.getCurrentUserId();
+    }
+    
+    @Override
+    public Map<String, Object> getTaskExecutorStats() {
+        Map<String, Object> stats = new HashMap<>();
+        ThreadPoolExecutor executor = dashboardExecutor.getThreadPoolExecutor();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("largestPoolSize", executor.getLargestPoolSize());
+        stats.put("maxPoolSize", executor.getMaximumPoolSize());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("completedTaskCount", executor.getCompletedTaskCount());
+        stats.put("taskTimeoutMillis", taskTimeoutMillis);
+
+        Map<String, Object> sources = new TreeMap<>();
+        for (Map.Entry<String, SourceStats> entry : sourceStats.entrySet()) {
+            Map<String, Object> source = entry.getValue().toMap();
+            source.put("timeoutMillis", sourceTimeoutMillis(entry.getKey()));
+            sources.put(entry.getKey(), source);
+        }
+        stats.put("sources", sources);
+        return stats;
     }
     
     private int getStatusPriority(String status) {
@@ -169,19 +337,23 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public List<Map<String, Object>> getDashboardProjects(Boolean isAdmin) {
+        return buildDashboardProjects(isAdmin, null);
+    }
+    
+    /**
+     * 构建项目概览
+     * @param currentUserId 当前用户ID，为空时从安全上下文解析
+     */
+    private List<Map<String, Object>> buildDashboardProjects(Boolean isAdmin, Long currentUserId) {
         List<Map<String, Object>> projects = new ArrayList<>();
         try {
-            // 获取当前用户
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            
             List<Map<String, Object>> projectsList;
             if (isAdmin) {
-                // 管理员获取所有活跃项目
-                projectsList = projectMapper.getActiveProjects();
+                // 管理员获取预算使用率最高的活跃项目
+                projectsList = projectMapper.getTopBudgetUsageProjects(DASHBOARD_PROJECT_LIMIT);
             } else {
-                // 普通用户获取自己参与的活跃项目
-                projectsList = projectMapper.getUserActiveProjects(currentUser.getId());
+                // 普通用户获取自己负责的预算使用率最高的活跃项目
+                projectsList = projectMapper.getUserTopBudgetUsageProjects(resolveUserId(currentUserId), DASHBOARD_PROJECT_LIMIT);
             }
             
             // 转换为前端需要的格式
@@ -204,18 +376,6 @@ public class DashboardServiceImpl implements DashboardService {
                 projects.add(formattedProject);
             }
             
-            // 按预算使用百分比降序排序，优先显示预算消耗较多的项目
-            projects.sort((a, b) -> {
-                Integer percentageA = (Integer) a.get("budgetPercentage");
-                Integer percentageB = (Integer) b.get("budgetPercentage");
-                return percentageB.compareTo(percentageA);
-            });
-            
-            // 限制返回最多5个项目
-            if (projects.size() > 5) {
-                projects = projects.subList(0, 5);
-            }
-            
         } catch (Exception e) {
             logger.error("获取仪表盘项目概览失败", e);
         }
@@ -225,84 +385,96 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public Map<String, Object> getDashboardStats(Boolean isAdmin) {
-        Map<String, Object> stats = new HashMap<>();
+        return buildDashboardStats(isAdmin, null);
+    }
+    
+    /**
+     * 构建统计卡片
+     * @param currentUserId 当前用户ID，为空时从安全上下文解析
+     */
+    private Map<String, Object> buildDashboardStats(Boolean isAdmin, Long currentUserId) {
         try {
-            // 获取当前用户
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            
             if (isAdmin) {
                 // 管理员显示全局统计
-                stats.put("projectCount", projectMapper.getProjectCount());
-                stats.put("pendingExpenseCount", expenseMapper.getPendingExpenseCount());
-                stats.put("pendingPaymentCount", expenseMapper.getPendingPaymentCount());
-                
-                // 计算全局预算使用率
-                Map<String, Object> budgetUsage = projectMapper.getTotalBudgetUsage();
-                BigDecimal totalBudget = (BigDecimal) budgetUsage.get("total_budget");
-                BigDecimal totalUsedBudget = (BigDecimal) budgetUsage.get("total_used_budget");
-                int budgetUsageRate = totalBudget.compareTo(BigDecimal.ZERO) == 0 ? 0 :
-                        totalUsedBudget.multiply(new BigDecimal(100)).divide(totalBudget, 0, RoundingMode.HALF_UP).intValue();
-                
-                stats.put("budgetUsageRate", budgetUsageRate);
-                
-            } else {
-                // 普通用户只显示与自己相关的统计
-                Long userId = currentUser.getId();
-                stats.put("projectCount", projectMapper.getUserProjectCount(userId));
-                stats.put("pendingExpenseCount", expenseMapper.getUserPendingExpenseCount(userId));
-                stats.put("pendingPaymentCount", expenseMapper.getUserPendingPaymentCount(userId));
-                
-                // 计算用户相关项目的预算使用率
-                Map<String, Object> budgetUsage = projectMapper.getUserBudgetUsage(userId);
-                BigDecimal totalBudget = (BigDecimal) budgetUsage.get("total_budget");
-                BigDecimal totalUsedBudget = (BigDecimal) budgetUsage.get("total_used_budget");
-                int budgetUsageRate = totalBudget.compareTo(BigDecimal.ZERO) == 0 ? 0 :
-                        totalUsedBudget.multiply(new BigDecimal(100)).divide(totalBudget, 0, RoundingMode.HALF_UP).intValue();
-                
-                stats.put("budgetUsageRate", budgetUsageRate);
+                return dashboardStatsCache.get(DashboardStatsCache.SECTION_STATS, DashboardStatsCache.SCOPE_GLOBAL,
+                        this::loadGlobalStats);
             }
-            
+            // 普通用户只显示与自己相关的统计
+            Long userId = resolveUserId(currentUserId);
+            return dashboardStatsCache.get(DashboardStatsCache.SECTION_STATS, DashboardStatsCache.userScope(userId),
+                    () -> loadUserStats(userId));
         } catch (Exception e) {
             logger.error("获取仪表盘统计数据失败", e);
             // 提供默认值
+            Map<String, Object> stats = new HashMap<>();
             stats.put("projectCount", 0);
             stats.put("pendingExpenseCount", 0);
             stats.put("pendingPaymentCount", 0);
             stats.put("budgetUsageRate", 0);
+            return stats;
         }
+    }
+    
+    /**
+     * 从数据库计算全局统计
+     */
+    private Map<String, Object> loadGlobalStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("projectCount", projectMapper.getProjectCount());
+        stats.put("pendingExpenseCount", expenseMapper.getPendingExpenseCount());
+        stats.put("pendingPaymentCount", expenseMapper.getPendingPaymentCount());
         
-        return stats;
+        // 计算全局预算使用率
+        stats.put("budgetUsageRate", calculateBudgetUsageRate(projectMapper.getTotalBudgetUsage()));
+        return Collections.unmodifiableMap(stats);
+    }
+    
+    /**
+     * 从数据库计算用户相关统计
+     */
+    private Map<String, Object> loadUserStats(Long userId) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("projectCount", projectMapper.getUserProjectCount(userId));
+        stats.put("pendingExpenseCount", expenseMapper.getUserPendingExpenseCount(userId));
+        stats.put("pendingPaymentCount", expenseMapper.getUserPendingPaymentCount(userId));
+        
+        // 计算用户相关项目的预算使用率
+        stats.put("budgetUsageRate", calculateBudgetUsageRate(projectMapper.getUserBudgetUsage(userId)));
+        return Collections.unmodifiableMap(stats);
+    }
+    
+    /**
+     * 计算预算使用率（百分比）
+     */
+    private int calculateBudgetUsageRate(Map<String, Object> budgetUsage) {
+        BigDecimal totalBudget = (BigDecimal) budgetUsage.get("total_budget");
+        BigDecimal totalUsedBudget = (BigDecimal) budgetUsage.get("total_used_budget");
+        return totalBudget.compareTo(BigDecimal.ZERO) == 0 ? 0 :
+                totalUsedBudget.multiply(new BigDecimal(100)).divide(totalBudget, 0, RoundingMode.HALF_UP).intValue();
     }
 
     @Override
     public List<Map<String, Object>> getProjectTypeStats(Boolean isAdmin) {
+        return buildProjectTypeStats(isAdmin, null);
+    }
+    
+    /**
+     * 构建项目类型统计
+     * @param currentUserId 当前用户ID，为空时从安全上下文解析
+     */
+    private List<Map<String, Object>> buildProjectTypeStats(Boolean isAdmin, Long currentUserId) {
         List<Map<String, Object>> typeStats = new ArrayList<>();
         try {
-            // 获取当前用户
-            String username = SecurityUtils.getCurrentUsername();
-            User currentUser = userService.getUserByUsername(username);
-            
-            List<Map<String, Object>> rawTypeStats;
             if (isAdmin) {
                 // 管理员获取所有项目类型统计
-                rawTypeStats = projectMapper.getProjectTypeStats();
+                typeStats = dashboardStatsCache.get(DashboardStatsCache.SECTION_PROJECT_TYPES, DashboardStatsCache.SCOPE_GLOBAL,
+                        () -> formatProjectTypeStats(projectMapper.getProjectTypeStats()));
             } else {
                 // 普通用户获取自己参与的项目类型统计
-                rawTypeStats = projectMapper.getUserProjectTypeStats(currentUser.getId());
-            }
-            
-            // 转换为前端需要的格式
-            for (Map<String, Object> typeStat : rawTypeStats) {
-                Map<String, Object> formattedTypeStat = new HashMap<>();
-                String type = (String) typeStat.get("type");
-                
-                formattedTypeStat.put("name", getProjectTypeLabel(type));
-                formattedTypeStat.put("value", typeStat.get("count"));
-                
-                typeStats.add(formattedTypeStat);
+                Long userId = resolveUserId(currentUserId);
+                typeStats = dashboardStatsCache.get(DashboardStatsCache.SECTION_PROJECT_TYPES, DashboardStatsCache.userScope(userId),
+                        () -> formatProjectTypeStats(projectMapper.getUserProjectTypeStats(userId)));
             }
-            
         } catch (Exception e) {
             logger.error("获取项目类型统计失败", e);
             // 提供默认数据
@@ -313,6 +485,7 @@ public class DashboardServiceImpl implements DashboardService {
         
         // 如果没有数据，提供默认值
         if (typeStats.isEmpty()) {
+            typeStats = new ArrayList<>();
             typeStats.add(createTypeStatMap("校级项目", 0));
             typeStats.add(createTypeStatMap("横向项目", 0));
             typeStats.add(createTypeStatMap("纵向项目", 0));
@@ -321,6 +494,23 @@ public class DashboardServiceImpl implements DashboardService {
         return typeStats;
     }
     
+    /**
+     * 转换项目类型统计为前端需要的格式
+     */
+    private List<Map<String, Object>> formatProjectTypeStats(List<Map<String, Object>> rawTypeStats) {
+        List<Map<String, Object>> typeStats = new ArrayList<>();
+        for (Map<String, Object> typeStat : rawTypeStats) {
+            Map<String, Object> formattedTypeStat = new HashMap<>();
+            String type = (String) typeStat.get("type");
+            
+            formattedTypeStat.put("name", getProjectTypeLabel(type));
+            formattedTypeStat.put("value", typeStat.get("count"));
+            
+            typeStats.add(formattedTypeStat);
+        }
+        return Collections.unmodifiableList(typeStats);
+    }
+    
     private Map<String, Object> createTypeStatMap(String name, int value) {
         Map<String, Object> map = new HashMap<>();
         map.put("name", name);
@@ -339,63 +529,32 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public List<Map<String, Object>> getResearchResults(Boolean isAdmin) {
+        return buildResearchResults(isAdmin, null);
+    }
+    
+    /**
+     * 构建科研成果统计
+     * @param currentUserId 当前用户ID，为空时从安全上下文解析
+     */
+    private List<Map<String, Object>> buildResearchResults(Boolean isAdmin, Long currentUserId) {
         logger.info("获取科研成果数量统计, isAdmin={}", isAdmin);
         List<Map<String, Object>> results = new ArrayList<>();
         
         try {
-            // 获取当前用户ID
-            String userId = null;
-            if (!isAdmin) {
-                String username = SecurityUtils.getCurrentUsername();
-                User currentUser = userService.getUserByUsername(username);
-                if (currentUser != null) {
-                    userId = currentUser.getId().toString();
-                }
-            }
-            
-            // 准备统计查询参数
-            Map<String, Object> params = new HashMap<>();
-            
-            // 获取成果类型统计数据
-            Map<String, Integer> typeCounts = new LinkedHashMap<>();
-            typeCounts.put("journal", 0);     // 期刊论文
-            typeCounts.put("conference", 0);  // 会议论文
-            typeCounts.put("patent", 0);      // 专利
-            typeCounts.put("book", 0);        // 著作
-            typeCounts.put("software", 0);    // 软件著作权
-            typeCounts.put("other", 0);       // 其他
-            
-            // 查询各类型的成果数量
-            List<Map<String, Object>> typeStats;
             if (isAdmin) {
                 // 管理员查看所有成果统计
-                typeStats = achievementMapper.countByType(params);
+                results = dashboardStatsCache.get(DashboardStatsCache.SECTION_RESEARCH_RESULTS, DashboardStatsCache.SCOPE_GLOBAL,
+                        () -> loadResearchResults(null));
             } else {
                 // 普通用户只查看自己的成果统计
-                params.put("creatorId", userId);
-                typeStats = achievementMapper.countByTypeAndCreator(userId, params);
-            }
-            
-            // 处理统计结果
-            if (typeStats != null && !typeStats.isEmpty()) {
-                for (Map<String, Object> stat : typeStats) {
-                    String type = (String) stat.get("type");
-                    Integer count = ((Number) stat.get("count")).intValue();
-                    if (typeCounts.containsKey(type)) {
-                        typeCounts.put(type, count);
-                    }
-                }
+                Long userId = resolveUserId(currentUserId);
+                results = dashboardStatsCache.get(DashboardStatsCache.SECTION_RESEARCH_RESULTS, DashboardStatsCache.userScope(userId),
+                        () -> loadResearchResults(userId.toString()));
             }
-            
-            // 转换为前端需要的格式
-            for (Map.Entry<String, Integer> entry : typeCounts.entrySet()) {
-                String typeName = getAchievementTypeLabel(entry.getKey());
-                results.add(createResultMap(typeName, entry.getValue()));
-            }
-            
         } catch (Exception e) {
             logger.error("获取科研成果统计失败", e);
             // 提供默认空数据
+            results = new ArrayList<>();
             results.add(createResultMap("期刊论文", 0));
             results.add(createResultMap("会议论文", 0));
             results.add(createResultMap("专利", 0));
@@ -407,6 +566,52 @@ public class DashboardServiceImpl implements DashboardService {
         return results;
     }
     
+    /**
+     * 从数据库计算科研成果类型统计
+     * @param userId 用户ID，为空表示全局统计
+     */
+    private List<Map<String, Object>> loadResearchResults(String userId) {
+        // 准备统计查询参数
+        Map<String, Object> params = new HashMap<>();
+        
+        // 获取成果类型统计数据
+        Map<String, Integer> typeCounts = new LinkedHashMap<>();
+        typeCounts.put("journal", 0);     // 期刊论文
+        typeCounts.put("conference", 0);  // 会议论文
+        typeCounts.put("patent", 0);      // 专利
+        typeCounts.put("book", 0);        // 著作
+        typeCounts.put("software", 0);    // 软件著作权
+        typeCounts.put("other", 0);       // 其他
+        
+        // 查询各类型的成果数量
+        List<Map<String, Object>> typeStats;
+        if (userId == null) {
+            typeStats = achievementMapper.countByType(params);
+        } else {
+            params.put("creatorId", userId);
+            typeStats = achievementMapper.countByTypeAndCreator(userId, params);
+        }
+        
+        // 处理统计结果
+        if (typeStats != null && !typeStats.isEmpty()) {
+            for (Map<String, Object> stat : typeStats) {
+                String type = (String) stat.get("type");
+                Integer count = ((Number) stat.get("count")).intValue();
+                if (typeCounts.containsKey(type)) {
+                    typeCounts.put(type, count);
+                }
+            }
+        }
+        
+        // 转换为前端需要的格式
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : typeCounts.entrySet()) {
+            String typeName = getAchievementTypeLabel(entry.getKey());
+            results.add(createResultMap(typeName, entry.getValue()));
+        }
+        return Collections.unmodifiableList(results);
+    }
+    
     private String getAchievementTypeLabel(String type) {
         switch (type) {
             case "journal": return "期刊论文";
@@ -444,4 +649,67 @@ public class DashboardServiceImpl implements DashboardService {
                 .replace(".", ",")
                 .replaceAll("\\B(?=(\\d{3})+(?!\\d))", ",");
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 待办事项数据源：查询函数及其结果转换为待办事项的方式
+     */
+    private static class TaskSource {
+        private final String name;
+        private final Supplier<List<Map<String, Object>>> query;
+        private final String titlePrefix;
+        private final String titleColumn;
+        private final String projectNameColumn;
+        private final String status;
+        private final int deadlineDays;
+        private final String type;
+
+        TaskSource(String name, Supplier<List<Map<String, Object>>> query, String titlePrefix, String titleColumn,
+                   String projectNameColumn, String status, int deadlineDays, String type) {
+            this.name = name;
+            this.query = query;
+            this.titlePrefix = titlePrefix;
+            this.titleColumn = titleColumn;
+            this.projectNameColumn = projectNameColumn;
+            this.status = status;
+            this.deadlineDays = deadlineDays;
+            this.type = type;
+        }
+    }
+    
+    /**
+     * 待办事项的合并结果，以及被跳过的数据源名称
+     */
+    private static class TaskCollection {
+        private final List<Map<String, Object>> tasks = new ArrayList<>();
+        private final List<String> timedOutSources = new ArrayList<>();
+        private final List<String> failedSources = new ArrayList<>();
+    }
+    
+    /**
+     * 数据源查询统计
+     */
+    private static class SourceStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long elapsed) {
+            calls.incrementAndGet();
+            totalMillis.addAndGet(elapsed);
+            maxMillis.accumulateAndGet(elapsed, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long callCount = calls.get();
+            Map<String, Object> map = new HashMap<>();
+            map.put("calls", callCount);
+            map.put("failures", failures.get());
+            map.put("timeouts", timeouts.get());
+            map.put("avgMillis", callCount == 0 ? 0 : totalMillis.get() / callCount);
+            map.put("maxMillis", maxMillis.get());
+            return map;
+        }
+    }
+}
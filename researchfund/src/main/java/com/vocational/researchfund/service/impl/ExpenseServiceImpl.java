@@ -1,26 +1,42 @@
 package com.vocational.researchfund.service.impl;
 
+import com.vocational.researchfund.cache.ProjectAggregateCache;
 import com.vocational.researchfund.dto.AttachmentDTO;
+import com.vocational.researchfund.dto.BatchResultDTO;
 import com.vocational.researchfund.dto.ExpenseDTO;
 import com.vocational.researchfund.dto.PageDTO;
 import com.vocational.researchfund.dto.ProjectDTO;
 import com.vocational.researchfund.entity.User;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.export.TabularWriter;
 import com.vocational.researchfund.mapper.AttachmentMapper;
 import com.vocational.researchfund.mapper.ExpenseMapper;
 import com.vocational.researchfund.mapper.ProjectMapper;
+import com.vocational.researchfund.schedule.ChunkedJobRunner;
+import com.vocational.researchfund.schedule.DeadlineScheduler;
+import com.vocational.researchfund.service.BudgetLedgerService;
 import com.vocational.researchfund.service.ExpenseService;
 import com.vocational.researchfund.service.ProjectService;
 import com.vocational.researchfund.service.UserService;
+import com.vocational.researchfund.utils.CursorUtils;
 import com.vocational.researchfund.utils.SecurityUtils;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
@@ -47,9 +63,50 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Autowired
     private ProjectService projectService;
     
+    @Autowired
+    private BudgetLedgerService budgetLedgerService;
+    
     @Autowired
     private ProjectMapper projectMapper;
     
+    @Autowired
+    private ProjectAggregateCache projectAggregateCache;
+    
+    @Autowired
+    private ChunkedJobRunner chunkedJobRunner;
+    
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+    
+    /**
+     * 批量操作单次最多处理的经费申请数
+     */
+    private static final int MAX_BATCH_SIZE = 500;
+    
+    /**
+     * 导出列名
+     */
+    private static final List<String> EXPORT_HEADERS = Arrays.asList("ID", "申请标题", "类别", "项目ID", "项目名称",
+            "申请类型", "金额", "申请日期", "用途", "申请理由", "申请人", "状态", "审核人", "审核时间", "审核意见", "创建时间");
+    
+    /**
+     * 经费类型与预算科目名称的映射关系
+     */
+    private static final Map<String, String> TYPE_TO_CATEGORY;
+    
+    static {
+        Map<String, String> typeToCategoryMap = new HashMap<>();
+        typeToCategoryMap.put("equipment", "设备费");
+        typeToCategoryMap.put("material", "材料费");
+        typeToCategoryMap.put("test", "测试化验费");
+        typeToCategoryMap.put("travel", "差旅费");
+        typeToCategoryMap.put("meeting", "会议费");
+        typeToCategoryMap.put("labor", "劳务费");
+        typeToCategoryMap.put("consultation", "专家咨询费");
+        typeToCategoryMap.put("other", "其他费用");
+        TYPE_TO_CATEGORY = Collections.unmodifiableMap(typeToCategoryMap);
+    }
+    
     @Override
     @Transactional
     public ExpenseDTO createExpense(ExpenseDTO expenseDTO) {
@@ -95,6 +152,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         
         // 插入数据库
         expenseMapper.insert(expenseDTO);
+        budgetLedgerService.recordTransition(expenseDTO.getProjectId(), expenseDTO.getType(), expenseDTO.getAmount(),
+                null, expenseDTO.getStatus());
         
         // 保存附件
         if (expenseDTO.getAttachments() != null && !expenseDTO.getAttachments().isEmpty()) {
@@ -167,6 +226,17 @@ public class ExpenseServiceImpl implements ExpenseService {
         // 更新数据库
         expenseMapper.update(expenseDTO);
         
+        // 项目、类型或金额变化时，从原台账移出并计入新台账
+        if (projectChanged || typeChanged || amountChanged) {
+            budgetLedgerService.recordTransition(existingExpense.getProjectId(), existingExpense.getType(),
+                    existingExpense.getAmount(), existingExpense.getStatus(), null);
+            budgetLedgerService.recordTransition(
+                    expenseDTO.getProjectId() != null ? expenseDTO.getProjectId() : existingExpense.getProjectId(),
+                    expenseDTO.getType() != null ? expenseDTO.getType() : existingExpense.getType(),
+                    expenseDTO.getAmount() != null ? expenseDTO.getAmount() : existingExpense.getAmount(),
+                    null, existingExpense.getStatus());
+        }
+        
         // 更新附件：先删除原有附件，再添加新附件
         if (expenseDTO.getAttachments() != null) {
             // 删除原有附件
@@ -206,37 +276,11 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("项目未设置预算科目，无法申请经费");
         }
         
-        // 获取项目已使用的经费（按类型）
-        List<Map<String, Object>> expenseStats = expenseMapper.getExpenseStatsByProject(project.getId());
-        Map<String, BigDecimal> usedAmountByType = new HashMap<>();
-        
-        // 将经费使用情况转换为Map便于查找
-        if (expenseStats != null) {
-            for (Map<String, Object> stat : expenseStats) {
-                String type = (String) stat.get("type");
-                BigDecimal usedAmount = (BigDecimal) stat.get("amount");
-                if (type != null && usedAmount != null) {
-                    usedAmountByType.put(type, usedAmount);
-                }
-            }
-        }
-        
         // 找到与申请类型对应的预算科目
         String categoryName = null;
         BigDecimal budgetAmount = null;
         
-        // 经费类型与预算科目名称的映射关系
-        Map<String, String> typeToCategoryMap = new HashMap<>();
-        typeToCategoryMap.put("equipment", "设备费");
-        typeToCategoryMap.put("material", "材料费");
-        typeToCategoryMap.put("test", "测试化验费");
-        typeToCategoryMap.put("travel", "差旅费");
-        typeToCategoryMap.put("meeting", "会议费");
-        typeToCategoryMap.put("labor", "劳务费");
-        typeToCategoryMap.put("consultation", "专家咨询费");
-        typeToCategoryMap.put("other", "其他费用");
-        
-        String expectedCategory = typeToCategoryMap.get(expenseType);
+        String expectedCategory = TYPE_TO_CATEGORY.get(expenseType);
         
         for (ProjectDTO.BudgetItemDTO item : budgetItems) {
             if (item.getCategory().equals(expectedCategory)) {
@@ -250,8 +294,8 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("申请的经费类型 [" + expenseType + "] 不在项目预算科目中，请选择项目预算中已有的科目");
         }
         
-        // 计算已使用的预算
-        BigDecimal usedAmount = usedAmountByType.getOrDefault(expenseType, BigDecimal.ZERO);
+        // 从预算台账读取该科目已使用的预算
+        BigDecimal usedAmount = budgetLedgerService.getPaidAmount(project.getId(), expenseType);
         
         // 如果是更新，且类型未变，则需要减去原有申请的金额
         if (existingExpense != null && expenseType.equals(existingExpense.getType())) {
@@ -313,6 +357,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         
         // 更新审核状态
         expenseMapper.updateStatus(id, status, currentUserId, currentUserName, comment);
+        budgetLedgerService.recordTransition(existingExpense.getProjectId(), existingExpense.getType(),
+                existingExpense.getAmount(), existingExpense.getStatus(), status);
         
         return getExpenseById(id);
     }
@@ -337,28 +383,63 @@ public class ExpenseServiceImpl implements ExpenseService {
         // 获取当前用户ID
         String username = SecurityUtils.getCurrentUsername();
         User currentUser = userService.getUserByUsername(username);
-        Long currentUserId = currentUser.getId();
         
-        // 查询当前用户的所有经费申请
-        List<ExpenseDTO> allExpenses = expenseMapper.selectByUserId(currentUserId);
+        // 构建查询条件，限定为当前用户的申请
+        Map<String, Object> queryParams = buildQueryParams(params);
+        queryParams.put("applyUserId", currentUser.getId());
+        
+        // 分页查询
+        return queryExpensePage(queryParams, pageNum, pageSize);
+    }
+    
+    @Override
+    public PageDTO<ExpenseDTO> getAllExpensesByCursor(Map<String, Object> params, String cursor, int limit) {
+        return queryExpenseCursorPage(buildQueryParams(params), cursor, limit);
+    }
+    
+    @Override
+    public PageDTO<ExpenseDTO> getCurrentUserExpensesByCursor(Map<String, Object> params, String cursor, int limit) {
+        // 获取当前用户ID
+        String username = SecurityUtils.getCurrentUsername();
+        User currentUser = userService.getUserByUsername(username);
         
-        // 筛选符合条件的经费申请
-        List<ExpenseDTO> filteredExpenses = filterExpenses(allExpenses, params);
+        Map<String, Object> queryParams = buildQueryParams(params);
+        queryParams.put("applyUserId", currentUser.getId());
+        return queryExpenseCursorPage(queryParams, cursor, limit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportExpenses(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException {
+        Map<String, Object> queryParams = buildQueryParams(params);
+        if (currentUserOnly) {
+            User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+            queryParams.put("applyUserId", currentUser.getId());
+        }
         
-        // 分页处理
-        return paginateExpenses(filteredExpenses, pageNum, pageSize);
+        writer.writeHeader(EXPORT_HEADERS);
+        long rows = 0;
+        // 游标遍历期间连接被结果集占用，循环内不能再查询数据库
+        try (Cursor<ExpenseDTO> cursor = expenseMapper.selectForExport(queryParams)) {
+            for (ExpenseDTO expense : cursor) {
+                writer.writeRow(Arrays.asList(expense.getId(), expense.getTitle(), expense.getCategory(),
+                        expense.getProjectId(), expense.getProjectName(), expense.getType(), expense.getAmount(),
+                        expense.getApplyDate(), expense.getPurpose(), expense.getReason(), expense.getApplyUserName(),
+                        expense.getStatus(), expense.getAuditUserName(), expense.getAuditTime(),
+                        expense.getAuditComment(), expense.getCreateTime()));
+                rows++;
+            }
+        }
+        return rows;
     }
     
     @Override
     public PageDTO<ExpenseDTO> getAllExpenses(Map<String, Object> params, int pageNum, int pageSize) {
-        // 查询所有经费申请
-        List<ExpenseDTO> allExpenses = expenseMapper.selectAll();
+        // 构建查询条件
+        Map<String, Object> queryParams = buildQueryParams(params);
         
-        // 筛选符合条件的经费申请
-        List<ExpenseDTO> filteredExpenses = filterExpenses(allExpenses, params);
-        
-        // 分页处理
-        return paginateExpenses(filteredExpenses, pageNum, pageSize);
+        // 分页查询
+        return queryExpensePage(queryParams, pageNum, pageSize);
     }
     
     @Override
@@ -375,6 +456,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         
         // 删除经费申请
         expenseMapper.deleteById(id);
+        budgetLedgerService.recordTransition(existingExpense.getProjectId(), existingExpense.getType(),
+                existingExpense.getAmount(), existingExpense.getStatus(), null);
     }
     
     @Override
@@ -391,20 +474,6 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("只有已批准的经费申请才能进行支付操作");
         }
         
-        // 获取项目信息
-        ProjectDTO project = projectService.getProjectById(expense.getProjectId());
-        if (project == null) {
-            throw new RuntimeException("项目不存在");
-        }
-        
-        // 计算支付此申请后的已用经费
-        java.math.BigDecimal newUsedBudget = project.getUsedBudget().add(expense.getAmount());
-        
-        // 检查是否超过总预算
-        if (newUsedBudget.compareTo(project.getBudget()) > 0) {
-            throw new RuntimeException("经费申请金额超过项目剩余预算，无法支付");
-        }
-        
         // 更新经费申请状态
         String newStatus = "paid";
         
@@ -413,11 +482,20 @@ public class ExpenseServiceImpl implements ExpenseService {
             newStatus = "receipt_pending";
         }
         
-        expenseMapper.updateStatus(id, newStatus, null, null, "系统自动更新：经费已支付" + 
+        // 先按原状态更新，并发支付同一申请时只有一个请求能更新成功，避免重复预留经费
+        int updated = expenseMapper.transitionStatus(id, "approved", newStatus, null, null, "系统自动更新：经费已支付" + 
                                   ("receipt_pending".equals(newStatus) ? "，请在项目结束前提交报销凭证" : ""));
+        if (updated == 0) {
+            throw new BusinessException(409, "经费申请状态已变化，请刷新后重试");
+        }
         
-        // 更新项目已使用经费
-        projectMapper.updateUsedBudget(expense.getProjectId(), expense.getAmount());
+        // 原子预留项目经费，剩余经费不足时抛出异常，事务回滚状态更新
+        projectService.reserveBudget(expense.getProjectId(), expense.getAmount());
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), newStatus);
+        if ("receipt_pending".equals(newStatus)) {
+            scheduleReceiptDeadlines(Collections.singletonList(expense));
+        }
         
 
         // 查询所有已支付的借款类型经费申请
@@ -426,6 +504,323 @@ public class ExpenseServiceImpl implements ExpenseService {
         return getExpenseById(id);
     }
     
+    @Override
+    @Transactional
+    public void repayExpense(Long id) {
+        ExpenseDTO expense = expenseMapper.selectById(id);
+        if (expense == null) {
+            throw new BusinessException(404, "经费申请不存在");
+        }
+        
+        // 检查是否为待自行还款状态
+        if (!"repayment_pending".equals(expense.getStatus())) {
+            throw new BusinessException(400, "只有待自行还款状态的申请才能执行此操作");
+        }
+        
+        // 检查当前用户是否为申请人
+        User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+        if (!expense.getApplyUserId().equals(currentUser.getId())) {
+            throw new BusinessException(403, "只有申请人才能执行还款操作");
+        }
+        
+        // 按原状态更新，重复提交还款时不会重复释放经费
+        if (expenseMapper.transitionStatus(id, "repayment_pending", "repaid", null, null, "项目负责人已完成还款") == 0) {
+            throw new BusinessException(409, "经费申请状态已变化，请刷新后重试");
+        }
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), "repaid");
+        
+        // 减少项目已使用预算
+        projectMapper.updateUsedBudget(expense.getProjectId(), expense.getAmount().negate());
+        projectAggregateCache.evict(expense.getProjectId());
+    }
+    
+    @Override
+    @Transactional
+    public void submitReceipt(Long id, List<AttachmentDTO> attachments) {
+        ExpenseDTO expense = expenseMapper.selectById(id);
+        if (expense == null) {
+            throw new BusinessException(404, "经费申请不存在");
+        }
+        
+        // 检查是否为待提交报销凭证状态
+        if (!"receipt_pending".equals(expense.getStatus())) {
+            throw new BusinessException(400, "只有待提交报销凭证状态的申请才能执行此操作");
+        }
+        
+        // 检查当前用户是否为申请人
+        User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+        if (!expense.getApplyUserId().equals(currentUser.getId())) {
+            throw new BusinessException(403, "只有申请人才能提交报销凭证");
+        }
+        
+        // 检查是否提供了附件
+        if (attachments == null || attachments.isEmpty()) {
+            throw new BusinessException(400, "请提供报销凭证附件");
+        }
+        
+        // 更新状态为报销凭证待审核
+        if (expenseMapper.transitionStatus(id, "receipt_pending", "receipt_audit", null, null, "已提交报销凭证，等待审核") == 0) {
+            throw new BusinessException(409, "经费申请状态已变化，请刷新后重试");
+        }
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), "receipt_audit");
+        
+        // 保存附件
+        for (AttachmentDTO attachment : attachments) {
+            attachment.setExpenseId(id);
+        }
+        attachmentMapper.batchInsert(attachments, id);
+    }
+    
+    @Override
+    @Transactional
+    public void auditReceipt(Long id, String status, String comment) {
+        ExpenseDTO expense = expenseMapper.selectById(id);
+        if (expense == null) {
+            throw new BusinessException(404, "经费申请不存在");
+        }
+        
+        // 检查是否为报销凭证待审核状态
+        if (!"receipt_audit".equals(expense.getStatus())) {
+            throw new BusinessException(400, "只有报销凭证待审核状态的申请才能执行此操作");
+        }
+        
+        // 设置新状态，拒绝则需要负责人自行还款
+        String newStatus;
+        if ("approved".equals(status)) {
+            newStatus = "completed";
+        } else if ("rejected".equals(status)) {
+            newStatus = "repayment_pending";
+        } else {
+            throw new BusinessException(400, "无效的审核结果");
+        }
+        
+        User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+        if (expenseMapper.transitionStatus(id, "receipt_audit", newStatus,
+                currentUser.getId(), currentUser.getRealName(), comment) == 0) {
+            throw new BusinessException(409, "经费申请状态已变化，请刷新后重试");
+        }
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), newStatus);
+    }
+    
+    @Override
+    @Transactional
+    public BatchResultDTO batchAuditExpenses(List<Long> ids, String status, String comment) {
+        if (!"approved".equals(status) && !"rejected".equals(status)) {
+            throw new RuntimeException("审核状态参数错误");
+        }
+        List<Long> batchIds = normalizeBatchIds(ids);
+        
+        // 获取当前用户信息
+        User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+        if (currentUser == null) {
+            throw new RuntimeException("未找到当前登录用户信息");
+        }
+        
+        // 一次查询并锁定所有经费申请
+        Map<Long, ExpenseDTO> expenses = selectExpensesForUpdate(batchIds);
+        
+        // 批准时一次查询涉及的项目，按项目累计本批次已批准金额，检查是否超过项目剩余预算
+        Map<Long, ProjectDTO> projects = "approved".equals(status)
+                ? selectProjectBudgets(expenses.values()) : Collections.emptyMap();
+        Map<Long, BigDecimal> usedBudgetByProject = new HashMap<>();
+        
+        Map<Long, String> failures = new HashMap<>();
+        List<ExpenseDTO> accepted = new ArrayList<>();
+        for (Long id : batchIds) {
+            ExpenseDTO expense = expenses.get(id);
+            if (expense == null) {
+                failures.put(id, "经费申请不存在");
+                continue;
+            }
+            if (!"pending".equals(expense.getStatus())) {
+                failures.put(id, "只有待审核状态的经费申请才能审核");
+                continue;
+            }
+            if ("approved".equals(status)) {
+                ProjectDTO project = projects.get(expense.getProjectId());
+                if (project == null) {
+                    failures.put(id, "项目不存在");
+                    continue;
+                }
+                BigDecimal usedBudget = usedBudgetByProject.getOrDefault(project.getId(), nullToZero(project.getUsedBudget()));
+                BigDecimal newUsedBudget = usedBudget.add(expense.getAmount());
+                if (newUsedBudget.compareTo(project.getBudget()) > 0) {
+                    failures.put(id, "经费申请金额超过项目剩余预算，无法批准。剩余预算：" + project.getBudget().subtract(usedBudget));
+                    continue;
+                }
+                usedBudgetByProject.put(project.getId(), newUsedBudget);
+            }
+            accepted.add(expense);
+        }
+        
+        // 通过校验的记录用一条语句批量更新状态
+        if (!accepted.isEmpty()) {
+            int updated = expenseMapper.batchUpdateStatus(idsOf(accepted), "pending", status,
+                    currentUser.getId(), currentUser.getRealName(), comment);
+            if (updated != accepted.size()) {
+                throw new RuntimeException("批量审核失败，部分经费申请状态已变化，请刷新后重试");
+            }
+            budgetLedgerService.recordTransitions(accepted, status);
+        }
+        
+        logger.info("批量审核经费申请: 请求 {} 条, 成功 {} 条, 结果 {}", batchIds.size(), accepted.size(), status);
+        return buildBatchResult(batchIds, accepted, failures, expense -> status);
+    }
+    
+    @Override
+    @Transactional
+    public BatchResultDTO batchPayExpenses(List<Long> ids) {
+        List<Long> batchIds = normalizeBatchIds(ids);
+        
+        // 一次查询并锁定所有经费申请，按项目分组
+        Map<Long, ExpenseDTO> expenses = selectExpensesForUpdate(batchIds);
+        Map<Long, String> failures = new HashMap<>();
+        Map<Long, List<ExpenseDTO>> expensesByProject = new LinkedHashMap<>();
+        for (Long id : batchIds) {
+            ExpenseDTO expense = expenses.get(id);
+            if (expense == null) {
+                failures.put(id, "经费申请不存在");
+            } else if (!"approved".equals(expense.getStatus())) {
+                failures.put(id, "只有已批准的经费申请才能进行支付操作");
+            } else {
+                expensesByProject.computeIfAbsent(expense.getProjectId(), k -> new ArrayList<>()).add(expense);
+            }
+        }
+        
+        // 每个项目先尝试一次性预留本批次总金额，不足时再逐条预留，尽可能多地支付
+        List<ExpenseDTO> paid = new ArrayList<>();
+        for (Map.Entry<Long, List<ExpenseDTO>> entry : expensesByProject.entrySet()) {
+            Long projectId = entry.getKey();
+            List<ExpenseDTO> projectExpenses = entry.getValue();
+            BigDecimal total = BigDecimal.ZERO;
+            for (ExpenseDTO expense : projectExpenses) {
+                total = total.add(expense.getAmount());
+            }
+            
+            int reservedCount = 0;
+            if (projectMapper.reserveBudget(projectId, total) > 0) {
+                paid.addAll(projectExpenses);
+                reservedCount = projectExpenses.size();
+            } else {
+                for (ExpenseDTO expense : projectExpenses) {
+                    if (projectMapper.reserveBudget(projectId, expense.getAmount()) > 0) {
+                        paid.add(expense);
+                        reservedCount++;
+                    } else {
+                        failures.put(expense.getId(), "经费申请金额超过项目剩余预算，无法支付");
+                    }
+                }
+            }
+            if (reservedCount > 0) {
+                projectAggregateCache.evict(projectId);
+            }
+        }
+        
+        // 按支付后的状态分组批量更新：借款类型进入待提交报销凭证状态，其余为已支付
+        List<ExpenseDTO> receiptPending = new ArrayList<>();
+        List<ExpenseDTO> paidDirectly = new ArrayList<>();
+        for (ExpenseDTO expense : paid) {
+            if ("advance".equals(expense.getCategory())) {
+                receiptPending.add(expense);
+            } else {
+                paidDirectly.add(expense);
+            }
+        }
+        applyPaidStatus(paidDirectly, "paid", "系统自动更新：经费已支付");
+        applyPaidStatus(receiptPending, "receipt_pending", "系统自动更新：经费已支付，请在项目结束前提交报销凭证");
+        scheduleReceiptDeadlines(receiptPending);
+        
+        logger.info("批量支付经费申请: 请求 {} 条, 成功 {} 条, 涉及 {} 个项目", batchIds.size(), paid.size(), expensesByProject.size());
+        return buildBatchResult(batchIds, paid, failures,
+                expense -> "advance".equals(expense.getCategory()) ? "receipt_pending" : "paid");
+    }
+    
+    private void applyPaidStatus(List<ExpenseDTO> expenses, String newStatus, String comment) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        int updated = expenseMapper.batchUpdateStatus(idsOf(expenses), "approved", newStatus, null, null, comment);
+        if (updated != expenses.size()) {
+            throw new RuntimeException("批量支付失败，部分经费申请状态已变化，请刷新后重试");
+        }
+        budgetLedgerService.recordTransitions(expenses, newStatus);
+    }
+    
+    /**
+     * 校验并去重批量操作的ID列表，保持请求中的顺序
+     */
+    private List<Long> normalizeBatchIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("请选择要处理的经费申请");
+        }
+        List<Long> batchIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        batchIds.remove(null);
+        if (batchIds.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("单次最多处理 " + MAX_BATCH_SIZE + " 条经费申请");
+        }
+        return batchIds;
+    }
+    
+    private Map<Long, ExpenseDTO> selectExpensesForUpdate(List<Long> ids) {
+        Map<Long, ExpenseDTO> expenses = new HashMap<>();
+        for (ExpenseDTO expense : expenseMapper.selectByIdsForUpdate(ids)) {
+            expenses.put(expense.getId(), expense);
+        }
+        return expenses;
+    }
+    
+    private Map<Long, ProjectDTO> selectProjectBudgets(Collection<ExpenseDTO> expenses) {
+        Set<Long> projectIds = new LinkedHashSet<>();
+        for (ExpenseDTO expense : expenses) {
+            if (expense.getProjectId() != null) {
+                projectIds.add(expense.getProjectId());
+            }
+        }
+        Map<Long, ProjectDTO> projects = new HashMap<>();
+        if (!projectIds.isEmpty()) {
+            for (ProjectDTO project : projectMapper.selectBudgetsByIds(new ArrayList<>(projectIds))) {
+                projects.put(project.getId(), project);
+            }
+        }
+        return projects;
+    }
+    
+    private List<Long> idsOf(List<ExpenseDTO> expenses) {
+        List<Long> ids = new ArrayList<>(expenses.size());
+        for (ExpenseDTO expense : expenses) {
+            ids.add(expense.getId());
+        }
+        return ids;
+    }
+    
+    private BigDecimal nullToZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+    
+    /**
+     * 按请求顺序组装每条记录的处理结果
+     */
+    private BatchResultDTO buildBatchResult(List<Long> batchIds, List<ExpenseDTO> succeeded,
+                                            Map<Long, String> failures, Function<ExpenseDTO, String> statusOf) {
+        Map<Long, ExpenseDTO> succeededById = new HashMap<>();
+        for (ExpenseDTO expense : succeeded) {
+            succeededById.put(expense.getId(), expense);
+        }
+        BatchResultDTO result = new BatchResultDTO();
+        for (Long id : batchIds) {
+            ExpenseDTO expense = succeededById.get(id);
+            if (expense != null) {
+                result.addSuccess(id, statusOf.apply(expense));
+            } else {
+                result.addFailure(id, failures.getOrDefault(id, "处理失败"));
+            }
+        }
+        return result;
+    }
+    
     @Override
     @Transactional
     public ExpenseDTO updateToReceiptPending(Long id) {
@@ -446,6 +841,9 @@ public class ExpenseServiceImpl implements ExpenseService {
         
         // 更新状态为待提交报销凭证
         expenseMapper.updateStatus(id, "receipt_pending", null, null, "系统自动更新：请在项目结束前提交报销凭证");
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), "receipt_pending");
+        scheduleReceiptDeadlines(Collections.singletonList(expense));
         
         return getExpenseById(id);
     }
@@ -477,6 +875,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         // 更新状态为负责人自行还款
         expenseMapper.updateStatus(id, "repayment_pending", null, null, 
             "系统自动更新：项目已结束，未提交报销凭证，请负责人自行还款");
+        budgetLedgerService.recordTransition(expense.getProjectId(), expense.getType(), expense.getAmount(),
+                expense.getStatus(), "repayment_pending");
         
         return getExpenseById(id);
     }
@@ -484,152 +884,189 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Override
     public void checkAdvanceExpensesStatus() {
         logger.info("开始检查已支付的借款类型经费申请");
-        // 查询所有已支付的借款类型经费申请
-        List<ExpenseDTO> paidAdvances = expenseMapper.selectPaidAdvanceExpenses();
-        
-        logger.info("找到 {} 条已支付的借款申请", paidAdvances.size());
-        // 将所有已支付的借款更新为待提交报销凭证状态
-        for (ExpenseDTO expense : paidAdvances) {
-            try {
-                updateToReceiptPending(expense.getId());
-                logger.info("已将经费申请ID {} 更新为待提交报销凭证状态", expense.getId());
-            } catch (Exception e) {
-                logger.error("更新经费申请ID {} 状态失败: {}", expense.getId(), e.getMessage());
-            }
-        }
+        // 分批将已支付的借款更新为待提交报销凭证状态
+        chunkedJobRunner.run("advanceToReceiptPending",
+                expenseMapper::selectPaidAdvanceExpenseChunk,
+                ExpenseDTO::getId,
+                expenses -> {
+                    int rows = batchTransition(expenses, "paid", "receipt_pending", "系统自动更新：请在项目结束前提交报销凭证");
+                    scheduleReceiptDeadlines(expenses);
+                    return rows;
+                });
     }
     
     @Override
     public void checkReceiptPendingExpenses() {
         logger.info("开始检查待提交报销凭证的经费申请");
-        // 查询所有待提交报销凭证的经费申请
-        List<ExpenseDTO> receiptPendingExpenses = expenseMapper.selectReceiptPendingExpenses();
-        
-        logger.info("找到 {} 条待提交报销凭证的借款申请", receiptPendingExpenses.size());
-        // 获取当前日期
-        LocalDate today = LocalDate.now();
-        
-        // 检查项目是否已结束，如果已结束，更新为负责人自行还款状态
-        for (ExpenseDTO expense : receiptPendingExpenses) {
-            try {
-                // 直接使用查询结果中的项目结束日期
-                if (expense.getProjectEndDate() != null && today.isAfter(expense.getProjectEndDate())) {
-                    updateToRepaymentPending(expense.getId());
-                    logger.info("已将经费申请ID {} 更新为负责人自行还款状态，因为项目已结束（结束日期：{}）", 
-                               expense.getId(), expense.getProjectEndDate());
-                } else {
-                    logger.debug("经费申请ID {} 对应项目未结束或结束日期为空（结束日期：{}）", 
-                               expense.getId(), expense.getProjectEndDate());
-                }
-            } catch (Exception e) {
-                logger.error("更新经费申请ID {} 状态失败: {}", expense.getId(), e.getMessage(), e);
+        // 项目已结束的在数据库中筛选，分批更新为负责人自行还款状态
+        chunkedJobRunner.run("receiptPendingToRepayment",
+                expenseMapper::selectOverdueReceiptPendingChunk,
+                ExpenseDTO::getId,
+                expenses -> batchTransition(expenses, "receipt_pending", "repayment_pending",
+                        "系统自动更新：项目已结束，未提交报销凭证，请负责人自行还款"));
+    }
+    
+    @Override
+    @Transactional
+    public int expireReceiptPendingByProject(Long projectId) {
+        List<ExpenseDTO> expenses = expenseMapper.selectOverdueReceiptPendingByProject(projectId);
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        return batchTransition(expenses, "receipt_pending", "repayment_pending",
+                "系统自动更新：项目已结束，未提交报销凭证，请负责人自行还款");
+    }
+    
+    /**
+     * 借款进入待提交报销凭证状态后重新登记所属项目的到期事件
+     * 项目的到期事件可能已经执行过或超出预加载范围，重新登记后到期时（或项目已结束时立即）转为自行还款，不必等待夜间任务
+     */
+    private void scheduleReceiptDeadlines(Collection<ExpenseDTO> expenses) {
+        Set<Long> projectIds = new LinkedHashSet<>();
+        for (ExpenseDTO expense : expenses) {
+            if (expense.getProjectId() != null) {
+                projectIds.add(expense.getProjectId());
             }
         }
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        for (ProjectDTO project : projectMapper.selectEndDatesByIds(new ArrayList<>(projectIds))) {
+            deadlineScheduler.schedule(project.getId(), project.getEndDate());
+        }
     }
     
     /**
-     * 根据查询参数筛选经费申请
-     * @param expenses 经费申请列表
+     * 批量更新一批经费申请的状态并同步预算台账
+     * @return 实际更新的行数
+     */
+    private int batchTransition(List<ExpenseDTO> expenses, String fromStatus, String toStatus, String comment) {
+        int rows = expenseMapper.batchUpdateStatus(idsOf(expenses), fromStatus, toStatus, null, null, comment);
+        budgetLedgerService.recordTransitions(expenses, toStatus);
+        return rows;
+    }
+    
+    /**
+     * 根据前端查询参数构建SQL查询条件
      * @param params 查询参数
-     * @return 筛选后的经费申请列表
+     * @return SQL查询条件
      */
-    private List<ExpenseDTO> filterExpenses(List<ExpenseDTO> expenses, Map<String, Object> params) {
+    private Map<String, Object> buildQueryParams(Map<String, Object> params) {
+        Map<String, Object> queryParams = new HashMap<>();
         if (params == null || params.isEmpty()) {
-            return expenses;
-        }
-        
-        return expenses.stream()
-                .filter(expense -> {
-                    boolean match = true;
-                    
-                    // 按标题筛选
-                    if (params.containsKey("title")) {
-                        String title = (String) params.get("title");
-                        if (title != null && !title.isEmpty()) {
-                            match = match && expense.getTitle().contains(title);
-                        }
-                    }
-                    
-                    // 按项目ID筛选
-                    if (params.containsKey("projectId")) {
-                        Object projectIdObj = params.get("projectId");
-                        if (projectIdObj != null) {
-                            Long projectId = null;
-                            if (projectIdObj instanceof String) {
-                                try {
-                                    projectId = Long.parseLong((String) projectIdObj);
-                                } catch (NumberFormatException e) {
-                                    // 忽略转换错误
-                                }
-                            } else if (projectIdObj instanceof Number) {
-                                projectId = ((Number) projectIdObj).longValue();
-                            }
-                            
-                            if (projectId != null) {
-                                match = match && expense.getProjectId().equals(projectId);
-                            }
-                        }
-                    }
-                    
-                    // 按类型筛选
-                    if (params.containsKey("type")) {
-                        String type = (String) params.get("type");
-                        if (type != null && !type.isEmpty()) {
-                            match = match && expense.getType().equals(type);
-                        }
-                    }
-                    
-                    // 按状态筛选
-                    if (params.containsKey("status")) {
-                        String status = (String) params.get("status");
-                        if (status != null && !status.isEmpty()) {
-                            match = match && expense.getStatus().equals(status);
-                        }
-                    }
-                    
-                    // 按类别筛选
-                    if (params.containsKey("category")) {
-                        String category = (String) params.get("category");
-                        if (category != null && !category.isEmpty()) {
-                            match = match && expense.getCategory().equals(category);
-                        }
-                    }
-                    
-                    return match;
-                })
-                .collect(Collectors.toList());
+            return queryParams;
+        }
+        
+        queryParams.put("title", params.get("title"));
+        queryParams.put("type", params.get("type"));
+        queryParams.put("status", params.get("status"));
+        queryParams.put("category", params.get("category"));
+        queryParams.put("startDate", params.get("startDate"));
+        queryParams.put("endDate", params.get("endDate"));
+        
+        // 项目ID转换为Long，无法转换时忽略该条件
+        Object projectIdObj = params.get("projectId");
+        if (projectIdObj instanceof String) {
+            String projectIdStr = ((String) projectIdObj).trim();
+            if (!projectIdStr.isEmpty()) {
+                try {
+                    queryParams.put("projectId", Long.parseLong(projectIdStr));
+                } catch (NumberFormatException e) {
+                    // 忽略转换错误
+                }
+            }
+        } else if (projectIdObj instanceof Number) {
+            queryParams.put("projectId", ((Number) projectIdObj).longValue());
+        }
+        
+        return queryParams;
     }
     
     /**
-     * 分页处理经费申请列表
-     * @param expenses 经费申请列表
+     * 按条件分页查询经费申请列表
+     * @param queryParams SQL查询条件
      * @param pageNum 页码
      * @param pageSize 每页大小
      * @return 分页后的经费申请列表
      */
-    private PageDTO<ExpenseDTO> paginateExpenses(List<ExpenseDTO> expenses, int pageNum, int pageSize) {
-        // 计算总记录数
-        long total = expenses.size();
-        
-        // 分页处理
-        int fromIndex = (pageNum - 1) * pageSize;
-        if (fromIndex >= total) {
-            // 如果起始索引超出总数，返回空列表
+    private PageDTO<ExpenseDTO> queryExpensePage(Map<String, Object> queryParams, int pageNum, int pageSize) {
+        if (pageNum < 1) {
+            pageNum = 1;
+        }
+        if (pageSize < 1) {
+            pageSize = 10;
+        }
+        
+        // 查询总记录数
+        long total = expenseMapper.countByParams(queryParams);
+        int offset = (pageNum - 1) * pageSize;
+        if (total == 0 || offset >= total) {
             return new PageDTO<>(new ArrayList<>(), total, pageNum, pageSize);
         }
         
-        int toIndex = Math.min(fromIndex + pageSize, (int) total);
-        List<ExpenseDTO> pagedExpenses = expenses.subList(fromIndex, toIndex);
+        // 查询当前页数据
+        queryParams.put("offset", offset);
+        queryParams.put("limit", pageSize);
+        List<ExpenseDTO> pagedExpenses = expenseMapper.selectByParams(queryParams);
         
-        // 为每个经费申请查询附件
-        for (ExpenseDTO expense : pagedExpenses) {
-            List<AttachmentDTO> attachments = attachmentMapper.selectByExpenseId(expense.getId());
-            expense.setAttachments(attachments);
-        }
+        // 批量查询当前页附件
+        fillAttachments(pagedExpenses);
         
         // 返回分页结果
         return new PageDTO<>(pagedExpenses, total, pageNum, pageSize);
     }
+    
+    /**
+     * 按游标查询经费申请列表，多查一条用于判断是否还有下一页
+     * @param queryParams SQL查询条件
+     * @param cursor 游标
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    private PageDTO<ExpenseDTO> queryExpenseCursorPage(Map<String, Object> queryParams, String cursor, int limit) {
+        limit = CursorUtils.normalizeLimit(limit);
+        queryParams.put("afterId", CursorUtils.decode(cursor));
+        queryParams.put("limit", limit + 1);
+        List<ExpenseDTO> expenses = expenseMapper.selectByCursor(queryParams);
+        
+        String nextCursor = null;
+        if (expenses.size() > limit) {
+            expenses = expenses.subList(0, limit);
+            nextCursor = CursorUtils.encode(expenses.get(limit - 1).getId());
+        }
+        
+        // 批量查询当前页附件
+        fillAttachments(expenses);
+        
+        return PageDTO.ofCursor(expenses, limit, nextCursor);
+    }
+    
+    /**
+     * 批量加载经费申请附件，一页数据只发起一次附件查询
+     * @param expenses 经费申请列表
+     */
+    private void fillAttachments(List<ExpenseDTO> expenses) {
+        if (expenses == null || expenses.isEmpty()) {
+            return;
+        }
+        
+        List<Long> expenseIds = new ArrayList<>(expenses.size());
+        for (ExpenseDTO expense : expenses) {
+            expenseIds.add(expense.getId());
+        }
+        
+        // 按经费申请ID分组
+        Map<Long, List<AttachmentDTO>> attachmentMap = new HashMap<>();
+        for (AttachmentDTO attachment : attachmentMapper.selectByExpenseIds(expenseIds)) {
+            attachmentMap.computeIfAbsent(attachment.getExpenseId(), k -> new ArrayList<>()).add(attachment);
+        }
+        
+        for (ExpenseDTO expense : expenses) {
+            List<AttachmentDTO> attachments = attachmentMap.get(expense.getId());
+            expense.setAttachments(attachments != null ? attachments : new ArrayList<>());
+        }
+        logger.debug("批量加载附件: 经费申请{}条, 附件查询1次, 附件{}个", expenses.size(), attachmentMap.values().stream().mapToInt(List::size).sum());
+    }
 
     /**
      * 获取项目的经费支出列表
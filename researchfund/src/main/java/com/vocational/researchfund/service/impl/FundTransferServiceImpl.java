@@ -4,16 +4,23 @@ import com.vocational.researchfund.dto.FundTransferDTO;
 import com.vocational.researchfund.dto.PageDTO;
 import com.vocational.researchfund.dto.ProjectDTO;
 import com.vocational.researchfund.entity.User;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.export.TabularWriter;
 import com.vocational.researchfund.mapper.FundTransferMapper;
 import com.vocational.researchfund.service.FundTransferService;
 import com.vocational.researchfund.service.ProjectService;
 import com.vocational.researchfund.service.UserService;
+import com.vocational.researchfund.utils.CursorUtils;
 import com.vocational.researchfund.utils.SecurityUtils;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -26,6 +33,12 @@ import java.util.Calendar;
 @Service
 public class FundTransferServiceImpl implements FundTransferService {
     
+    /**
+     * 导出列名
+     */
+    private static final List<String> EXPORT_HEADERS = Arrays.asList("ID", "结转标题", "项目ID", "项目名称", "金额",
+            "申请日期", "结转原因", "转出年度", "转入年度", "申请人", "状态", "审核人", "审核时间", "审核意见", "创建时间");
+    
     @Autowired
     private FundTransferMapper fundTransferMapper;
     
@@ -149,49 +162,20 @@ public class FundTransferServiceImpl implements FundTransferService {
         String username = SecurityUtils.getCurrentUsername();
         User currentUser = userService.getUserByUsername(username);
         
-        // 如果审核通过，先检查项目的剩余经费是否足够
-        if ("approved".equals(status)) {
-            try {
-                // 获取项目信息
-                ProjectDTO project = projectService.getProjectById(transfer.getProjectId());
-                if (project == null) {
-                    throw new RuntimeException("项目不存在，无法更新经费结余");
-                }
-                
-                // 检查剩余经费是否充足
-                // 计算项目剩余预算 = 总预算 - 已用预算
-                java.math.BigDecimal remainingBudget = project.getBudget().subtract(project.getUsedBudget());
-                
-                // 判断剩余预算是否足够支付结转金额
-                if (remainingBudget.compareTo(transfer.getAmount()) < 0) {
-                    throw new RuntimeException("项目剩余经费不足，无法进行结转。项目剩余预算：" + remainingBudget + "，结转申请金额：" + transfer.getAmount());
-                }
-            } catch (Exception e) {
-                if (e.getMessage().contains("剩余经费不足")) {
-                    throw e; // 直接重新抛出剩余经费不足的异常
-                } else {
-                    throw new RuntimeException("检查项目经费失败: " + e.getMessage());
-                }
-            }
+        // 先按原状态更新审核状态，并发审核同一结转时只有一个请求能更新成功，避免重复预留经费
+        int updated = fundTransferMapper.transitionStatus(id, "pending", status,
+                currentUser.getId(), currentUser.getRealName(), comment);
+        if (updated == 0) {
+            throw new BusinessException(409, "经费结转状态已变化，请刷新后重试");
         }
         
-        // 更新审核状态
-        fundTransferMapper.updateStatus(id, status, currentUser.getId(), currentUser.getRealName(), comment);
-        
-        // 如果审核通过，更新项目的经费结余
+        // 如果审核通过，原子预留结转金额：剩余经费检查和已用预算更新在同一条语句中完成，
+        // 多个审核人并发审批同一项目时不会超支；预留失败时事务回滚审核状态
         if ("approved".equals(status)) {
-            try {
-                // 获取项目信息
-                ProjectDTO project = projectService.getProjectById(transfer.getProjectId());
-                
-                // 更新项目已使用预算，增加结转金额
-                projectService.updateUsedBudget(project.getId(), transfer.getAmount());
-                
-                System.out.println(String.format("项目ID=%d, 名称=%s 的经费结余已更新，结转金额: %s", 
-                    project.getId(), project.getName(), transfer.getAmount()));
-            } catch (Exception e) {
-                throw new RuntimeException("更新项目经费结余失败: " + e.getMessage());
-            }
+            ProjectDTO project = projectService.reserveBudget(transfer.getProjectId(), transfer.getAmount());
+            
+            System.out.println(String.format("项目ID=%d, 名称=%s 的经费结余已更新，结转金额: %s", 
+                project.getId(), project.getName(), transfer.getAmount()));
         }
         
         return getTransferById(id);
@@ -229,6 +213,43 @@ public class FundTransferServiceImpl implements FundTransferService {
         return paginateTransfers(transfers, pageNum, pageSize);
     }
     
+    @Override
+    public PageDTO<FundTransferDTO> getCurrentUserTransfersByCursor(Map<String, Object> params, String cursor, int limit) {
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        queryParams.put("applyUserId", SecurityUtils.getCurrentUserId());
+        return queryTransferCursorPage(queryParams, cursor, limit);
+    }
+    
+    @Override
+    public PageDTO<FundTransferDTO> getAllTransfersByCursor(Map<String, Object> params, String cursor, int limit) {
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        return queryTransferCursorPage(queryParams, cursor, limit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTransfers(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException {
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        if (currentUserOnly) {
+            queryParams.put("applyUserId", SecurityUtils.getCurrentUserId());
+        }
+        
+        writer.writeHeader(EXPORT_HEADERS);
+        long rows = 0;
+        // 游标遍历期间连接被结果集占用，循环内不能再查询数据库
+        try (Cursor<FundTransferDTO> cursor = fundTransferMapper.selectForExport(queryParams)) {
+            for (FundTransferDTO transfer : cursor) {
+                writer.writeRow(Arrays.asList(transfer.getId(), transfer.getTitle(), transfer.getProjectId(),
+                        transfer.getProjectName(), transfer.getAmount(), transfer.getApplyDate(), transfer.getReason(),
+                        transfer.getFromYear(), transfer.getToYear(), transfer.getApplyUserName(), transfer.getStatus(),
+                        transfer.getAuditUserName(), transfer.getAuditTime(), transfer.getAuditComment(),
+                        transfer.getCreateTime()));
+                rows++;
+            }
+        }
+        return rows;
+    }
+    
     @Override
     @Transactional
     public void deleteTransfer(Long id) {
@@ -324,4 +345,25 @@ public class FundTransferServiceImpl implements FundTransferService {
         // 创建并返回分页对象
         return new PageDTO<>(pageData, total, pageNum, pageSize);
     }
+    
+    /**
+     * 按游标查询经费结转列表，多查一条用于判断是否还有下一页
+     * @param queryParams 查询条件
+     * @param cursor 游标
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    private PageDTO<FundTransferDTO> queryTransferCursorPage(Map<String, Object> queryParams, String cursor, int limit) {
+        limit = CursorUtils.normalizeLimit(limit);
+        queryParams.put("afterId", CursorUtils.decode(cursor));
+        queryParams.put("limit", limit + 1);
+        List<FundTransferDTO> transfers = fundTransferMapper.selectByCursor(queryParams);
+        
+        String nextCursor = null;
+        if (transfers.size() > limit) {
+            transfers = transfers.subList(0, limit);
+            nextCursor = CursorUtils.encode(transfers.get(limit - 1).getId());
+        }
+        return PageDTO.ofCursor(transfers, limit, nextCursor);
+    }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.vocational.researchfund.service.impl;
 
 
+import com.vocational.researchfund.cache.ProjectAggregateCache;
 import com.vocational.researchfund.dto.PageDTO;
 import com.vocational.researchfund.dto.ProjectDTO;
 import com.vocational.researchfund.dto.ProjectDTO.BudgetItemDTO;
@@ -9,21 +10,30 @@ import com.vocational.researchfund.entity.Project;
 import com.vocational.researchfund.entity.ProjectBudgetItem;
 import com.vocational.researchfund.entity.ProjectFundingSource;
 import com.vocational.researchfund.entity.User;
+import com.vocational.researchfund.exception.BudgetReservationException;
 import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.export.TabularWriter;
 import com.vocational.researchfund.mapper.ProjectBudgetItemMapper;
 import com.vocational.researchfund.mapper.ProjectMapper;
 import com.vocational.researchfund.mapper.ProjectTeamMemberMapper;
 import com.vocational.researchfund.repository.ProjectFundingSourceRepository;
+import com.vocational.researchfund.schedule.ChunkedJobRunner;
+import com.vocational.researchfund.schedule.DeadlineScheduler;
 import com.vocational.researchfund.service.ProjectService;
 import com.vocational.researchfund.service.UserService;
+import com.vocational.researchfund.utils.CursorUtils;
 import com.vocational.researchfund.utils.SecurityUtils;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,9 +44,26 @@ import java.util.stream.Collectors;
 @Service
 public class ProjectServiceImpl implements ProjectService {
     
+    /**
+     * 经费预留遇到并发释放时的最大尝试次数
+     */
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    
+    /**
+     * 导出列名
+     */
+    private static final List<String> EXPORT_HEADERS = Arrays.asList("ID", "项目名称", "项目类型", "负责人",
+            "开始日期", "结束日期", "预算", "已用经费", "项目状态", "审核状态", "创建日期");
+    
     @Autowired
     private ProjectMapper projectMapper;
     
+    @Autowired
+    private ChunkedJobRunner chunkedJobRunner;
+    
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+    
     @Autowired
     private ProjectTeamMemberMapper projectTeamMemberMapper;
     
@@ -48,6 +75,9 @@ public class ProjectServiceImpl implements ProjectService {
     
     @Autowired
     private UserService userService;
+    
+    @Autowired
+    private ProjectAggregateCache projectAggregateCache;
 
     @Override
     public ProjectDTO getProjectById(Long id) {
@@ -55,39 +85,30 @@ public class ProjectServiceImpl implements ProjectService {
             throw new BusinessException("项目ID不能为空");
         }
         
-        // 查询项目基本信息
-        ProjectDTO projectDTO = projectMapper.selectById(id);
+        // 优先从项目缓存读取
+        return projectAggregateCache.get(id, this::loadProjectDetail);
+    }
+    
+    /**
+     * 从数据库加载项目详情
+     * @param id 项目ID
+     * @return 项目DTO
+     */
+    private ProjectDTO loadProjectDetail(Long id) {
+        // 一次查询获取项目基本信息、团队成员、预算科目和经费来源
+        ProjectDTO projectDTO = projectMapper.selectDetailById(id);
         
         if (projectDTO == null) {
             throw new BusinessException("项目不存在");
         }
         
-        // 查询项目团队成员
-        List<ProjectDTO.TeamMemberDTO> teamMembers = projectTeamMemberMapper.selectByProjectId(id);
-        projectDTO.setTeam(teamMembers);
-        
-        // 查询项目预算科目
-        List<ProjectBudgetItem> budgetItems = projectBudgetItemMapper.selectByProjectId(id);
-        if (budgetItems != null && !budgetItems.isEmpty()) {
-            projectDTO.setBudgetItems(budgetItems.stream()
-                    .map(item -> {
-                        ProjectDTO.BudgetItemDTO dto = new ProjectDTO.BudgetItemDTO();
-                        dto.setId(item.getId());
-                        dto.setCategory(item.getCategory());
-                        dto.setAmount(item.getAmount());
-                        return dto;
-                    })
-                    .collect(Collectors.toList()));
+        if (projectDTO.getTeam() == null) {
+            projectDTO.setTeam(new ArrayList<>());
         }
         
-        // 查询项目经费来源
-        List<ProjectFundingSource> fundingSources = projectFundingSourceRepository.findByProjectId(id);
-        if (fundingSources != null && !fundingSources.isEmpty()) {
-            projectDTO.setFundingSources(fundingSources.stream()
-                    .map(ProjectFundingSource::getSource)
-                    .collect(Collectors.toList()));
-        } else if (projectDTO.getFundingSource() != null) {
-            // 兼容旧数据，如果没有查到多个经费来源，但有单个经费来源，则将其转换为列表
+        // 兼容旧数据，如果没有查到多个经费来源，但有单个经费来源，则将其转换为列表
+        if ((projectDTO.getFundingSources() == null || projectDTO.getFundingSources().isEmpty())
+                && projectDTO.getFundingSource() != null) {
             projectDTO.setFundingSources(Collections.singletonList(projectDTO.getFundingSource()));
         }
         
@@ -163,6 +184,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         System.out.println("项目创建结果: " + (rows > 0 ? "成功" : "失败"));
         System.out.println("生成的项目ID: " + projectDTO.getId());
+        deadlineScheduler.schedule(projectDTO.getId(), projectDTO.getEndDate());
         
         // 保存多个经费来源
         if (projectDTO.getFundingSources() != null && projectDTO.getFundingSources().size() > 0) {
@@ -223,6 +245,8 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新数据库
         projectMapper.update(projectDTO);
+        projectAggregateCache.evict(id);
+        deadlineScheduler.schedule(id, projectDTO.getEndDate() != null ? projectDTO.getEndDate() : existingProject.getEndDate());
         
         // 更新多个经费来源
         if (projectDTO.getFundingSources() != null) {
@@ -290,6 +314,8 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 逻辑删除项目
         projectMapper.deleteById(id);
+        projectAggregateCache.evict(id);
+        deadlineScheduler.cancel(id);
     }
 
     @Override
@@ -311,6 +337,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新数据库
         projectMapper.update(project);
+        projectAggregateCache.evict(id);
         
         return project;
     }
@@ -335,6 +362,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新数据库
         projectMapper.update(project);
+        projectAggregateCache.evict(id);
         
         // 返回更新后的项目
         return getProjectById(id);
@@ -387,6 +415,67 @@ public class ProjectServiceImpl implements ProjectService {
         return new PageDTO<>(pagedProjects, total, pageNum, pageSize);
     }
 
+    @Override
+    public PageDTO<ProjectDTO> getProjectListByCursor(Map<String, Object> params, String cursor, int limit) {
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        return queryProjectCursorPage(queryParams, cursor, limit);
+    }
+
+    @Override
+    public PageDTO<ProjectDTO> getCurrentUserProjectsByCursor(Map<String, Object> params, String cursor, int limit) {
+        // 获取当前用户ID
+        String username = SecurityUtils.getCurrentUsername();
+        User currentUser = userService.getUserByUsername(username);
+
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        queryParams.put("leaderId", currentUser.getId());
+        return queryProjectCursorPage(queryParams, cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProjects(Map<String, Object> params, boolean currentUserOnly, TabularWriter writer) throws IOException {
+        Map<String, Object> queryParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        if (currentUserOnly) {
+            User currentUser = userService.getUserByUsername(SecurityUtils.getCurrentUsername());
+            queryParams.put("leaderId", currentUser.getId());
+        }
+
+        writer.writeHeader(EXPORT_HEADERS);
+        long rows = 0;
+        // 游标遍历期间连接被结果集占用，循环内不能再查询数据库
+        try (Cursor<ProjectDTO> cursor = projectMapper.selectForExport(queryParams)) {
+            for (ProjectDTO project : cursor) {
+                writer.writeRow(Arrays.asList(project.getId(), project.getName(), project.getType(),
+                        project.getLeaderName(), project.getStartDate(), project.getEndDate(), project.getBudget(),
+                        project.getUsedBudget(), project.getStatus(), project.getAuditStatus(), project.getCreateTime()));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 按游标查询项目列表，多查一条用于判断是否还有下一页
+     * @param queryParams 查询条件
+     * @param cursor 游标
+     * @param limit 每页大小
+     * @return 游标分页结果
+     */
+    private PageDTO<ProjectDTO> queryProjectCursorPage(Map<String, Object> queryParams, String cursor, int limit) {
+        limit = CursorUtils.normalizeLimit(limit);
+        queryParams.put("afterId", CursorUtils.decode(cursor));
+        queryParams.put("limit", limit + 1);
+        List<ProjectDTO> projects = projectMapper.selectByCursor(queryParams);
+
+        String nextCursor = null;
+        if (projects.size() > limit) {
+            projects = projects.subList(0, limit);
+            nextCursor = CursorUtils.encode(projects.get(limit - 1).getId());
+        }
+        return PageDTO.ofCursor(projects, limit, nextCursor);
+    }
+
     @Override
     public List<ProjectDTO> getAvailableProjectsForExpense() {
         // 获取当前用户ID
@@ -404,19 +493,28 @@ public class ProjectServiceImpl implements ProjectService {
     }
     
     @Override
-    @Transactional
     public void checkAndUpdateExpiredProjects() {
-        // 查询所有已过期且状态为active的项目
-        List<ProjectDTO> expiredProjects = projectMapper.selectExpiredActiveProjects();
-        
-        if (expiredProjects != null && !expiredProjects.isEmpty()) {
-            // 遍历过期项目，更新状态为待结题
-            for (ProjectDTO project : expiredProjects) {
-                projectMapper.updateToPendingCompletion(project.getId());
-                System.out.println(String.format("项目 [ID=%d, 名称=%s] 已过期，状态更新为待结题",
-                        project.getId(), project.getName()));
-            }
+        // 分批查询已过期且状态为active的项目，每批一条语句更新为待结题
+        chunkedJobRunner.run("expireProjects",
+                projectMapper::selectExpiredActiveProjectIds,
+                id -> id,
+                ids -> {
+                    int rows = projectMapper.batchUpdateToPendingCompletion(ids);
+                    for (Long id : ids) {
+                        projectAggregateCache.evict(id);
+                    }
+                    return rows;
+                });
+    }
+    
+    @Override
+    @Transactional
+    public boolean expireProjectIfDue(Long id) {
+        if (projectMapper.expireIfDue(id) == 0) {
+            return false;
         }
+        projectAggregateCache.evict(id);
+        return true;
     }
     
     @Override
@@ -439,6 +537,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新结题报告信息
         projectMapper.updateCompletionReport(id, reportPath);
+        projectAggregateCache.evict(id);
         
         // 返回更新后的项目
         return getProjectById(id);
@@ -462,6 +561,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新结题审核状态和意见
         projectMapper.updateCompletionAuditStatus(id, auditStatus, comment);
+        projectAggregateCache.evict(id);
         
         // 返回更新后的项目
         return getProjectById(id);
@@ -478,6 +578,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 更新已用预算
         projectMapper.updateUsedBudget(id, amount);
+        projectAggregateCache.evict(id);
         
         // 记录日志
         System.out.println(String.format("项目ID=%d, 名称=%s 的经费预算已更新，金额变动: %s，更新前已用预算: %s", 
@@ -487,6 +588,36 @@ public class ProjectServiceImpl implements ProjectService {
         return getProjectById(id);
     }
     
+    @Override
+    @Transactional
+    public ProjectDTO reserveBudget(Long id, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new RuntimeException("预留金额必须大于0");
+        }
+        
+        for (int attempt = 1; attempt <= MAX_RESERVE_ATTEMPTS; attempt++) {
+            // 检查和扣减在同一条UPDATE中完成，并发审批不会超支
+            if (projectMapper.reserveBudget(id, amount) > 0) {
+                projectAggregateCache.evict(id);
+                return getProjectById(id);
+            }
+            
+            // 条件不满足，读取最新预算判断失败原因
+            Map<String, Object> budgetInfo = projectMapper.selectBudgetForUpdate(id);
+            if (budgetInfo == null) {
+                throw new RuntimeException("项目不存在，无法预留经费");
+            }
+            BigDecimal budget = (BigDecimal) budgetInfo.get("budget");
+            BigDecimal usedBudget = (BigDecimal) budgetInfo.get("used_budget");
+            BigDecimal remainingBudget = budget.subtract(usedBudget);
+            if (remainingBudget.compareTo(amount) < 0) {
+                throw BudgetReservationException.insufficient(id, remainingBudget, amount);
+            }
+            // 期间有其他操作释放了经费，重试预留
+        }
+        throw BudgetReservationException.conflict(id);
+    }
+    
     @Override
     public List<ProjectDTO> getProjectsByStatus(String status) {
         // 直接使用Mapper查询指定状态的项目
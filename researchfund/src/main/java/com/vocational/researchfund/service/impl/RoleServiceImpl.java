@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.vocational.researchfund.entity.Role;
 import com.vocational.researchfund.mapper.RoleMapper;
+import com.vocational.researchfund.security.PrincipalCache;
 import com.vocational.researchfund.service.RoleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +28,9 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
     @Autowired
     private RoleMapper roleMapper;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
     @Override
     public IPage<Role> listRolePage(Integer page, Integer size, Role role) {
         LambdaQueryWrapper<Role> queryWrapper = new LambdaQueryWrapper<>();
@@ -92,12 +96,15 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
             throw new RuntimeException("角色代码已存在");
         }
         
+        // 角色代码变更会影响所有持有该角色的用户
+        principalCache.clear();
         return updateById(role);
     }
     
     @Override
     @Transactional
     public boolean deleteRole(Long roleId) {
+        principalCache.clear();
         return removeById(roleId);
     }
     
@@ -9,6 +9,7 @@ import com.vocational.researchfund.entity.Department;
 import com.vocational.researchfund.entity.Role;
 import com.vocational.researchfund.entity.User;
 import com.vocational.researchfund.mapper.UserMapper;
+import com.vocational.researchfund.security.PrincipalCache;
 import com.vocational.researchfund.service.DepartmentService;
 import com.vocational.researchfund.service.RoleService;
 import com.vocational.researchfund.service.UserService;
@@ -43,6 +44,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     
     @Autowired
     private RoleService roleService;
+    
+    @Autowired
+    private PrincipalCache principalCache;
 
     @Override
     public IPage<User> listUserPage(Integer page, Integer size, User user) {
@@ -232,6 +236,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User user = new User();
         BeanUtils.copyProperties(userDTO, user);
         boolean result = updateById(user);
+        principalCache.evictUser(userDTO.getId());
         
         // 更新用户角色关联
         if (result && userDTO.getRoleIds() != null && !userDTO.getRoleIds().isEmpty()) {
@@ -260,6 +265,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         try {
             // 首先删除用户角色关联
             userMapper.deleteUserRoles(userId);
+            principalCache.evictUser(userId);
             logger.info("删除用户角色关联成功: userId={}", userId);
             
             // 执行物理删除用户
@@ -296,6 +302,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         // 不再加密密码，直接使用明文
         // user.setPassword(passwordEncoder.encode(newPassword));
         user.setPassword(newPassword);
+        principalCache.evictUser(userId);
         return updateById(user);
     }
 
@@ -314,6 +321,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         
         // 更新密码 - 不再加密
         user.setPassword(newPassword);
+        principalCache.evictUser(userId);
         return updateById(user);
     }
 
@@ -0,0 +1,307 @@
+package com.vocational.researchfund.storage;
+
+import com.vocational.researchfund.entity.FileBlob;
+import com.vocational.researchfund.mapper.FileBlobMapper;
+import com.vocational.researchfund.schedule.ChunkedJobRunner;
+import com.vocational.researchfund.utils.FileDigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文件内容存储
+ * 各模块上传的文件按内容MD5保存在项目文件目录下的 blobs/ab/cd/&lt;md5&gt;.&lt;扩展名&gt;，相同内容只保存一份；
+ * 上传时先写入临时文件并同时计算MD5，再在该内容记录的行锁内原子移动到位或作为重复内容丢弃。
+ * 引用数由夜间任务根据附件、项目文件、到账凭证等业务表重新统计，超过保留时间仍无引用的文件被清理
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    /**
+     * 项目文件目录，下载接口和前端均以该目录为基准解析相对路径
+     */
+    public static final String PROJECT_FILES_DIR = "uploads/project-files";
+
+    /**
+     * 文件内容存储目录（相对项目文件目录）
+     */
+    public static final String BLOB_DIR = "blobs";
+
+    private static final String TEMP_DIR = ".tmp";
+
+    /**
+     * 存储路径格式：blobs/ab/cd/&lt;md5&gt;[.扩展名]
+     */
+    private static final Pattern STORAGE_PATH_PATTERN =
+            Pattern.compile("^" + BLOB_DIR + "/[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{32})(\\.[a-z0-9]+)?$");
+
+    private static final String TEMP_SUFFIX = ".part";
+
+    /**
+     * 扩展名最大长度，超出时不保留扩展名
+     */
+    private static final int MAX_EXTENSION_LENGTH = 10;
+
+    /**
+     * 无引用文件的保留时间（小时），覆盖上传后到提交表单之间的时间
+     */
+    @Value("${researchfund.storage.orphan-grace-hours:24}")
+    private int orphanGraceHours;
+
+    @Autowired
+    private FileBlobMapper fileBlobMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChunkedJobRunner chunkedJobRunner;
+
+    private Path projectFilesRoot;
+
+    private Path tempRoot;
+
+    @PostConstruct
+    public void init() throws IOException {
+        projectFilesRoot = Paths.get(System.getProperty("user.dir"), PROJECT_FILES_DIR);
+        tempRoot = projectFilesRoot.resolve(BLOB_DIR).resolve(TEMP_DIR);
+        Files.createDirectories(tempRoot);
+
+        // 清理上次运行遗留的临时文件
+        File[] leftovers = tempRoot.toFile().listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                if (!leftover.delete()) {
+                    logger.warn("删除临时文件失败: {}", leftover.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    /**
+     * 将上传内容写入临时文件并计算MD5，内容只读取一次
+     * @param in 输入流（由调用方关闭）
+     * @return 暂存文件，需调用commit或discard
+     * @throws IOException 写入失败
+     */
+    public StagedFile stage(InputStream in) throws IOException {
+        Path tempFile = tempRoot.resolve(UUID.randomUUID().toString() + TEMP_SUFFIX);
+        try {
+            String contentHash = FileDigestUtils.copyAndDigest(in, tempFile, "MD5");
+            return new StagedFile(tempFile, contentHash, Files.size(tempFile));
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 保存暂存文件，内容已存在时丢弃暂存文件并返回已有文件
+     * @param staged 暂存文件
+     * @param originalFilename 原始文件名，用于确定扩展名
+     * @return 存储结果
+     * @throws IOException 保存失败
+     */
+    public StoredBlob commit(StagedFile staged, String originalFilename) throws IOException {
+        String hash = staged.getContentHash();
+        String storagePath = BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/"
+                + hash + extensionOf(originalFilename);
+        try {
+            // 在内容记录的行锁内判断文件是否已存在，避免与清理任务并发时删掉刚复用的文件
+            return transactionTemplate.execute(status -> {
+                fileBlobMapper.upsert(hash, storagePath, staged.getSize());
+                FileBlob blob = fileBlobMapper.selectByHash(hash);
+                Path target = projectFilesRoot.resolve(blob.getStoragePath());
+                try {
+                    if (Files.isRegularFile(target)) {
+                        return new StoredBlob(hash, blob.getStoragePath(), blob.getFileSize(), true);
+                    }
+                    Files.createDirectories(target.getParent());
+                    FileDigestUtils.moveAtomically(staged.getTempFile(), target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return new StoredBlob(hash, blob.getStoragePath(), staged.getSize(), false);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            discard(staged);
+        }
+    }
+
+    /**
+     * 保存上传内容
+     * @param in 输入流（由调用方关闭）
+     * @param originalFilename 原始文件名，用于确定扩展名
+     * @return 存储结果
+     * @throws IOException 保存失败
+     */
+    public StoredBlob store(InputStream in, String originalFilename) throws IOException {
+        return commit(stage(in), originalFilename);
+    }
+
+    /**
+     * 丢弃暂存文件
+     * @param staged 暂存文件
+     */
+    public void discard(StagedFile staged) {
+        try {
+            Files.deleteIfExists(staged.getTempFile());
+        } catch (IOException e) {
+            logger.warn("删除临时文件失败: {}", staged.getTempFile(), e);
+        }
+    }
+
+    /**
+     * 存储路径对应的URL（以/开头，经费附件、到账凭证使用该形式）
+     * @param storagePath 存储路径
+     * @return URL
+     */
+    public static String urlOf(String storagePath) {
+        return "/" + PROJECT_FILES_DIR + "/" + storagePath;
+    }
+
+    /**
+     * 从存储路径中解析内容MD5
+     * @param storagePath 相对项目文件目录的路径
+     * @return 内容MD5，不是内容存储路径时返回null
+     */
+    public static String hashOf(String storagePath) {
+        Matcher matcher = STORAGE_PATH_PATTERN.matcher(storagePath);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 根据业务表中的引用重新统计引用数
+     * @return 更新的行数
+     */
+    public long recountReferences() {
+        return chunkedJobRunner.run("blobRecountReferences",
+                fileBlobMapper::selectIdChunk,
+                id -> id,
+                fileBlobMapper::recountReferences);
+    }
+
+    /**
+     * 清理超过保留时间仍无引用的文件
+     * @return 清理的文件数
+     */
+    public long purgeUnreferenced() {
+        return chunkedJobRunner.run("blobPurgeUnreferenced",
+                (afterId, limit) -> fileBlobMapper.selectUnreferencedForUpdate(afterId, limit, orphanGraceHours),
+                FileBlob::getId,
+                this::purge);
+    }
+
+    private int purge(List<FileBlob> blobs) {
+        int rows = 0;
+        for (FileBlob blob : blobs) {
+            try {
+                Files.deleteIfExists(projectFilesRoot.resolve(blob.getStoragePath()));
+            } catch (IOException e) {
+                logger.error("删除无引用文件失败: {}", blob.getStoragePath(), e);
+                continue;
+            }
+            rows += fileBlobMapper.deleteUnreferenced(blob.getId());
+        }
+        return rows;
+    }
+
+    private String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dotIndex = originalFilename.lastIndexOf('.');
+        if (dotIndex <= 0 || originalFilename.length() - dotIndex > MAX_EXTENSION_LENGTH) {
+            return "";
+        }
+        String extension = originalFilename.substring(dotIndex).toLowerCase();
+        // 扩展名只保留字母数字，防止路径注入
+        return extension.matches("\\.[a-z0-9]+") ? extension : "";
+    }
+
+    /**
+     * 暂存文件
+     */
+    public static class StagedFile {
+        private final Path tempFile;
+        private final String contentHash;
+        private final long size;
+
+        StagedFile(Path tempFile, String contentHash, long size) {
+            this.tempFile = tempFile;
+            this.contentHash = contentHash;
+            this.size = size;
+        }
+
+        public Path getTempFile() {
+            return tempFile;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * 存储结果
+     */
+    public static class StoredBlob {
+        private final String contentHash;
+        private final String storagePath;
+        private final long size;
+        private final boolean deduplicated;
+
+        StoredBlob(String contentHash, String storagePath, long size, boolean deduplicated) {
+            this.contentHash = contentHash;
+            this.storagePath = storagePath;
+            this.size = size;
+            this.deduplicated = deduplicated;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * @return 相对项目文件目录的存储路径
+         */
+        public String getStoragePath() {
+            return storagePath;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return 是否复用了已有的相同内容
+         */
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.vocational.researchfund.storage;
+
+import com.vocational.researchfund.entity.UploadFileIndex;
+import com.vocational.researchfund.mapper.UploadFileIndexMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * 上传文件内容哈希索引
+ * 新上传的文件保存在BlobStore中，本索引只覆盖早期按日期目录保存的项目文件，供去重查找和下载时获取ETag；
+ * 文件MD5与路径的对应关系保存在upload_file_index表中，查询时按哈希直接读库，启动时不再扫描上传目录；
+ * 后台校对按目录比对文件大小和修改时间，只对新增或变化的文件重新计算MD5，并删除已不存在文件的索引
+ */
+@Component
+public class FileHashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileHashIndex.class);
+
+    @Autowired
+    private UploadFileIndexMapper indexMapper;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    /**
+     * 查找内容相同的已有文件
+     * @param root 上传根目录
+     * @param fileHash 文件MD5
+     * @return 已有文件的相对路径，不存在时返回null
+     */
+    public String findPath(File root, String fileHash) {
+        for (String relativePath : indexMapper.selectPathsByHash(fileHash)) {
+            if (new File(root, relativePath).isFile()) {
+                return relativePath;
+            }
+            // 文件已被删除，清除无效索引
+            indexMapper.deleteByPath(relativePath);
+        }
+        return null;
+    }
+
+    /**
+     * 查询已建立索引的文件的MD5，文件大小或修改时间与索引不一致时视为未知
+     * @param root 上传根目录
+     * @param relativePath 文件相对路径
+     * @return 文件MD5，未知时返回null
+     */
+    public String findHash(File root, String relativePath) {
+        UploadFileIndex index = indexMapper.selectByPath(relativePath);
+        if (index == null) {
+            return null;
+        }
+        File file = new File(root, relativePath);
+        if (index.getFileSize() == null || index.getFileSize() != file.length()
+                || index.getLastModified() == null || index.getLastModified() != file.lastModified()) {
+            return null;
+        }
+        return index.getFileHash();
+    }
+
+    /**
+     * 将索引与上传目录中的文件校对，已有校对在运行时直接返回
+     * @param root 上传根目录
+     * @param directoryFilter 按相对路径筛选需要校对的子目录
+     * @param fileFilter 按文件名筛选需要建立索引的文件
+     * @return 重新计算MD5和删除的索引数，已有校对在运行时返回-1
+     */
+    public int reconcile(File root, Predicate<String> directoryFilter, Predicate<String> fileFilter) {
+        if (!reconciling.compareAndSet(false, true)) {
+            logger.info("上传文件索引校对正在进行，跳过本次校对");
+            return -1;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            ReconcileStats stats = new ReconcileStats();
+            Set<String> scannedDirectories = new HashSet<>();
+            if (root.isDirectory()) {
+                reconcileDirectory(root, "", directoryFilter, fileFilter, stats, scannedDirectories);
+            }
+
+            // 整个目录已被删除的索引
+            for (String directory : indexMapper.selectDirectories()) {
+                if (!scannedDirectories.contains(directory)) {
+                    for (UploadFileIndex index : indexMapper.selectByDirectory(directory)) {
+                        indexMapper.deleteByPath(index.getRelativePath());
+                        stats.removed++;
+                    }
+                }
+            }
+
+            logger.info("上传文件索引校对完成: 检查 {} 个文件, 重新计算 {} 个, 删除 {} 条索引, 耗时 {}ms",
+                    stats.scanned, stats.hashed, stats.removed, System.currentTimeMillis() - start);
+            return stats.hashed + stats.removed;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private void reconcileDirectory(File directory, String relativeDir, Predicate<String> directoryFilter,
+                                    Predicate<String> fileFilter, ReconcileStats stats,
+                                    Set<String> scannedDirectories) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        scannedDirectories.add(relativeDir);
+
+        Map<String, UploadFileIndex> indexed = new HashMap<>();
+        for (UploadFileIndex index : indexMapper.selectByDirectory(relativeDir)) {
+            indexed.put(index.getRelativePath(), index);
+        }
+
+        for (File file : files) {
+            String relativePath = relativeDir.isEmpty() ? file.getName() : relativeDir + "/" + file.getName();
+            if (file.isDirectory()) {
+                if (directoryFilter.test(relativePath)) {
+                    reconcileDirectory(file, relativePath, directoryFilter, fileFilter, stats, scannedDirectories);
+                }
+                continue;
+            }
+            if (!file.isFile() || !fileFilter.test(file.getName())) {
+                continue;
+            }
+            stats.scanned++;
+            UploadFileIndex index = indexed.remove(relativePath);
+            long size = file.length();
+            long lastModified = file.lastModified();
+            // 大小和修改时间均未变化的文件不重新计算MD5
+            if (index != null && index.getFileSize() != null && index.getFileSize() == size
+                    && index.getLastModified() != null && index.getLastModified() == lastModified) {
+                continue;
+            }
+            try {
+                String fileHash = calculateMD5(file);
+                indexMapper.upsert(new UploadFileIndex(relativePath, relativeDir, fileHash, size, lastModified));
+                stats.hashed++;
+            } catch (IOException e) {
+                logger.error("计算文件MD5失败: {}", file.getAbsolutePath(), e);
+            }
+        }
+
+        // 目录中已不存在的文件
+        for (String relativePath : indexed.keySet()) {
+            indexMapper.deleteByPath(relativePath);
+            stats.removed++;
+        }
+    }
+
+    private String calculateMD5(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return DigestUtils.md5DigestAsHex(fis);
+        }
+    }
+
+    /**
+     * 校对统计
+     */
+    private static class ReconcileStats {
+        private int scanned;
+        private int hashed;
+        private int removed;
+    }
+}
@@ -0,0 +1,73 @@
+package com.vocational.researchfund.utils;
+
+import com.vocational.researchfund.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标分页工具类
+ * 游标对前端不透明，内部为上一页最后一条记录的ID
+ * 列表统一按ID倒序排列：ID自增且在插入时分配，与创建时间顺序一致，又是唯一值，
+ * 单列即可定位而无需(create_time, id)组合条件；页码分页的查询也使用相同顺序，两种方式翻页结果一致
+ */
+public class CursorUtils {
+
+    /**
+     * 游标前缀，用于校验游标合法性
+     */
+    private static final String CURSOR_PREFIX = "id:";
+
+    /**
+     * 游标模式单页最大条数
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private CursorUtils() {
+    }
+
+    /**
+     * 将记录ID编码为游标
+     * @param id 记录ID
+     * @return 游标字符串
+     */
+    public static String encode(Long id) {
+        if (id == null) {
+            return null;
+        }
+        String raw = CURSOR_PREFIX + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标为记录ID
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 记录ID，第一页返回null
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new BusinessException(400, "无效的分页游标");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+
+    /**
+     * 规范化游标模式的每页条数
+     * @param limit 请求的条数
+     * @return 合法的条数
+     */
+    public static int normalizeLimit(int limit) {
+        if (limit < 1) {
+            return 10;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,135 @@
+package com.vocational.researchfund.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 文件摘要工具类
+ * 写入文件的同时计算内容摘要，上传内容只读取一次
+ */
+public class FileDigestUtils {
+
+    /**
+     * 读写缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private FileDigestUtils() {
+    }
+
+    /**
+     * 创建摘要算法实例
+     * @param algorithm 算法名称，如MD5、SHA-256
+     * @return 摘要实例
+     */
+    public static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: " + algorithm, e);
+        }
+    }
+
+    /**
+     * 将输入流写入新文件，同时计算内容摘要
+     * @param in 输入流（由调用方关闭）
+     * @param target 目标文件，不能已存在
+     * @param algorithm 摘要算法
+     * @return 十六进制小写摘要
+     * @throws IOException 写入失败
+     */
+    public static String copyAndDigest(InputStream in, Path target, String algorithm) throws IOException {
+        MessageDigest digest = newDigest(algorithm);
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            copy(in, out, digest);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 将输入流写入新文件，同时计算内容摘要，超过最大字节数时中止
+     * @param in 输入流（由调用方关闭）
+     * @param target 目标文件，不能已存在
+     * @param algorithm 摘要算法
+     * @param maxBytes 最大字节数
+     * @return 十六进制小写摘要
+     * @throws IOException 写入失败或超过最大字节数
+     */
+    public static String copyAndDigest(InputStream in, Path target, String algorithm, long maxBytes) throws IOException {
+        MessageDigest digest = newDigest(algorithm);
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (total + read > maxBytes) {
+                    // 写满最大长度后再中止，调用方可据文件大小区分超长与连接中断
+                    out.write(buffer, 0, (int) (maxBytes - total));
+                    throw new IOException("数据超过最大长度: " + maxBytes);
+                }
+                total += read;
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 复制数据并更新摘要
+     * @param in 输入流
+     * @param out 输出流
+     * @param digest 摘要实例
+     * @return 复制的字节数
+     * @throws IOException 读写失败
+     */
+    public static long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * 将文件移动到目标位置，同一文件系统内为原子操作
+     * @param source 源文件
+     * @param target 目标文件
+     * @throws IOException 移动失败
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    /**
+     * 字节数组转十六进制小写字符串
+     * @param bytes 字节数组
+     * @return 十六进制字符串
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+}
@@ -11,9 +11,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -30,6 +35,22 @@ public class JwtTokenUtil {
     @Value("${researchfund.jwt.expire}")
     private long expire;
     
+    /**
+     * 已验证Token缓存的最大条数
+     */
+    @Value("${researchfund.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+    
+    /**
+     * 已验证Token缓存：Token摘要 -> (用户名, 过期时间)
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    
+    /**
+     * 已注销Token：Token摘要 -> 过期时间，Token自然过期后移除
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    
     /**
      * 从token中获取用户名
      */
@@ -67,6 +88,79 @@ public class JwtTokenUtil {
         return expiration.before(new Date());
     }
     
+    /**
+     * 获取已验证的Token信息，优先读取缓存，未命中时只解析一次签名和claims
+     * @param token JWT
+     * @return 已验证的Token信息
+     */
+    private VerifiedToken getVerifiedToken(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        
+        if (revokedTokens.containsKey(digest)) {
+            return new VerifiedToken(null, 0, digest);
+        }
+        
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims = getAllClaimsFromToken(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime(), digest);
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            purgeExpiredTokens(now);
+        }
+        if (verifiedTokens.size() < verifiedCacheSize) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+    
+    /**
+     * 注销token，注销后在自然过期前均视为无效
+     * @param token JWT
+     */
+    public void revokeToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        try {
+            VerifiedToken verified = getVerifiedToken(token);
+            if (verified.username == null) {
+                return;
+            }
+            revokedTokens.put(verified.digest, verified.expiration);
+            verifiedTokens.remove(verified.digest);
+            purgeExpiredTokens(System.currentTimeMillis());
+            logger.debug("Token已注销，用户: {}", verified.username);
+        } catch (JwtException e) {
+            // 无效或已过期的Token无需注销
+            logger.debug("注销的Token无效: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 清理已过期的缓存Token和注销记录
+     */
+    private void purgeExpiredTokens(long now) {
+        verifiedTokens.values().removeIf(verified -> verified.expiration <= now);
+        revokedTokens.values().removeIf(expiration -> expiration <= now);
+    }
+    
+    /**
+     * 计算Token摘要，缓存中不保存原始Token
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256算法", e);
+        }
+    }
+    
     /**
      * 生成token
      */
@@ -99,11 +193,17 @@ public class JwtTokenUtil {
      */
     public String validateToken(String token) {
         try {
-            String username = getUsernameFromToken(token);
+            VerifiedToken verified = getVerifiedToken(token);
+            String username = verified.username;
+            if (username == null) {
+                logger.warn("Token已注销");
+                return null;
+            }
             logger.debug("从Token中提取的用户名: {}", username);
             
-            if (isTokenExpired(token)) {
+            if (verified.expiration <= System.currentTimeMillis()) {
                 logger.warn("Token已过期");
+                verifiedTokens.remove(verified.digest);
                 return null;
             }
             
@@ -126,11 +226,12 @@ public class JwtTokenUtil {
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = getUsernameFromToken(token);
-            boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            final VerifiedToken verified = getVerifiedToken(token);
+            boolean isValid = (verified.username != null && verified.username.equals(userDetails.getUsername())
+                    && verified.expiration > System.currentTimeMillis());
             
             if (isValid) {
-                logger.debug("Token验证成功，用户: {}", username);
+                logger.debug("Token验证成功，用户: {}", verified.username);
             } else {
                 logger.warn("Token验证失败，用户名不匹配或Token已过期");
             }
@@ -141,4 +242,19 @@ public class JwtTokenUtil {
             return false;
         }
     }
+    
+    /**
+     * 已验证的Token信息
+     */
+    private static class VerifiedToken {
+        private final String username;
+        private final long expiration;
+        private final String digest;
+        
+        VerifiedToken(String username, long expiration, String digest) {
+            this.username = username;
+            this.expiration = expiration;
+            this.digest = digest;
+        }
+    }
 } 
\ No newline at end of file
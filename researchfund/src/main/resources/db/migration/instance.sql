@@ -50,3 +50,117 @@ CREATE TABLE IF NOT EXISTS `project_fund_arrival` (
   KEY `idx_project_id` (`project_id`),
   KEY `idx_arrival_date` (`arrival_date`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='项目经费到账记录表'; 
+
+-- 列表分页索引（页码分页和游标分页均按ID倒序）
+ALTER TABLE project ADD INDEX idx_status_id (status, id);
+ALTER TABLE project ADD INDEX idx_leader_id_id (leader_id, id);
+ALTER TABLE expense_apply ADD INDEX idx_status_id (status, id);
+ALTER TABLE expense_apply ADD INDEX idx_apply_user_id_id (apply_user_id, id);
+ALTER TABLE fund_transfer ADD INDEX idx_status_id (status, id);
+ALTER TABLE fund_transfer ADD INDEX idx_apply_user_id_id (apply_user_id, id);
+
+-- 仪表盘项目概览索引（按负责人筛选活跃项目，全局查询使用idx_status_id）
+ALTER TABLE project ADD INDEX idx_leader_status_deleted (leader_id, status, deleted);
+
+-- 创建项目预算科目台账表（按项目、经费类型增量维护经费申请金额）
+CREATE TABLE IF NOT EXISTS project_budget_ledger (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT 'ID',
+    project_id BIGINT NOT NULL COMMENT '项目ID',
+    expense_type VARCHAR(20) NOT NULL COMMENT '经费类型',
+    committed_amount DECIMAL(12,2) NOT NULL DEFAULT 0 COMMENT '已申请未支付金额（待审核、已批准）',
+    paid_amount DECIMAL(12,2) NOT NULL DEFAULT 0 COMMENT '已支付金额（已支付及其后续的报销、还款状态）',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    UNIQUE KEY uk_project_type (project_id, expense_type)
+) ENGINE=InnoDB COMMENT='项目预算科目台账表';
+
+-- 根据现有经费申请初始化台账
+INSERT INTO project_budget_ledger (project_id, expense_type, committed_amount, paid_amount)
+SELECT project_id, type,
+       SUM(CASE WHEN status IN ('pending', 'approved') THEN amount ELSE 0 END),
+       SUM(CASE WHEN status IN ('paid', 'receipt_pending', 'receipt_audit', 'completed', 'repayment_pending', 'repaid')
+                THEN amount ELSE 0 END)
+FROM expense_apply
+WHERE deleted = 0 AND project_id IS NOT NULL AND type IS NOT NULL
+GROUP BY project_id, type
+ON DUPLICATE KEY UPDATE committed_amount = VALUES(committed_amount), paid_amount = VALUES(paid_amount);
+
+-- 按结束日期加载项目到期调度
+ALTER TABLE project ADD INDEX idx_end_date (end_date);
+
+-- 定时任务集群租约表
+CREATE TABLE IF NOT EXISTS schedule_job_lease (
+    job_name VARCHAR(100) NOT NULL COMMENT '任务名称',
+    owner VARCHAR(200) DEFAULT NULL COMMENT '持有租约的节点',
+    fencing_token BIGINT NOT NULL DEFAULT 0 COMMENT '防护令牌',
+    acquired_at DATETIME DEFAULT NULL COMMENT '获取租约时间',
+    lease_until DATETIME NOT NULL COMMENT '租约到期时间',
+    PRIMARY KEY (job_name)
+) ENGINE=InnoDB COMMENT='定时任务租约表';
+
+-- 定时任务运行记录表
+CREATE TABLE IF NOT EXISTS schedule_job_run (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+    job_name VARCHAR(100) NOT NULL COMMENT '任务名称',
+    owner VARCHAR(200) NOT NULL COMMENT '执行节点',
+    fencing_token BIGINT NOT NULL COMMENT '防护令牌',
+    status VARCHAR(20) NOT NULL COMMENT '状态：running、success、failed、lease_lost',
+    affected_rows BIGINT DEFAULT NULL COMMENT '更新的行数',
+    error_message VARCHAR(500) DEFAULT NULL COMMENT '错误信息',
+    start_time DATETIME NOT NULL COMMENT '开始时间',
+    end_time DATETIME DEFAULT NULL COMMENT '结束时间',
+    PRIMARY KEY (id),
+    KEY idx_job_name (job_name),
+    KEY idx_start_time (start_time)
+) ENGINE=InnoDB COMMENT='定时任务运行记录表';
+
+-- 上传文件内容哈希索引表（替代启动时扫描上传目录）
+CREATE TABLE IF NOT EXISTS upload_file_index (
+    relative_path VARCHAR(500) NOT NULL COMMENT '相对上传目录的文件路径',
+    directory VARCHAR(255) NOT NULL DEFAULT '' COMMENT '文件所在目录',
+    file_hash CHAR(32) NOT NULL COMMENT '文件内容MD5',
+    file_size BIGINT NOT NULL COMMENT '文件大小（字节）',
+    last_modified BIGINT NOT NULL COMMENT '文件最后修改时间（毫秒时间戳）',
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (relative_path),
+    KEY idx_file_hash (file_hash),
+    KEY idx_directory (directory)
+) ENGINE=InnoDB COMMENT='上传文件内容哈希索引表';
+
+-- 文件内容存储表（各模块上传文件按内容MD5只保存一份）
+CREATE TABLE IF NOT EXISTS file_blob (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    content_hash CHAR(32) NOT NULL COMMENT '文件内容MD5',
+    storage_path VARCHAR(255) NOT NULL COMMENT '相对项目文件目录的存储路径',
+    file_size BIGINT NOT NULL COMMENT '文件大小（字节）',
+    ref_count INT NOT NULL DEFAULT 0 COMMENT '引用数',
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_content_hash (content_hash),
+    KEY idx_ref_count_update_time (ref_count, update_time)
+) ENGINE=InnoDB COMMENT='文件内容存储表';
+
+-- 按文件路径统计引用数
+ALTER TABLE expense_attachment ADD INDEX idx_url (url);
+ALTER TABLE achievement_attachment ADD INDEX idx_path (path);
+ALTER TABLE project ADD INDEX idx_file_path (file_path);
+ALTER TABLE project ADD INDEX idx_completion_report_path (completion_report_path);
+ALTER TABLE project_fund_arrival ADD INDEX idx_voucher_path (voucher_path);
+
+-- 分片上传会话表
+CREATE TABLE IF NOT EXISTS upload_session (
+    upload_id VARCHAR(64) NOT NULL COMMENT '上传ID',
+    user_id BIGINT NOT NULL COMMENT '上传用户ID',
+    file_name VARCHAR(255) NOT NULL COMMENT '原始文件名',
+    content_type VARCHAR(100) NOT NULL COMMENT '文件类型',
+    file_size BIGINT NOT NULL COMMENT '文件大小（字节）',
+    chunk_size BIGINT NOT NULL COMMENT '分片大小（字节）',
+    total_chunks INT NOT NULL COMMENT '分片总数',
+    file_md5 CHAR(32) DEFAULT NULL COMMENT '客户端提供的文件MD5，合并后校验',
+    status VARCHAR(20) NOT NULL DEFAULT 'uploading' COMMENT '状态：uploading-上传中，assembling-合并中，completed-已完成',
+    file_path VARCHAR(255) DEFAULT NULL COMMENT '合并后的文件路径',
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (upload_id),
+    KEY idx_update_time (update_time)
+) ENGINE=InnoDB COMMENT='分片上传会话表';
@@ -0,0 +1,94 @@
+package com.vocational.researchfund.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CSV导出：BOM与换行、RFC 4180引号转义、公式注入防护
+ */
+class CsvTabularWriterTest {
+
+    @Test
+    void writesBomHeaderAndCrlfRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvTabularWriter writer = new CsvTabularWriter(out)) {
+            writer.writeHeader(Arrays.asList("项目名称", "金额"));
+            writer.writeRow(Arrays.asList("智能制造实训平台", new BigDecimal("1200.50")));
+        }
+
+        byte[] bytes = out.toByteArray();
+        assertArrayEquals(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, Arrays.copyOf(bytes, 3), "应以UTF-8 BOM开头");
+        assertEquals("项目名称,金额\r\n智能制造实训平台,1200.50\r\n",
+                new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void quotesFieldsContainingSeparatorsQuotesAndLineBreaks() throws IOException {
+        assertEquals("\"材料费,差旅费\"", row("材料费,差旅费"));
+        assertEquals("\"购买\"\"传感器\"\"套件\"", row("购买\"传感器\"套件"));
+        assertEquals("\"第一行\n第二行\"", row("第一行\n第二行"));
+        assertEquals("\"回车\r换行\"", row("回车\r换行"));
+        assertEquals("普通文本", row("普通文本"));
+        assertEquals("\"\"\"\"", row("\""));
+    }
+
+    @Test
+    void escapesFormulaPrefixesInText() throws IOException {
+        assertEquals("'=SUM(A1:A9)", row("=SUM(A1:A9)"));
+        assertEquals("'+86 138", row("+86 138"));
+        assertEquals("'-cmd", row("-cmd"));
+        assertEquals("'@SUM(1)", row("@SUM(1)"));
+        // 制表符、回车开头同样会被Excel和LibreOffice当作公式起始
+        assertEquals("'\t=1+1", row("\t=1+1"));
+        assertEquals("\"'\r=1+1\"", row("\r=1+1"));
+        // 公式前缀与引号转义同时生效，单引号位于引号内
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\",\"\"点击\"\")\"", row("=HYPERLINK(\"http://x\",\"点击\")"));
+        // 只检查首字符
+        assertEquals("a=b", row("a=b"));
+        assertEquals(" =1", row(" =1"));
+    }
+
+    @Test
+    void numbersAreNotEscaped() throws IOException {
+        assertEquals("-300.00", row(new BigDecimal("-300.00")));
+        assertEquals("-5", row(-5));
+        assertEquals("1000.0", row(1000.0));
+        assertEquals("0.00000001", row(new BigDecimal("1E-8")), "BigDecimal不使用科学计数法");
+        // 文本形式的负数按文本处理，仍加单引号
+        assertEquals("'-300", row("-300"));
+    }
+
+    @Test
+    void nullAndDatesAreFormatted() throws IOException {
+        assertEquals(",2024-03-01,2024-03-01 08:05:09",
+                rowOf(Arrays.asList(null, LocalDate.of(2024, 3, 1), LocalDateTime.of(2024, 3, 1, 8, 5, 9))));
+        assertEquals("", rowOf(Collections.emptyList()));
+    }
+
+    private static String row(Object value) throws IOException {
+        return rowOf(Collections.singletonList(value));
+    }
+
+    private static String rowOf(List<?> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvTabularWriter writer = new CsvTabularWriter(out)) {
+            writer.writeRow(values);
+        }
+        String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals('\uFEFF', text.charAt(0));
+        assertEquals("\r\n", text.substring(text.length() - 2), "每行以CRLF结尾");
+        return text.substring(1, text.length() - 2);
+    }
+}
@@ -0,0 +1,156 @@
+package com.vocational.researchfund.schedule;
+
+import com.vocational.researchfund.mapper.ProjectMapper;
+import com.vocational.researchfund.mapper.ScheduleJobLeaseMapper;
+import com.vocational.researchfund.mapper.ScheduleJobRunMapper;
+import com.vocational.researchfund.service.ExpenseService;
+import com.vocational.researchfund.service.ProjectService;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 多节点部署时项目到期事件只由一个节点执行：
+ * 两个节点共用同一个租约表（H2，MySQL兼容模式，执行真实的租约SQL），后获取租约的节点跳过已被认领的事件
+ */
+class DeadlineSchedulerTest {
+
+    private static final Long PROJECT_ID = 7L;
+
+    private final ProjectMapper projectMapper = mock(ProjectMapper.class);
+    private final ProjectService projectService = mock(ProjectService.class);
+    private final ExpenseService expenseService = mock(ExpenseService.class);
+
+    private SqlSession session;
+    private JdbcTemplate jdbcTemplate;
+    private DeadlineScheduler nodeA;
+    private DeadlineScheduler nodeB;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schedule-lease-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(ScheduleJobLeaseMapper.class);
+        configuration.addMapper(ScheduleJobRunMapper.class);
+        session = new SqlSessionFactoryBuilder().build(configuration).openSession(true);
+
+        when(projectService.expireProjectIfDue(any())).thenReturn(true);
+        when(projectMapper.selectEndDatesBetween(any(), any())).thenReturn(Collections.emptyList());
+
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void secondNodeSkipsClaimedDeadline() {
+        nodeA.fire(PROJECT_ID);
+        nodeB.fire(PROJECT_ID);
+
+        verify(projectService, times(1)).expireProjectIfDue(PROJECT_ID);
+        verify(expenseService, times(1)).expireReceiptPendingByProject(PROJECT_ID);
+        assertEquals(1L, nodeA.getStats().get("fired"));
+        assertEquals(0L, nodeB.getStats().get("fired"));
+        assertEquals(1L, nodeB.getStats().get("skipped"));
+        assertEquals("node-a", jdbcTemplate.queryForObject(
+                "SELECT owner FROM schedule_job_lease WHERE job_name = ?", String.class, "deadline:" + PROJECT_ID));
+    }
+
+    @Test
+    void deadlinesOfOtherProjectsAreClaimedIndependently() {
+        nodeA.fire(PROJECT_ID);
+        nodeB.fire(PROJECT_ID + 1);
+
+        verify(projectService).expireProjectIfDue(PROJECT_ID);
+        verify(projectService).expireProjectIfDue(PROJECT_ID + 1);
+        assertEquals(1L, nodeB.getStats().get("fired"));
+    }
+
+    @Test
+    void failedDeadlineIsNotRetriedByOtherNode() {
+        when(projectService.expireProjectIfDue(PROJECT_ID)).thenThrow(new IllegalStateException("数据库不可用"));
+
+        nodeA.fire(PROJECT_ID);
+        nodeB.fire(PROJECT_ID);
+
+        // 失败的事件由夜间定时任务兜底，其他节点在最短持有时间内不会重复执行
+        verify(projectService, times(1)).expireProjectIfDue(PROJECT_ID);
+        assertEquals(1L, nodeA.getStats().get("failures"));
+        assertEquals(1L, nodeB.getStats().get("skipped"));
+        assertEquals("failed", jdbcTemplate.queryForObject(
+                "SELECT status FROM schedule_job_run WHERE job_name = ?", String.class, "deadline:" + PROJECT_ID));
+    }
+
+    @Test
+    void reloadRunsOnOneNode() {
+        nodeA.reload();
+        nodeB.reload();
+
+        verify(projectMapper, times(1)).selectEndDatesBetween(any(), any());
+    }
+
+    @Test
+    void deadlineCanBeClaimedAgainAfterLeaseExpires() {
+        nodeA.fire(PROJECT_ID);
+        jdbcTemplate.update("UPDATE schedule_job_lease SET lease_until = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP)");
+
+        nodeB.fire(PROJECT_ID);
+
+        verify(projectService, times(2)).expireProjectIfDue(PROJECT_ID);
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT fencing_token FROM schedule_job_lease WHERE job_name = ?", Long.class, "deadline:" + PROJECT_ID));
+    }
+
+    private DeadlineScheduler node(String nodeId) {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        JobLeaseManager jobLeaseManager = new JobLeaseManager();
+        ReflectionTestUtils.setField(jobLeaseManager, "nodeId", nodeId);
+        ReflectionTestUtils.setField(jobLeaseManager, "ttlSeconds", 300);
+        ReflectionTestUtils.setField(jobLeaseManager, "minHoldSeconds", 30);
+        ReflectionTestUtils.setField(jobLeaseManager, "leaseMapper", session.getMapper(ScheduleJobLeaseMapper.class));
+        ReflectionTestUtils.setField(jobLeaseManager, "runMapper", session.getMapper(ScheduleJobRunMapper.class));
+        ReflectionTestUtils.setField(jobLeaseManager, "transactionTemplate", transactionTemplate);
+
+        DeadlineScheduler scheduler = new DeadlineScheduler();
+        ReflectionTestUtils.setField(scheduler, "horizonDays", 35);
+        ReflectionTestUtils.setField(scheduler, "projectMapper", projectMapper);
+        ReflectionTestUtils.setField(scheduler, "projectService", projectService);
+        ReflectionTestUtils.setField(scheduler, "expenseService", expenseService);
+        ReflectionTestUtils.setField(scheduler, "jobLeaseManager", jobLeaseManager);
+        return scheduler;
+    }
+}
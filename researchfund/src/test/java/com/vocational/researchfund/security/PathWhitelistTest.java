@@ -0,0 +1,99 @@
+package com.vocational.researchfund.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 免认证路径匹配器与AntPathMatcher逐条比对
+ */
+class PathWhitelistTest {
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Test
+    void matchesSameAsAntPathMatcherForEveryExcludedPattern() {
+        List<String> patterns = JwtAuthenticationFilter.EXCLUDE_URL_PATTERNS;
+        PathWhitelist whitelist = new PathWhitelist(patterns);
+
+        List<String> mismatches = new ArrayList<>();
+        for (String path : probePaths(patterns)) {
+            boolean expected = antMatches(patterns, path);
+            if (whitelist.matches(path) != expected) {
+                mismatches.add(path + " -> 期望 " + expected);
+            }
+        }
+        assertTrue(mismatches.isEmpty(), "与AntPathMatcher结果不一致: " + mismatches);
+    }
+
+    @Test
+    void fallbackPatternsMatchSameAsAntPathMatcher() {
+        // 含中间通配符的模式不进入前缀树，走AntPathMatcher并缓存结果
+        List<String> patterns = Arrays.asList("/api/*/export", "/files/{id}/preview", "/docs/**/*.pdf", "/api/public/**");
+        PathWhitelist whitelist = new PathWhitelist(patterns);
+
+        List<String> paths = new ArrayList<>(probePaths(patterns));
+        paths.addAll(Arrays.asList("/api/expense/export", "/api/expense/export/x", "/files/12/preview",
+                "/files/12/13/preview", "/docs/a/b/c.pdf", "/docs/c.pdf", "/docs/a/c.doc"));
+        for (int round = 0; round < 2; round++) {
+            // 第二轮命中缓存，结果应与第一轮相同
+            for (String path : paths) {
+                assertEquals(antMatches(patterns, path), whitelist.matches(path), path);
+            }
+        }
+    }
+
+    @Test
+    void nullAndEmptyPathsAreNotWhitelisted() {
+        PathWhitelist whitelist = new PathWhitelist(JwtAuthenticationFilter.EXCLUDE_URL_PATTERNS);
+        assertFalse(whitelist.matches(null));
+        assertFalse(whitelist.matches(""));
+        assertFalse(whitelist.matches("/"));
+    }
+
+    private boolean antMatches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (antPathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为每个模式生成命中、边界和相近但不应命中的路径
+     * 过滤器匹配前路径已由UrlPathHelper规范化（合并重复斜杠、解码），这里只生成规范化后的路径
+     */
+    private static Set<String> probePaths(List<String> patterns) {
+        Set<String> paths = new LinkedHashSet<>(Arrays.asList(
+                "/", "/api", "/api/", "/api/user", "/api/user/info", "/api/expenses", "/api/expenses/1",
+                "/static", "/favicon", "/favicon.ico.bak", "/api/public/文件.pdf", "/文件"));
+        for (String pattern : patterns) {
+            String literal = pattern.endsWith("/**") ? pattern.substring(0, pattern.length() - 3) : pattern;
+            paths.add(pattern);
+            paths.add(literal);
+            paths.add(literal + "/");
+            paths.add(literal + "x");
+            paths.add(literal + "/x");
+            paths.add(literal + "/x/y");
+            paths.add(literal + "/x/y/");
+            paths.add(literal + ".json");
+            paths.add(literal.toUpperCase());
+            paths.add("/prefix" + literal);
+            if (literal.length() > 1) {
+                paths.add(literal.substring(0, literal.length() - 1));
+                paths.add(literal.substring(0, literal.lastIndexOf('/') + 1));
+            }
+        }
+        return paths;
+    }
+}
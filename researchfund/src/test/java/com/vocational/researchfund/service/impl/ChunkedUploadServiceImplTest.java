@@ -0,0 +1,335 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.dto.ChunkedUploadInitDTO;
+import com.vocational.researchfund.dto.ChunkedUploadStatusDTO;
+import com.vocational.researchfund.entity.FileBlob;
+import com.vocational.researchfund.entity.UploadSession;
+import com.vocational.researchfund.exception.BusinessException;
+import com.vocational.researchfund.mapper.FileBlobMapper;
+import com.vocational.researchfund.mapper.UploadSessionMapper;
+import com.vocational.researchfund.security.SecurityUser;
+import com.vocational.researchfund.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分片上传：断点续传只需补传缺失分片，分片与整个文件的大小、MD5不符时拒绝
+ */
+class ChunkedUploadServiceImplTest {
+
+    private static final long USER_ID = 3L;
+    private static final int CHUNK_SIZE = 10;
+
+    @TempDir
+    Path projectFilesRoot;
+
+    private final UploadSessionMapper uploadSessionMapper = mock(UploadSessionMapper.class);
+    private final FileBlobMapper fileBlobMapper = mock(FileBlobMapper.class);
+
+    private ChunkedUploadServiceImpl chunkedUploadService;
+
+    /**
+     * 模拟数据库中的会话记录
+     */
+    private UploadSession stored;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        SecurityUser user = new SecurityUser(USER_ID, "teacher", "", "张老师", Collections.singletonList("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        when(uploadSessionMapper.insert(any(UploadSession.class))).thenAnswer(invocation -> {
+            stored = invocation.getArgument(0);
+            return 1;
+        });
+        when(uploadSessionMapper.selectById(anyString())).thenAnswer(invocation ->
+                stored != null && stored.getUploadId().equals(invocation.getArgument(0)) ? copy(stored) : null);
+        when(uploadSessionMapper.updateStatus(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            if (stored == null || !stored.getStatus().equals(invocation.getArgument(1))) {
+                return 0;
+            }
+            stored.setStatus(invocation.getArgument(2));
+            return 1;
+        });
+        when(uploadSessionMapper.markCompleted(anyString(), anyString())).thenAnswer(invocation -> {
+            stored.setStatus("completed");
+            stored.setFilePath(invocation.getArgument(1));
+            return 1;
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(fileBlobMapper.selectByHash(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            FileBlob blob = new FileBlob();
+            blob.setContentHash(hash);
+            blob.setStoragePath(BlobStore.BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".pdf");
+            return blob;
+        });
+
+        Path tempRoot = projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".tmp");
+        Path chunkRoot = projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".chunks");
+        Files.createDirectories(tempRoot);
+        Files.createDirectories(chunkRoot);
+        BlobStore blobStore = new BlobStore();
+        ReflectionTestUtils.setField(blobStore, "fileBlobMapper", fileBlobMapper);
+        ReflectionTestUtils.setField(blobStore, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(blobStore, "projectFilesRoot", projectFilesRoot);
+        ReflectionTestUtils.setField(blobStore, "tempRoot", tempRoot);
+
+        chunkedUploadService = new ChunkedUploadServiceImpl();
+        ReflectionTestUtils.setField(chunkedUploadService, "uploadSessionMapper", uploadSessionMapper);
+        ReflectionTestUtils.setField(chunkedUploadService, "blobStore", blobStore);
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkRoot", chunkRoot);
+        ReflectionTestUtils.setField(chunkedUploadService, "defaultChunkSize", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxChunkSize", 64L);
+        ReflectionTestUtils.setField(chunkedUploadService, "maxFileSize", 1024L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resumeUploadsOnlyMissingChunks() throws Exception {
+        byte[] content = content(25);
+        String uploadId = init(content, DigestUtils.md5DigestAsHex(content)).getUploadId();
+        assertEquals(3, stored.getTotalChunks());
+
+        uploadChunk(uploadId, 0, content);
+        uploadChunk(uploadId, 2, content);
+
+        // 中断后查询状态，只需补传缺失的分片
+        assertEquals(Arrays.asList(0, 2), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+        BusinessException incomplete = assertThrows(BusinessException.class, () -> chunkedUploadService.complete(uploadId));
+        assertEquals(409, incomplete.getCode());
+        assertEquals("uploading", stored.getStatus(), "分片不全时不进入合并状态");
+
+        uploadChunk(uploadId, 1, content);
+        assertEquals(Arrays.asList(0, 1, 2), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+
+        ChunkedUploadStatusDTO result = chunkedUploadService.complete(uploadId);
+
+        assertEquals("completed", result.getStatus());
+        assertArrayEquals(content, Files.readAllBytes(projectFilesRoot.resolve(result.getFilePath())));
+        assertFalse(Files.exists(chunkDir(uploadId)), "合并完成后应删除分片目录");
+        assertEquals(0, countFiles(projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".tmp")));
+    }
+
+    @Test
+    void reuploadedChunkReplacesPreviousCopy() throws Exception {
+        byte[] content = content(20);
+        String uploadId = init(content, null).getUploadId();
+
+        chunkedUploadService.uploadChunk(uploadId, 0, new ByteArrayInputStream(new byte[CHUNK_SIZE]), null);
+        uploadChunk(uploadId, 0, content);
+        uploadChunk(uploadId, 1, content);
+
+        ChunkedUploadStatusDTO result = chunkedUploadService.complete(uploadId);
+
+        assertArrayEquals(content, Files.readAllBytes(projectFilesRoot.resolve(result.getFilePath())));
+    }
+
+    @Test
+    void interruptedChunkIsNotCountedAsReceived() throws Exception {
+        byte[] content = content(25);
+        String uploadId = init(content, null).getUploadId();
+        // 先收到4字节，随后连接中断
+        InputStream broken = new InputStream() {
+            private boolean sent;
+
+            @Override
+            public int read() throws IOException {
+                throw new IOException("连接中断");
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (sent) {
+                    throw new IOException("连接中断");
+                }
+                sent = true;
+                Arrays.fill(b, off, off + 4, (byte) 1);
+                return 4;
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> chunkedUploadService.uploadChunk(uploadId, 0, broken, null));
+
+        assertEquals("连接中断", e.getMessage());
+        assertEquals(Collections.emptyList(), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+        assertEquals(0, countFiles(chunkDir(uploadId)), "中断的分片不应留下临时文件");
+        verify(uploadSessionMapper, never()).touch(anyString());
+    }
+
+    @Test
+    void chunkWithWrongSizeIsRejected() throws Exception {
+        byte[] content = content(25);
+        String uploadId = init(content, null).getUploadId();
+
+        BusinessException oversized = assertThrows(BusinessException.class, () ->
+                chunkedUploadService.uploadChunk(uploadId, 0, new ByteArrayInputStream(new byte[CHUNK_SIZE + 1]), null));
+        assertEquals(400, oversized.getCode());
+
+        // 最后一个分片只有5字节，按完整分片大小上传同样被拒绝
+        BusinessException lastOversized = assertThrows(BusinessException.class, () ->
+                chunkedUploadService.uploadChunk(uploadId, 2, new ByteArrayInputStream(new byte[CHUNK_SIZE]), null));
+        assertEquals(400, lastOversized.getCode());
+
+        BusinessException truncated = assertThrows(BusinessException.class, () ->
+                chunkedUploadService.uploadChunk(uploadId, 1, new ByteArrayInputStream(new byte[CHUNK_SIZE - 1]), null));
+        assertEquals(400, truncated.getCode());
+
+        assertEquals(Collections.emptyList(), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+        assertEquals(0, countFiles(chunkDir(uploadId)));
+    }
+
+    @Test
+    void chunkWithWrongMd5IsRejected() throws Exception {
+        byte[] content = content(25);
+        String uploadId = init(content, null).getUploadId();
+        byte[] chunk = Arrays.copyOfRange(content, 0, CHUNK_SIZE);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> chunkedUploadService.uploadChunk(
+                uploadId, 0, new ByteArrayInputStream(chunk), DigestUtils.md5DigestAsHex(new byte[CHUNK_SIZE])));
+
+        assertEquals(400, e.getCode());
+        assertEquals(Collections.emptyList(), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+
+        // 分片MD5不区分大小写
+        chunkedUploadService.uploadChunk(uploadId, 0, new ByteArrayInputStream(chunk),
+                DigestUtils.md5DigestAsHex(chunk).toUpperCase());
+        assertEquals(Collections.singletonList(0), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+    }
+
+    @Test
+    void fileMd5MismatchKeepsChunksForRetry() throws Exception {
+        byte[] content = content(25);
+        String uploadId = init(content, DigestUtils.md5DigestAsHex(new byte[25])).getUploadId();
+        uploadChunk(uploadId, 0, content);
+        uploadChunk(uploadId, 1, content);
+        uploadChunk(uploadId, 2, content);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> chunkedUploadService.complete(uploadId));
+
+        assertEquals(400, e.getCode());
+        assertEquals("uploading", stored.getStatus(), "合并失败后恢复为上传中");
+        assertEquals(Arrays.asList(0, 1, 2), chunkedUploadService.getStatus(uploadId).getReceivedChunks());
+        assertEquals(0, countFiles(projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".tmp")), "校验失败的暂存文件应删除");
+        verify(uploadSessionMapper, never()).markCompleted(anyString(), anyString());
+        verifyNoInteractions(fileBlobMapper);
+    }
+
+    @Test
+    void initRejectsOversizedFileAndChunk() {
+        ChunkedUploadInitDTO tooLarge = request(1025, CHUNK_SIZE, null);
+        assertEquals(400, assertThrows(BusinessException.class, () -> chunkedUploadService.init(tooLarge)).getCode());
+
+        ChunkedUploadInitDTO chunkTooLarge = request(100, 65, null);
+        assertEquals(400, assertThrows(BusinessException.class, () -> chunkedUploadService.init(chunkTooLarge)).getCode());
+
+        ChunkedUploadInitDTO badMd5 = request(100, CHUNK_SIZE, "not-a-md5");
+        assertEquals(400, assertThrows(BusinessException.class, () -> chunkedUploadService.init(badMd5)).getCode());
+
+        verify(uploadSessionMapper, never()).insert(any(UploadSession.class));
+    }
+
+    @Test
+    void otherUsersCannotResumeSession() {
+        String uploadId = init(content(25), null).getUploadId();
+        SecurityUser other = new SecurityUser(USER_ID + 1, "other", "", "李老师", Collections.singletonList("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(other, null, other.getAuthorities()));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> chunkedUploadService.getStatus(uploadId));
+
+        assertEquals(403, e.getCode());
+    }
+
+    private ChunkedUploadStatusDTO init(byte[] content, String fileMd5) {
+        return chunkedUploadService.init(request(content.length, CHUNK_SIZE, fileMd5));
+    }
+
+    private void uploadChunk(String uploadId, int index, byte[] content) throws IOException {
+        byte[] chunk = Arrays.copyOfRange(content, index * CHUNK_SIZE, Math.min(content.length, (index + 1) * CHUNK_SIZE));
+        chunkedUploadService.uploadChunk(uploadId, index, new ByteArrayInputStream(chunk), DigestUtils.md5DigestAsHex(chunk));
+    }
+
+    private Path chunkDir(String uploadId) {
+        return projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".chunks").resolve(uploadId);
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> !file.getFileName().toString().matches("\\d+\\.part")).count();
+        }
+    }
+
+    private static ChunkedUploadInitDTO request(long fileSize, long chunkSize, String fileMd5) {
+        return ChunkedUploadInitDTO.builder()
+                .fileName("结题报告.pdf")
+                .contentType("application/pdf")
+                .fileSize(fileSize)
+                .chunkSize(chunkSize)
+                .fileMd5(fileMd5)
+                .build();
+    }
+
+    private static UploadSession copy(UploadSession session) {
+        UploadSession copy = new UploadSession();
+        copy.setUploadId(session.getUploadId());
+        copy.setUserId(session.getUserId());
+        copy.setFileName(session.getFileName());
+        copy.setContentType(session.getContentType());
+        copy.setFileSize(session.getFileSize());
+        copy.setChunkSize(session.getChunkSize());
+        copy.setTotalChunks(session.getTotalChunks());
+        copy.setFileMd5(session.getFileMd5());
+        copy.setStatus(session.getStatus());
+        copy.setFilePath(session.getFilePath());
+        return copy;
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 7 + 1);
+        }
+        return content;
+    }
+}
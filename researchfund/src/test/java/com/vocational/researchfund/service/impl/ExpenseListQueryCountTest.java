@@ -0,0 +1,159 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.dto.ExpenseDTO;
+import com.vocational.researchfund.dto.PageDTO;
+import com.vocational.researchfund.mapper.AttachmentMapper;
+import com.vocational.researchfund.mapper.ExpenseMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 经费申请列表每页的SQL语句数
+ * 使用H2（MySQL兼容模式）执行真实的Mapper XML，通过MyBatis拦截器统计准备的语句数，
+ * 确认附件按页批量加载，语句数与每页条数无关
+ */
+class ExpenseListQueryCountTest {
+
+    private static final int EXPENSE_COUNT = 30;
+    private static final int ATTACHMENTS_PER_EXPENSE = 2;
+
+    private final StatementCounter counter = new StatementCounter();
+
+    private SqlSession session;
+    private ExpenseServiceImpl expenseService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/expense-list-schema.sql")).execute(dataSource);
+        seed(new JdbcTemplate(dataSource));
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        // 关闭会话级缓存，每次调用都实际执行SQL
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.addInterceptor(counter);
+        loadMapperXml(configuration, "mapper/ExpenseMapper.xml");
+        loadMapperXml(configuration, "mapper/AttachmentMapper.xml");
+        session = new SqlSessionFactoryBuilder().build(configuration).openSession(true);
+
+        expenseService = new ExpenseServiceImpl();
+        ReflectionTestUtils.setField(expenseService, "expenseMapper", session.getMapper(ExpenseMapper.class));
+        ReflectionTestUtils.setField(expenseService, "attachmentMapper", session.getMapper(AttachmentMapper.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void cursorPageUsesListQueryAndOneAttachmentQuery() {
+        for (int pageSize : new int[] {5, 20}) {
+            counter.reset();
+            PageDTO<ExpenseDTO> page = expenseService.getAllExpensesByCursor(new HashMap<>(), null, pageSize);
+
+            assertEquals(2, counter.get(), "每页应只有列表查询和附件查询两次数据库往返, pageSize=" + pageSize);
+            assertEquals(pageSize, page.getList().size());
+            assertAttachmentsLoaded(page);
+        }
+    }
+
+    @Test
+    void offsetPageOnlyAddsCountQuery() {
+        counter.reset();
+        PageDTO<ExpenseDTO> page = expenseService.getAllExpenses(new HashMap<>(), 2, 10);
+
+        assertEquals(3, counter.get(), "页码分页在列表查询和附件查询之外只多一次COUNT");
+        assertEquals(EXPENSE_COUNT, page.getTotal());
+        assertEquals(10, page.getList().size());
+        assertAttachmentsLoaded(page);
+    }
+
+    @Test
+    void emptyPageSkipsAttachmentQuery() {
+        counter.reset();
+        PageDTO<ExpenseDTO> page = expenseService.getAllExpenses(new HashMap<>(), 10, 10);
+
+        assertEquals(1, counter.get(), "超出总数的页码只执行COUNT");
+        assertEquals(0, page.getList().size());
+    }
+
+    private void assertAttachmentsLoaded(PageDTO<ExpenseDTO> page) {
+        for (ExpenseDTO expense : page.getList()) {
+            assertNotNull(expense.getAttachments());
+            assertEquals(ATTACHMENTS_PER_EXPENSE, expense.getAttachments().size());
+            assertEquals(expense.getId(), expense.getAttachments().get(0).getExpenseId());
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        for (int i = 1; i <= EXPENSE_COUNT; i++) {
+            jdbcTemplate.update("INSERT INTO expense_apply (title, project_id, project_name, type, amount, apply_date, "
+                    + "apply_user_id, apply_user_name) VALUES (?, 1, '测试项目', 'material', 100.00, CURRENT_DATE, 1, '张三')",
+                    "经费申请" + i);
+            for (int j = 1; j <= ATTACHMENTS_PER_EXPENSE; j++) {
+                jdbcTemplate.update("INSERT INTO expense_attachment (expense_id, name, url) VALUES (?, ?, ?)",
+                        i, "附件" + j, "/uploads/" + i + "-" + j + ".pdf");
+            }
+        }
+    }
+
+    private static void loadMapperXml(Configuration configuration, String resource) throws Exception {
+        try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+        }
+    }
+
+    /**
+     * 统计准备的SQL语句数，每条语句对应一次数据库往返
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class StatementCounter implements Interceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        int get() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.cache.ProjectAggregateCache;
+import com.vocational.researchfund.dto.BatchResultDTO;
+import com.vocational.researchfund.dto.ExpenseDTO;
+import com.vocational.researchfund.mapper.ExpenseMapper;
+import com.vocational.researchfund.mapper.ProjectMapper;
+import com.vocational.researchfund.schedule.DeadlineScheduler;
+import com.vocational.researchfund.service.BudgetLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量支付：每个项目先一次性预留本批总额，不足时逐条预留，尽可能多地支付
+ */
+@ExtendWith(MockitoExtension.class)
+class ExpenseServiceImplBatchPayTest {
+
+    private static final Long PROJECT_A = 1L;
+    private static final Long PROJECT_B = 2L;
+
+    @Mock
+    private ExpenseMapper expenseMapper;
+
+    @Mock
+    private ProjectMapper projectMapper;
+
+    @Mock
+    private ProjectAggregateCache projectAggregateCache;
+
+    @Mock
+    private BudgetLedgerService budgetLedgerService;
+
+    @Mock
+    private DeadlineScheduler deadlineScheduler;
+
+    @InjectMocks
+    private ExpenseServiceImpl expenseService;
+
+    @BeforeEach
+    void setUp() {
+        // 按原状态批量更新，全部命中
+        lenient().when(expenseMapper.batchUpdateStatus(anyList(), eq("approved"), any(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        lenient().when(projectMapper.selectEndDatesByIds(anyList())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void reservesProjectTotalOnceWhenBudgetSuffices() {
+        when(expenseMapper.selectByIdsForUpdate(Arrays.asList(11L, 12L))).thenReturn(Arrays.asList(
+                expense(11L, PROJECT_A, "300", "advance"),
+                expense(12L, PROJECT_A, "200", "reimbursement")));
+        when(projectMapper.reserveBudget(PROJECT_A, new BigDecimal("500"))).thenReturn(1);
+
+        BatchResultDTO result = expenseService.batchPayExpenses(Arrays.asList(11L, 12L));
+
+        assertEquals(2, result.getSuccessCount());
+        assertItem(result.getItems().get(0), 11L, true, "receipt_pending");
+        assertItem(result.getItems().get(1), 12L, true, "paid");
+        verify(projectMapper, times(1)).reserveBudget(any(), any());
+        verify(expenseMapper).batchUpdateStatus(eq(Collections.singletonList(12L)), eq("approved"), eq("paid"),
+                isNull(), isNull(), any());
+        verify(expenseMapper).batchUpdateStatus(eq(Collections.singletonList(11L)), eq("approved"), eq("receipt_pending"),
+                isNull(), isNull(), any());
+        verify(projectAggregateCache).evict(PROJECT_A);
+    }
+
+    @Test
+    void fallsBackToPerItemReservationWhenTotalExceedsBudget() {
+        when(expenseMapper.selectByIdsForUpdate(Arrays.asList(21L, 22L, 23L))).thenReturn(Arrays.asList(
+                expense(21L, PROJECT_B, "300", "reimbursement"),
+                expense(22L, PROJECT_B, "500", "reimbursement"),
+                expense(23L, PROJECT_B, "200", "reimbursement")));
+        // 剩余600：总额1000不足，逐条预留时300成功、500不足、200成功
+        when(projectMapper.reserveBudget(PROJECT_B, new BigDecimal("1000"))).thenReturn(0);
+        when(projectMapper.reserveBudget(PROJECT_B, new BigDecimal("300"))).thenReturn(1);
+        when(projectMapper.reserveBudget(PROJECT_B, new BigDecimal("500"))).thenReturn(0);
+        when(projectMapper.reserveBudget(PROJECT_B, new BigDecimal("200"))).thenReturn(1);
+
+        BatchResultDTO result = expenseService.batchPayExpenses(Arrays.asList(21L, 22L, 23L));
+
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(1, result.getFailureCount());
+        assertItem(result.getItems().get(0), 21L, true, "paid");
+        assertItem(result.getItems().get(1), 22L, false, null);
+        assertTrue(result.getItems().get(1).getMessage().contains("剩余预算"));
+        assertItem(result.getItems().get(2), 23L, true, "paid");
+        verify(expenseMapper).batchUpdateStatus(eq(Arrays.asList(21L, 23L)), eq("approved"), eq("paid"),
+                isNull(), isNull(), any());
+        verify(projectAggregateCache).evict(PROJECT_B);
+    }
+
+    @Test
+    void projectsAreReservedIndependently() {
+        when(expenseMapper.selectByIdsForUpdate(Arrays.asList(31L, 32L, 33L))).thenReturn(Arrays.asList(
+                expense(31L, PROJECT_A, "100", "reimbursement"),
+                expense(32L, PROJECT_B, "900", "reimbursement"),
+                expense(33L, PROJECT_A, "100", "reimbursement")));
+        when(projectMapper.reserveBudget(PROJECT_A, new BigDecimal("200"))).thenReturn(1);
+        when(projectMapper.reserveBudget(PROJECT_B, new BigDecimal("900"))).thenReturn(0);
+
+        BatchResultDTO result = expenseService.batchPayExpenses(Arrays.asList(31L, 32L, 33L));
+
+        assertItem(result.getItems().get(0), 31L, true, "paid");
+        assertItem(result.getItems().get(1), 32L, false, null);
+        assertItem(result.getItems().get(2), 33L, true, "paid");
+        verify(projectAggregateCache).evict(PROJECT_A);
+        verify(projectAggregateCache, never()).evict(PROJECT_B);
+    }
+
+    @Test
+    void missingAndUnapprovedExpensesFailWithoutReserving() {
+        ExpenseDTO pending = expense(42L, PROJECT_A, "100", "reimbursement");
+        pending.setStatus("pending");
+        when(expenseMapper.selectByIdsForUpdate(Arrays.asList(41L, 42L))).thenReturn(new ArrayList<>(Collections.singletonList(pending)));
+
+        BatchResultDTO result = expenseService.batchPayExpenses(Arrays.asList(41L, 42L, 41L));
+
+        assertEquals(0, result.getSuccessCount());
+        assertEquals(2, result.getItems().size(), "重复ID只处理一次");
+        assertItem(result.getItems().get(0), 41L, false, null);
+        assertItem(result.getItems().get(1), 42L, false, null);
+        verify(projectMapper, never()).reserveBudget(any(), any());
+        verify(expenseMapper, never()).batchUpdateStatus(anyList(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void concurrentStatusChangeRollsBackWholeBatch() {
+        when(expenseMapper.selectByIdsForUpdate(Arrays.asList(51L, 52L))).thenReturn(Arrays.asList(
+                expense(51L, PROJECT_A, "100", "reimbursement"),
+                expense(52L, PROJECT_A, "100", "reimbursement")));
+        when(projectMapper.reserveBudget(PROJECT_A, new BigDecimal("200"))).thenReturn(1);
+        when(expenseMapper.batchUpdateStatus(anyList(), eq("approved"), eq("paid"), isNull(), isNull(), any())).thenReturn(1);
+
+        assertThrows(RuntimeException.class, () -> expenseService.batchPayExpenses(Arrays.asList(51L, 52L)));
+    }
+
+    private static void assertItem(BatchResultDTO.ItemResult item, Long id, boolean success, String status) {
+        assertEquals(id, item.getId());
+        if (success) {
+            assertTrue(item.isSuccess());
+            assertEquals(status, item.getStatus());
+        } else {
+            assertFalse(item.isSuccess());
+        }
+    }
+
+    private static ExpenseDTO expense(Long id, Long projectId, String amount, String category) {
+        ExpenseDTO expense = new ExpenseDTO();
+        expense.setId(id);
+        expense.setProjectId(projectId);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setCategory(category);
+        expense.setType("material");
+        expense.setStatus("approved");
+        return expense;
+    }
+}
@@ -0,0 +1,127 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.cache.ProjectAggregateCache;
+import com.vocational.researchfund.dto.ProjectDTO;
+import com.vocational.researchfund.exception.BudgetReservationException;
+import com.vocational.researchfund.mapper.ProjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目经费预留：条件UPDATE失败后区分剩余经费不足（不重试）与并发冲突（重试）
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectServiceImplReserveBudgetTest {
+
+    private static final Long PROJECT_ID = 7L;
+
+    @Mock
+    private ProjectMapper projectMapper;
+
+    @Mock
+    private ProjectAggregateCache projectAggregateCache;
+
+    @InjectMocks
+    private ProjectServiceImpl projectService;
+
+    @Test
+    void reservesOnFirstAttempt() {
+        ProjectDTO project = new ProjectDTO();
+        when(projectMapper.reserveBudget(PROJECT_ID, new BigDecimal("200"))).thenReturn(1);
+        when(projectAggregateCache.get(eq(PROJECT_ID), any())).thenReturn(project);
+
+        assertSame(project, projectService.reserveBudget(PROJECT_ID, new BigDecimal("200")));
+
+        verify(projectAggregateCache).evict(PROJECT_ID);
+        verify(projectMapper, never()).selectBudgetForUpdate(any());
+    }
+
+    @Test
+    void insufficientBudgetFailsWithoutRetry() {
+        when(projectMapper.reserveBudget(PROJECT_ID, new BigDecimal("200"))).thenReturn(0);
+        when(projectMapper.selectBudgetForUpdate(PROJECT_ID)).thenReturn(budget("1000", "900"));
+
+        BudgetReservationException e = assertThrows(BudgetReservationException.class,
+                () -> projectService.reserveBudget(PROJECT_ID, new BigDecimal("200")));
+
+        assertEquals(BudgetReservationException.INSUFFICIENT_FUNDS, e.getCode());
+        assertFalse(e.isRetryable());
+        assertEquals(0, new BigDecimal("100").compareTo(e.getRemainingBudget()));
+        verify(projectMapper, times(1)).reserveBudget(any(), any());
+        verify(projectAggregateCache, never()).evict(any());
+    }
+
+    @Test
+    void retriesWhenBudgetWasFreedConcurrently() {
+        ProjectDTO project = new ProjectDTO();
+        // 第一次UPDATE时经费被其他操作占用，随后释放，重试成功
+        when(projectMapper.reserveBudget(PROJECT_ID, new BigDecimal("200"))).thenReturn(0, 1);
+        when(projectMapper.selectBudgetForUpdate(PROJECT_ID)).thenReturn(budget("1000", "500"));
+        when(projectAggregateCache.get(eq(PROJECT_ID), any())).thenReturn(project);
+
+        assertSame(project, projectService.reserveBudget(PROJECT_ID, new BigDecimal("200")));
+
+        verify(projectMapper, times(2)).reserveBudget(PROJECT_ID, new BigDecimal("200"));
+        verify(projectAggregateCache).evict(PROJECT_ID);
+    }
+
+    @Test
+    void repeatedConflictsGiveUpAsRetryable() {
+        when(projectMapper.reserveBudget(PROJECT_ID, new BigDecimal("200"))).thenReturn(0);
+        when(projectMapper.selectBudgetForUpdate(PROJECT_ID)).thenReturn(budget("1000", "500"));
+
+        BudgetReservationException e = assertThrows(BudgetReservationException.class,
+                () -> projectService.reserveBudget(PROJECT_ID, new BigDecimal("200")));
+
+        assertEquals(BudgetReservationException.CONFLICT, e.getCode());
+        assertTrue(e.isRetryable());
+        assertNull(e.getRemainingBudget());
+        verify(projectMapper, times(3)).reserveBudget(PROJECT_ID, new BigDecimal("200"));
+    }
+
+    @Test
+    void missingProjectIsNotRetried() {
+        when(projectMapper.reserveBudget(PROJECT_ID, new BigDecimal("200"))).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> projectService.reserveBudget(PROJECT_ID, new BigDecimal("200")));
+
+        assertFalse(e instanceof BudgetReservationException);
+        verify(projectMapper, times(1)).reserveBudget(any(), any());
+    }
+
+    @Test
+    void rejectsNonPositiveAmount() {
+        assertThrows(RuntimeException.class, () -> projectService.reserveBudget(PROJECT_ID, BigDecimal.ZERO));
+        assertThrows(RuntimeException.class, () -> projectService.reserveBudget(PROJECT_ID, null));
+        verifyNoInteractions(projectMapper);
+    }
+
+    private static Map<String, Object> budget(String budget, String usedBudget) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("budget", new BigDecimal(budget));
+        row.put("used_budget", new BigDecimal(usedBudget));
+        return row;
+    }
+}
@@ -0,0 +1,165 @@
+package com.vocational.researchfund.service.impl;
+
+import com.vocational.researchfund.entity.FileBlob;
+import com.vocational.researchfund.mapper.FileBlobMapper;
+import com.vocational.researchfund.storage.BlobStore;
+import com.vocational.researchfund.storage.FileHashIndex;
+import com.vocational.researchfund.support.CountingInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 上传内容只读取一次：写入临时文件的同时计算MD5，去重判断不再重新读取上传内容
+ */
+class UploadServiceImplTest {
+
+    @TempDir
+    Path projectFilesRoot;
+
+    private final FileBlobMapper fileBlobMapper = mock(FileBlobMapper.class);
+    private final FileHashIndex fileHashIndex = mock(FileHashIndex.class);
+
+    private UploadServiceImpl uploadService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // 内容记录不存在时upsert插入，查询返回本次的存储路径
+        when(fileBlobMapper.selectByHash(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            FileBlob blob = new FileBlob();
+            blob.setContentHash(hash);
+            blob.setStoragePath(BlobStore.BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".pdf");
+            return blob;
+        });
+
+        Path tempRoot = projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".tmp");
+        Files.createDirectories(tempRoot);
+        BlobStore blobStore = new BlobStore();
+        ReflectionTestUtils.setField(blobStore, "fileBlobMapper", fileBlobMapper);
+        ReflectionTestUtils.setField(blobStore, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(blobStore, "projectFilesRoot", projectFilesRoot);
+        ReflectionTestUtils.setField(blobStore, "tempRoot", tempRoot);
+
+        uploadService = new UploadServiceImpl();
+        ReflectionTestUtils.setField(uploadService, "blobStore", blobStore);
+        ReflectionTestUtils.setField(uploadService, "fileHashIndex", fileHashIndex);
+        ReflectionTestUtils.setField(uploadService, "uploadPath", projectFilesRoot.toString());
+    }
+
+    @Test
+    void saveProjectFileReadsUploadOnce() throws Exception {
+        byte[] content = content(300 * 1024);
+        CountingUpload upload = new CountingUpload("申报书.pdf", content);
+
+        String path = uploadService.saveProjectFile(upload);
+
+        upload.assertReadOnce(content.length);
+        String md5 = DigestUtils.md5DigestAsHex(content);
+        assertEquals(BlobStore.BLOB_DIR + "/" + md5.substring(0, 2) + "/" + md5.substring(2, 4) + "/" + md5 + ".pdf", path);
+        assertArrayEquals(content, Files.readAllBytes(projectFilesRoot.resolve(path)));
+        assertTempDirEmpty();
+    }
+
+    @Test
+    void legacyDuplicateIsDetectedFromStagedHashWithoutRereading() throws Exception {
+        byte[] content = content(70 * 1024);
+        String md5 = DigestUtils.md5DigestAsHex(content);
+        when(fileHashIndex.findPath(any(File.class), eq(md5))).thenReturn("2023/05/申报书.pdf");
+        CountingUpload upload = new CountingUpload("申报书.pdf", content);
+
+        String path = uploadService.saveProjectFile(upload);
+
+        upload.assertReadOnce(content.length);
+        assertEquals("已存在|2023/05/申报书.pdf", path);
+        assertTempDirEmpty();
+    }
+
+    @Test
+    void saveAttachmentReadsUploadOnce() throws Exception {
+        byte[] content = content(1024);
+        CountingUpload upload = new CountingUpload("发票.pdf", content);
+
+        String url = uploadService.saveAttachment(upload);
+
+        upload.assertReadOnce(content.length);
+        assertTrue(url.endsWith(DigestUtils.md5DigestAsHex(content) + ".pdf"), url);
+    }
+
+    private void assertTempDirEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(projectFilesRoot.resolve(BlobStore.BLOB_DIR).resolve(".tmp"))) {
+            assertEquals(0, files.count(), "暂存文件应已移动或删除");
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        byte[] seed = "科研经费".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (seed[i % seed.length] + i / seed.length);
+        }
+        return content;
+    }
+
+    /**
+     * 记录每次打开的输入流，getBytes等一次性读取全部内容的方法视为重复读取
+     */
+    private static class CountingUpload extends MockMultipartFile {
+
+        private final byte[] content;
+        private final List<CountingInputStream> streams = new ArrayList<>();
+
+        CountingUpload(String originalFilename, byte[] content) {
+            super("file", originalFilename, "application/pdf", content);
+            this.content = content;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            CountingInputStream stream = new CountingInputStream(new ByteArrayInputStream(content));
+            streams.add(stream);
+            return stream;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("上传内容应通过输入流读取");
+        }
+
+        void assertReadOnce(long size) {
+            assertEquals(1, streams.size(), "上传内容应只打开一次");
+            CountingInputStream stream = streams.get(0);
+            assertEquals(size, stream.getBytesRead(), "上传内容应完整读取一次");
+            assertEquals(1, stream.getEofCount(), "读到末尾后不应继续读取");
+            assertTrue(stream.isClosed(), "输入流应被关闭");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.vocational.researchfund.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 文件下载发送器：Range解析、If-Range校验和条件请求
+ */
+class RangeFileSenderTest {
+
+    private static final String ETAG = "\"0123456789abcdef\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final int LENGTH = 100;
+
+    @TempDir
+    Path dir;
+
+    private final RangeFileSender sender = new RangeFileSender();
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            content[i] = (byte) i;
+        }
+        file = dir.resolve("report.pdf");
+        Files.write(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(LAST_MODIFIED));
+    }
+
+    @Test
+    void parseRangeSingleRanges() {
+        assertArrayEquals(new long[]{0, 99}, RangeFileSender.parseRange("bytes=0-", LENGTH));
+        assertArrayEquals(new long[]{10, 19}, RangeFileSender.parseRange("bytes=10-19", LENGTH));
+        assertArrayEquals(new long[]{99, 99}, RangeFileSender.parseRange("bytes=99-99", LENGTH));
+        assertArrayEquals(new long[]{90, 99}, RangeFileSender.parseRange("bytes=-10", LENGTH));
+        assertArrayEquals(new long[]{0, 99}, RangeFileSender.parseRange("bytes=-500", LENGTH), "后缀超过文件长度时返回整个文件");
+        assertArrayEquals(new long[]{50, 99}, RangeFileSender.parseRange("bytes=50-1000", LENGTH), "结束位置超过文件长度时截断");
+        assertArrayEquals(new long[]{5, 9}, RangeFileSender.parseRange("bytes= 5 - 9 ", LENGTH));
+    }
+
+    @Test
+    void parseRangeUnsatisfiable() {
+        assertNull(RangeFileSender.parseRange("bytes=100-", LENGTH));
+        assertNull(RangeFileSender.parseRange("bytes=200-300", LENGTH));
+        assertNull(RangeFileSender.parseRange("bytes=-0", LENGTH));
+        assertNull(RangeFileSender.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void parseRangeIgnoresUnsupportedForms() {
+        // 多个范围、其他单位和格式错误时发送完整文件
+        assertEquals(0, RangeFileSender.parseRange("bytes=0-1,5-6", LENGTH).length);
+        assertEquals(0, RangeFileSender.parseRange("items=0-5", LENGTH).length);
+        assertEquals(0, RangeFileSender.parseRange("bytes=abc-", LENGTH).length);
+        assertEquals(0, RangeFileSender.parseRange("bytes=5", LENGTH).length);
+        assertEquals(0, RangeFileSender.parseRange("bytes=-x", LENGTH).length);
+        // 结束位置小于起始位置属于无效范围，忽略Range头
+        assertEquals(0, RangeFileSender.parseRange("bytes=20-10", LENGTH).length);
+        assertEquals(0, RangeFileSender.parseRange("bytes=150-120", LENGTH).length);
+    }
+
+    @Test
+    void invalidRangeReturnsWholeFile() throws Exception {
+        MockHttpServletResponse response = send(request("bytes=20-10"));
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeRequestReturnsPartialContent() throws Exception {
+        MockHttpServletResponse response = send(request("bytes=10-19"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        MockHttpServletResponse response = send(request("bytes=100-"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void multipleRangesReturnWholeFile() throws Exception {
+        MockHttpServletResponse response = send(request("bytes=0-1,5-6"));
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeMatchingEtagHonoursRange() throws Exception {
+        MockHttpServletRequest request = request("bytes=-10");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 90, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeChangedEtagReturnsWholeFile() throws Exception {
+        MockHttpServletRequest request = request("bytes=-10");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"fedcba9876543210\"");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeWeakEtagNeverMatches() throws Exception {
+        // If-Range要求强比较，弱ETag即使值相同也返回完整文件
+        MockHttpServletRequest request = request("bytes=-10");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + ETAG);
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeDateComparedWithLastModified() throws Exception {
+        MockHttpServletRequest current = request("bytes=0-9");
+        current.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED);
+        assertEquals(206, send(current).getStatus());
+
+        MockHttpServletRequest stale = request("bytes=0-9");
+        stale.addHeader(HttpHeaders.IF_RANGE, LAST_MODIFIED - 60_000);
+        MockHttpServletResponse response = send(stale);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifNoneMatchReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = request("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG);
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void headRequestSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = request(null);
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(LENGTH, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void largeRangeIsHandedToSendfile() throws Exception {
+        Path large = dir.resolve("large.pdf");
+        Files.write(large, new byte[128 * 1024]);
+        MockHttpServletRequest request = request("bytes=1024-");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        sender.send(request, response, large, "application/pdf", "attachment", ETAG);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(large.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1024L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(128L * 1024, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/upload/download");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        sender.send(request, response, file, "application/pdf", "attachment; filename=\"report.pdf\"", ETAG);
+        return response;
+    }
+}
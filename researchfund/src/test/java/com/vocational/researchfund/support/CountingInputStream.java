@@ -0,0 +1,78 @@
+package com.vocational.researchfund.support;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 统计读取情况的输入流，用于验证上传内容只被顺序读取一次
+ * 不支持mark/reset，读到末尾后继续读取会被记录
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private long bytesRead;
+    private int eofCount;
+    private boolean closed;
+
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            eofCount++;
+        } else {
+            bytesRead++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n == -1) {
+            eofCount++;
+        } else {
+            bytesRead += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        throw new UnsupportedOperationException("上传内容不应被跳过");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void reset() {
+        throw new UnsupportedOperationException("上传内容不应被重复读取");
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        super.close();
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 读到末尾的次数，顺序读取一次时为1
+     */
+    public int getEofCount() {
+        return eofCount;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
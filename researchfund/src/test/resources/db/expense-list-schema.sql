@@ -0,0 +1,32 @@
+-- 经费申请列表查询测试使用的表结构（H2 MySQL兼容模式，只保留列表查询涉及的列）
+CREATE TABLE expense_apply (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(100) NOT NULL,
+    project_id BIGINT NOT NULL,
+    project_name VARCHAR(100) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    apply_date DATE NOT NULL,
+    purpose VARCHAR(500),
+    reason VARCHAR(1000),
+    apply_user_id BIGINT NOT NULL,
+    apply_user_name VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending',
+    audit_user_id BIGINT,
+    audit_user_name VARCHAR(50),
+    audit_time DATETIME,
+    audit_comment VARCHAR(500),
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    deleted TINYINT DEFAULT 0,
+    category VARCHAR(20) DEFAULT 'advance'
+);
+
+CREATE TABLE expense_attachment (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    expense_id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    url VARCHAR(255) NOT NULL,
+    file_size BIGINT,
+    file_type VARCHAR(50),
+    deleted TINYINT DEFAULT 0
+);
@@ -0,0 +1,21 @@
+-- 定时任务租约测试使用的表结构（H2 MySQL兼容模式）
+CREATE TABLE schedule_job_lease (
+    job_name VARCHAR(100) NOT NULL,
+    owner VARCHAR(200),
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    acquired_at DATETIME,
+    lease_until DATETIME NOT NULL,
+    PRIMARY KEY (job_name)
+);
+
+CREATE TABLE schedule_job_run (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    job_name VARCHAR(100) NOT NULL,
+    owner VARCHAR(200) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    affected_rows BIGINT,
+    error_message VARCHAR(500),
+    start_time DATETIME NOT NULL,
+    end_time DATETIME
+);